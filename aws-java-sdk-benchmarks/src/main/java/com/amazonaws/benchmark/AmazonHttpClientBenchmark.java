@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.util.StringUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs DynamoDB GetItem calls through the whole client pipeline (marshalling, signing, the
+ * connection pool, AmazonHttpClient and unmarshalling) against a stub server on the loopback
+ * interface, so the network contributes as little as possible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class AmazonHttpClientBenchmark {
+
+    private static final byte[] GET_ITEM_RESPONSE = ("{\"Item\":{"
+            + "\"pk\":{\"S\":\"customer#0042\"},"
+            + "\"sk\":{\"N\":\"1514764800\"},"
+            + "\"name\":{\"S\":\"Jane Doe\"},"
+            + "\"active\":{\"BOOL\":true}}}").getBytes(StringUtils.UTF8);
+
+    private HttpServer server;
+    private AmazonDynamoDB client;
+    private GetItemRequest getItemRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        // Without this the stub's separate header and body writes stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new GetItemHandler());
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        client = AmazonDynamoDBClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("akid", "skid")))
+                .withEndpointConfiguration(new EndpointConfiguration(
+                        "http://localhost:" + server.getAddress().getPort(), "us-east-1"))
+                .build();
+        getItemRequest = new GetItemRequest()
+                .withTableName("Customers")
+                .addKeyEntry("pk", new AttributeValue().withS("customer#0042"))
+                .addKeyEntry("sk", new AttributeValue().withN("1514764800"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public GetItemResult getItem() {
+        return client.getItem(getItemRequest);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public GetItemResult getItemConcurrently() {
+        return client.getItem(getItemRequest);
+    }
+
+    private static class GetItemHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            // Drain the request so the connection can be reused
+            byte[] buffer = new byte[4096];
+            while (exchange.getRequestBody().read(buffer) != -1) {
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.0");
+            exchange.getResponseHeaders().add("x-amzn-RequestId", "59dbff89-35bd-4eac-99ed-be587EXAMPLE");
+            exchange.sendResponseHeaders(200, GET_ITEM_RESPONSE.length);
+            OutputStream body = exchange.getResponseBody();
+            body.write(GET_ITEM_RESPONSE);
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.protocol.json.StructuredJsonGenerator;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Canned requests and service responses shared by the benchmarks. Sizes are parameters so a
+ * benchmark can cover both the small responses that dominate request rates and the large ones
+ * that dominate CPU time.
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * Protocol factory configured the way the DynamoDB client configures it.
+     */
+    public static final SdkJsonProtocolFactory DYNAMODB_PROTOCOL_FACTORY = new SdkJsonProtocolFactory(
+            new JsonClientMetadata()
+                    .withProtocolVersion("1.0")
+                    .withSupportsCbor(false)
+                    .withSupportsIon(false));
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A DynamoDB PutItem request for an item with a mix of attribute types.
+     */
+    public static PutItemRequest putItemRequest() {
+        Map<String, AttributeValue> item = new HashMap<String, AttributeValue>();
+        item.put("pk", new AttributeValue().withS("customer#0042"));
+        item.put("sk", new AttributeValue().withN("1514764800"));
+        item.put("name", new AttributeValue().withS("Jane Doe"));
+        item.put("active", new AttributeValue().withBOOL(true));
+        item.put("tags", new AttributeValue().withSS("gold", "newsletter", "eu-west"));
+        item.put("address", new AttributeValue().withM(singletonMap("city", new AttributeValue().withS("Seattle"))));
+        return new PutItemRequest().withTableName("Customers").withItem(item);
+    }
+
+    /**
+     * Writes the body of a DynamoDB Query response with the given number of items using the given
+     * generator, so the same response can be produced as JSON, CBOR or Ion.
+     */
+    public static byte[] queryResponse(StructuredJsonGenerator generator, int items) {
+        generator.writeStartObject();
+        generator.writeFieldName("Count").writeValue(items);
+        generator.writeFieldName("ScannedCount").writeValue(items);
+        generator.writeFieldName("Items").writeStartArray();
+        for (int i = 0; i < items; i++) {
+            generator.writeStartObject();
+            writeAttribute(generator, "pk", "S", "customer#" + i);
+            writeAttribute(generator, "sk", "N", String.valueOf(1514764800 + i));
+            writeAttribute(generator, "name", "S", "Customer number " + i);
+            generator.writeFieldName("active").writeStartObject()
+                     .writeFieldName("BOOL").writeValue(i % 2 == 0)
+                     .writeEndObject();
+            generator.writeFieldName("tags").writeStartObject()
+                     .writeFieldName("SS").writeStartArray()
+                     .writeValue("gold").writeValue("newsletter")
+                     .writeEndArray()
+                     .writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        return generator.getBytes();
+    }
+
+    /**
+     * The body of an EC2 DescribeInstances response with the given number of reservations, each
+     * holding a single instance.
+     */
+    public static byte[] describeInstancesResponse(int reservations) {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<DescribeInstancesResponse xmlns=\"http://ec2.amazonaws.com/doc/2016-11-15/\">")
+           .append("<requestId>59dbff89-35bd-4eac-99ed-be587EXAMPLE</requestId>")
+           .append("<reservationSet>");
+        for (int i = 0; i < reservations; i++) {
+            xml.append("<item>")
+               .append("<reservationId>r-").append(i).append("</reservationId>")
+               .append("<ownerId>123456789012</ownerId>")
+               .append("<groupSet/>")
+               .append("<instancesSet><item>")
+               .append("<instanceId>i-").append(i).append("</instanceId>")
+               .append("<imageId>ami-bff32ccc</imageId>")
+               .append("<instanceState><code>16</code><name>running</name></instanceState>")
+               .append("<privateDnsName>ip-10-0-0-").append(i % 256).append(".ec2.internal</privateDnsName>")
+               .append("<dnsName/>")
+               .append("<instanceType>m4.large</instanceType>")
+               .append("<launchTime>2018-01-01T00:00:00.000Z</launchTime>")
+               .append("<placement><availabilityZone>us-east-1a</availabilityZone><tenancy>default</tenancy></placement>")
+               .append("<monitoring><state>disabled</state></monitoring>")
+               .append("<subnetId>subnet-56f5f633</subnetId>")
+               .append("<vpcId>vpc-11112222</vpcId>")
+               .append("<privateIpAddress>10.0.0.").append(i % 256).append("</privateIpAddress>")
+               .append("<tagSet><item><key>Name</key><value>web-").append(i).append("</value></item></tagSet>")
+               .append("</item></instancesSet>")
+               .append("</item>");
+        }
+        xml.append("</reservationSet></DescribeInstancesResponse>");
+        return xml.toString().getBytes(StringUtils.UTF8);
+    }
+
+    /**
+     * Wraps a response body in a successful {@link HttpResponse} as handed to response handlers.
+     */
+    public static HttpResponse httpResponse(byte[] body) {
+        HttpResponse response = new HttpResponse(null, null);
+        response.setStatusCode(200);
+        response.setStatusText("OK");
+        response.addHeader("x-amzn-RequestId", "59dbff89-35bd-4eac-99ed-be587EXAMPLE");
+        response.setContent(new ByteArrayInputStream(body));
+        return response;
+    }
+
+    private static void writeAttribute(StructuredJsonGenerator generator, String name, String type, String value) {
+        generator.writeFieldName(name).writeStartObject()
+                 .writeFieldName(type).writeValue(value)
+                 .writeEndObject();
+    }
+
+    private static Map<String, AttributeValue> singletonMap(String key, AttributeValue value) {
+        Map<String, AttributeValue> map = new HashMap<String, AttributeValue>();
+        map.put(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.http.HttpResponseHandler;
+import com.amazonaws.protocol.json.JsonClientMetadata;
+import com.amazonaws.protocol.json.JsonOperationMetadata;
+import com.amazonaws.protocol.json.SdkJsonProtocolFactory;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryResultJsonUnmarshaller;
+
+/**
+ * Unmarshalls a DynamoDB Query response through the response handler and generated unmarshaller,
+ * for each of the wire formats supported by the JSON protocol.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class JsonUnmarshallerBenchmark {
+
+    public enum WireFormat {
+        JSON(false, false),
+        CBOR(true, false),
+        ION(false, true);
+
+        private final boolean cbor;
+        private final boolean ion;
+
+        WireFormat(boolean cbor, boolean ion) {
+            this.cbor = cbor;
+            this.ion = ion;
+        }
+
+        private SdkJsonProtocolFactory protocolFactory() {
+            return new SdkJsonProtocolFactory(new JsonClientMetadata()
+                    .withProtocolVersion("1.0")
+                    .withSupportsCbor(cbor)
+                    .withSupportsIon(ion));
+        }
+    }
+
+    @Param({"JSON", "CBOR", "ION"})
+    private WireFormat wireFormat;
+
+    @Param({"10", "1000"})
+    private int items;
+
+    private HttpResponseHandler<AmazonWebServiceResponse<QueryResult>> responseHandler;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        SdkJsonProtocolFactory protocolFactory = wireFormat.protocolFactory();
+        responseHandler = protocolFactory.createResponseHandler(
+                new JsonOperationMetadata().withPayloadJson(true).withHasStreamingSuccessResponse(false),
+                new QueryResultJsonUnmarshaller());
+        body = BenchmarkFixtures.queryResponse(protocolFactory.createGenerator(), items);
+    }
+
+    @Benchmark
+    public AmazonWebServiceResponse<QueryResult> unmarshallQuery() throws Exception {
+        return responseHandler.handle(BenchmarkFixtures.httpResponse(body));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.AmazonWebServiceResponse;
+import com.amazonaws.http.StaxResponseHandler;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.transform.DescribeInstancesResultStaxUnmarshaller;
+
+/**
+ * Unmarshalls an EC2 DescribeInstances response through the StAX response handler and generated
+ * unmarshaller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class StaxUnmarshallerBenchmark {
+
+    @Param({"10", "1000"})
+    private int reservations;
+
+    private StaxResponseHandler<DescribeInstancesResult> responseHandler;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        responseHandler = new StaxResponseHandler<DescribeInstancesResult>(
+                DescribeInstancesResultStaxUnmarshaller.getInstance());
+        body = BenchmarkFixtures.describeInstancesResponse(reservations);
+    }
+
+    @Benchmark
+    public AmazonWebServiceResponse<DescribeInstancesResult> unmarshallDescribeInstances() throws Exception {
+        return responseHandler.handle(BenchmarkFixtures.httpResponse(body));
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.cloudwatch.model.transform;
+
+import com.amazonaws.Request;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+
+/**
+ * A request handler that marks PutMetricData requests as accepting a gzip
+ * compressed body, so they are compressed when request compression is enabled
+ * in the client configuration.
+ *
+ * @see com.amazonaws.ClientConfiguration#setUseRequestCompression(boolean)
+ */
+public final class AcceptsCompressedRequestHandler extends RequestHandler2 {
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        if (request.getOriginalRequest() instanceof PutMetricDataRequest) {
+            request.addHandlerContext(HandlerContextKey.ACCEPTS_COMPRESSED_REQUEST, Boolean.TRUE);
+        }
+    }
+}
@@ -136,6 +136,22 @@ public class ServiceMetricCollectorSupport extends ServiceMetricCollector
         }
     }
 
+    @Override
+    public void collectCount(ServiceMetricType type, long count) {
+        final Set<MetricType> metrics = AwsSdkMetrics.getPredefinedMetrics();
+        if (metrics.contains(type)) {
+            final Dimension dim = new Dimension()
+                .withName(Dimensions.MetricType.name())
+                .withValue(type.name());
+            final MetricDatum datum = new MetricDatum()
+                .withMetricName(type.getServiceName())
+                .withDimensions(dim)
+                .withUnit(StandardUnit.Count)
+                .withValue(Double.valueOf(count));
+            safeAddMetricsToQueue(datum);
+        }
+    }
+
     private void safeAddMetricsToQueue(MetricDatum metric) {
         try {
             if (!addMetricsToQueue(metric)) {
@@ -462,6 +462,25 @@ public abstract class AmazonWebServiceClient {
         client.shutdown();
     }
 
+    /**
+     * Opens connections to this client's endpoint ahead of the first requests, so that those
+     * requests don't pay for the TCP and TLS handshakes. The connections are opened in parallel and
+     * kept in the client's connection pool until they are used or expire like any other pooled
+     * connection.
+     * <p>
+     * The number of connections is capped by the limits of the connection pool, see
+     * {@link ClientConfiguration#setMaxConnections(int)}. Connections through a proxy are not opened
+     * ahead of time. Failures to connect are logged and otherwise ignored, as requests open
+     * connections as needed.
+     *
+     * @param connections
+     *            The number of connections to the endpoint the pool should hold.
+     * @return The number of open connections to the endpoint in the pool.
+     */
+    public int warmUp(int connections) {
+        return client.warmUp(endpoint, connections);
+    }
+
     /**
      * @deprecated by {@link #addRequestHandler(RequestHandler2)}.
      *
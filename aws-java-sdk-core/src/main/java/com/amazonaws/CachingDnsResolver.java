@@ -0,0 +1,333 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.auth.SdkClock;
+import com.amazonaws.util.ValidationUtils;
+
+/**
+ * A {@link DnsResolver} that caches the addresses of each host and spreads new connections across
+ * all of them.
+ * <p>
+ * Resolved addresses are cached for a configurable time to live. Once an entry is within the
+ * refresh window of its expiry, the next lookup still returns the cached addresses but triggers
+ * a refresh in the background, so hosts that are in constant use never pay for a lookup on the
+ * request path. Entries that fully expire are resolved again on the calling thread.
+ * <p>
+ * Each lookup returns the addresses rotated by one position, so new connections are distributed
+ * round robin across all addresses of a host instead of always favoring the first. Addresses that
+ * fail to connect are dropped from the rotation until the host is next resolved, unless no other
+ * address is left.
+ * <p>
+ * At most {@link #DEFAULT_MAX_HOSTS} hosts are cached; beyond that the least recently resolved
+ * host is evicted, so clients that talk to many hosts, e.g. one per S3 bucket, don't grow the cache
+ * without bound. Expired entries are swept out at most once per time to live. Lookups take a lock
+ * on the cache, which is cheap as they only happen when a new connection is opened.
+ * <p>
+ * The underlying lookups are done by another resolver, the {@link SystemDefaultDnsResolver} by
+ * default, which is still subject to the JVM's own address cache (see the
+ * {@code networkaddress.cache.ttl} security property).
+ */
+@ThreadSafe
+public class CachingDnsResolver implements DnsResolver {
+
+    private static final Log LOG = LogFactory.getLog(CachingDnsResolver.class);
+
+    /**
+     * The default time to live of cached addresses, matching the JVM's default address cache.
+     */
+    public static final long DEFAULT_TTL_MILLIS = 30 * 1000;
+
+    /**
+     * The default window before expiry in which cached addresses are refreshed in the background.
+     */
+    public static final long DEFAULT_REFRESH_AHEAD_MILLIS = 10 * 1000;
+
+    /**
+     * The default maximum number of hosts whose addresses are cached.
+     */
+    public static final int DEFAULT_MAX_HOSTS = 1000;
+
+    private final DnsResolver delegate;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final Executor refreshExecutor;
+    private final SdkClock clock;
+
+    /** Guarded by itself. */
+    private final Map<String, Entry> cache;
+
+    /** Guarded by {@link #cache}. */
+    private long nextSweepAt;
+
+    /**
+     * Creates a resolver using the default time to live and refresh window.
+     */
+    public CachingDnsResolver() {
+        this(new SystemDefaultDnsResolver(), DEFAULT_TTL_MILLIS, DEFAULT_REFRESH_AHEAD_MILLIS,
+             TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param delegate
+     *            Resolver doing the actual lookups.
+     * @param ttl
+     *            How long resolved addresses are cached.
+     * @param refreshAhead
+     *            How long before expiry cached addresses are refreshed in the background. Zero
+     *            disables background refreshes. Must be less than the time to live.
+     * @param unit
+     *            Time unit of the time to live and refresh window.
+     */
+    public CachingDnsResolver(DnsResolver delegate, long ttl, long refreshAhead, TimeUnit unit) {
+        this(delegate, ttl, refreshAhead, unit, DEFAULT_MAX_HOSTS, RefreshExecutorHolder.REFRESH_EXECUTOR,
+             SdkClock.STANDARD);
+    }
+
+    @SdkTestInternalApi
+    CachingDnsResolver(DnsResolver delegate, long ttl, long refreshAhead, TimeUnit unit, int maxHosts,
+                       Executor refreshExecutor, SdkClock clock) {
+        this.delegate = ValidationUtils.assertNotNull(delegate, "delegate");
+        this.ttlMillis = unit.toMillis(ttl);
+        this.refreshAheadMillis = unit.toMillis(refreshAhead);
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        if (refreshAheadMillis < 0 || refreshAheadMillis >= ttlMillis) {
+            throw new IllegalArgumentException("refreshAhead must be between zero and the ttl: " + refreshAhead);
+        }
+        if (maxHosts <= 0) {
+            throw new IllegalArgumentException("maxHosts must be positive: " + maxHosts);
+        }
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.cache = new LruMap(maxHosts);
+        this.nextSweepAt = clock.currentTimeMillis() + ttlMillis;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = clock.currentTimeMillis();
+        Entry entry = getEntry(host);
+        if (entry == null || now >= entry.expiresAt) {
+            entry = lookup(host);
+        } else if (refreshAheadMillis > 0 && now >= entry.expiresAt - refreshAheadMillis) {
+            refreshAsync(host, entry);
+        }
+        return entry.nextAddresses();
+    }
+
+    /**
+     * Drops the given address of the host from the rotation until the host is next resolved. The
+     * SDK reports addresses that could not be connected to; it's only useful to call this
+     * directly when connections are made outside of the SDK's HTTP client.
+     */
+    public void reportFailure(String host, InetAddress address) {
+        Entry entry = getEntry(host);
+        if (entry != null && entry.markFailed(address) && LOG.isDebugEnabled()) {
+            LOG.debug("Dropped " + address + " of " + host + " from rotation after it failed to connect");
+        }
+    }
+
+    /**
+     * Removes all cached addresses so the next lookup of every host resolves it again.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return Number of hosts currently cached, including expired ones not swept out yet.
+     */
+    @SdkTestInternalApi
+    int getCachedHostCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Entry getEntry(String host) {
+        synchronized (cache) {
+            return cache.get(host);
+        }
+    }
+
+    private Entry lookup(String host) throws UnknownHostException {
+        InetAddress[] addresses = delegate.resolve(host);
+        long now = clock.currentTimeMillis();
+        Entry entry = new Entry(addresses, now + ttlMillis);
+        if (addresses.length > 0) {
+            synchronized (cache) {
+                sweepExpired(now);
+                cache.put(host, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the expired entries, at most once per time to live so the cost of walking the cache
+     * is spread over many lookups. Must hold the lock on {@link #cache}.
+     */
+    private void sweepExpired(long now) {
+        if (now < nextSweepAt) {
+            return;
+        }
+        Iterator<Entry> entries = cache.values().iterator();
+        while (entries.hasNext()) {
+            if (now >= entries.next().expiresAt) {
+                entries.remove();
+            }
+        }
+        nextSweepAt = now + ttlMillis;
+    }
+
+    private void refreshAsync(final String host, final Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        lookup(host);
+                    } catch (Exception e) {
+                        // Keep serving the cached addresses; the lookup is retried on expiry
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Unable to refresh the addresses of " + host, e);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * The addresses of a host and the state of their rotation.
+     */
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        private final long expiresAt;
+        private final AtomicInteger position = new AtomicInteger();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private final Set<InetAddress> failed = Collections.newSetFromMap(
+                new ConcurrentHashMap<InetAddress, Boolean>());
+
+        private Entry(InetAddress[] addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean markFailed(InetAddress address) {
+            return Arrays.asList(addresses).contains(address) && failed.add(address);
+        }
+
+        /**
+         * @return The addresses that haven't failed, starting one position further than the
+         *         previous call. All addresses if every one of them has failed.
+         */
+        private InetAddress[] nextAddresses() {
+            int length = addresses.length;
+            if (length == 0) {
+                return addresses;
+            }
+            int start = (position.getAndIncrement() & Integer.MAX_VALUE) % length;
+            List<InetAddress> rotated = new ArrayList<InetAddress>(length);
+            for (int i = 0; i < length; i++) {
+                InetAddress address = addresses[(start + i) % length];
+                if (failed.isEmpty() || !failed.contains(address)) {
+                    rotated.add(address);
+                }
+            }
+            if (rotated.isEmpty()) {
+                for (int i = 0; i < length; i++) {
+                    rotated.add(addresses[(start + i) % length]);
+                }
+            }
+            return rotated.toArray(new InetAddress[rotated.size()]);
+        }
+    }
+
+    /**
+     * Map in access order that evicts the least recently used host once full.
+     */
+    private static final class LruMap extends LinkedHashMap<String, Entry> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * Runs the background refreshes of all resolvers on a single daemon thread that exits when
+     * idle.
+     */
+    private static final class RefreshExecutorHolder {
+        private static final ThreadPoolExecutor REFRESH_EXECUTOR = createRefreshExecutor();
+
+        private static ThreadPoolExecutor createRefreshExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r);
+                            t.setName("java-sdk-dns-refresh-thread");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -55,6 +55,18 @@ public class ClientConfiguration {
     /** The default max connection pool size. */
     public static final int DEFAULT_MAX_CONNECTIONS = 50;
 
+    /**
+     * The default maximum number of connections per route. A negative value means the max connection
+     * pool size is used.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = -1;
+
+    /** The default on whether to size the connection pool adaptively. */
+    public static final boolean DEFAULT_USE_ADAPTIVE_CONNECTION_POOL = false;
+
+    /** The default min connection pool size when the pool is sized adaptively. */
+    public static final int DEFAULT_MIN_CONNECTIONS = 10;
+
     /**
      * The default on whether to utilize the USE_EXPECT_CONTINUE handshake for operations. Currently
      * only honored for PUT operations.
@@ -85,6 +97,16 @@ public class ClientConfiguration {
      */
     public static final boolean DEFAULT_USE_GZIP = false;
 
+    /**
+     * The default on whether to compress the bodies of requests to operations that accept it.
+     */
+    public static final boolean DEFAULT_USE_REQUEST_COMPRESSION = false;
+
+    /**
+     * The default minimum size (in bytes) of a request body to be compressed.
+     */
+    public static final int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = 10 * 1024;
+
     /**
      * The default expiration time (in milliseconds) for a connection in the connection pool.
      */
@@ -105,6 +127,18 @@ public class ClientConfiguration {
      */
     public static final boolean DEFAULT_TCP_KEEP_ALIVE = false;
 
+    /**
+     * The default maximum number of TLS sessions cached for resumption. A negative value means the
+     * JVM default is used.
+     */
+    public static final int DEFAULT_TLS_SESSION_CACHE_SIZE = -1;
+
+    /**
+     * The default time a cached TLS session can be resumed. A negative value means the JVM default
+     * is used.
+     */
+    public static final long DEFAULT_TLS_SESSION_TIMEOUT_MILLIS = -1;
+
     /**
      * The default on whether to throttle retries.
      */
@@ -181,6 +215,18 @@ public class ClientConfiguration {
     /** The maximum number of open HTTP connections. */
     private int maxConnections = DEFAULT_MAX_CONNECTIONS;
 
+    /** The maximum number of open HTTP connections to a single route. */
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    /** Maximum number of open HTTP connections to specific hosts, overriding the per route limit. */
+    private Map<String, Integer> maxConnectionsPerHost = new HashMap<String, Integer>();
+
+    /** Whether to grow and shrink the connection pool between the min and max connections. */
+    private boolean useAdaptiveConnectionPool = DEFAULT_USE_ADAPTIVE_CONNECTION_POOL;
+
+    /** The minimum size of the connection pool, if it is sized adaptively. */
+    private int minConnections = DEFAULT_MIN_CONNECTIONS;
+
     /**
      * The amount of time to wait (in milliseconds) for data to be transfered over an established,
      * open connection before the connection is timed out. A value of 0 means infinity, and is not
@@ -232,6 +278,16 @@ public class ClientConfiguration {
      */
     private boolean useGzip = DEFAULT_USE_GZIP;
 
+    /**
+     * Optional whether to gzip compress the bodies of requests to operations that accept it.
+     */
+    private boolean useRequestCompression = DEFAULT_USE_REQUEST_COMPRESSION;
+
+    /**
+     * The minimum size (in bytes) of a request body to be compressed.
+     */
+    private int requestCompressionThreshold = DEFAULT_REQUEST_COMPRESSION_THRESHOLD;
+
     /**
      * Optional override to control which signature algorithm should be used to sign requests to the
      * service. If not explicitly set, the client will determine the algorithm to use by inspecting
@@ -295,6 +351,12 @@ public class ClientConfiguration {
      */
     private SecureRandom secureRandom;
 
+    /** The maximum number of TLS sessions cached for resumption; negative for the JVM default. */
+    private int tlsSessionCacheSize = DEFAULT_TLS_SESSION_CACHE_SIZE;
+
+    /** How long, in milliseconds, a cached TLS session can be resumed; negative for the JVM default. */
+    private long tlsSessionTimeoutMillis = DEFAULT_TLS_SESSION_TIMEOUT_MILLIS;
+
     /**
      * Headers to be added to all requests
      */
@@ -330,6 +392,11 @@ public class ClientConfiguration {
     public ClientConfiguration(ClientConfiguration other) {
         this.connectionTimeout = other.getConnectionTimeout();
         this.maxConnections = other.getMaxConnections();
+        this.maxConnectionsPerRoute = other.getMaxConnectionsPerRoute();
+        this.maxConnectionsPerHost.clear();
+        this.maxConnectionsPerHost.putAll(other.getMaxConnectionsPerHost());
+        this.useAdaptiveConnectionPool = other.useAdaptiveConnectionPool();
+        this.minConnections = other.getMinConnections();
         this.maxErrorRetry = other.getMaxErrorRetry();
         this.retryPolicy = other.getRetryPolicy();
         this.throttleRetries = other.useThrottledRetries();
@@ -351,6 +418,8 @@ public class ClientConfiguration {
         this.userAgentSuffix = other.getUserAgentSuffix();
         this.useReaper = other.useReaper();
         this.useGzip = other.useGzip();
+        this.useRequestCompression = other.useRequestCompression();
+        this.requestCompressionThreshold = other.getRequestCompressionThreshold();
         this.socketSendBufferSizeHint = other.getSocketBufferSizeHints()[0];
         this.socketReceiveBufferSizeHint = other.getSocketBufferSizeHints()[1];
         this.signerOverride = other.getSignerOverride();
@@ -364,6 +433,8 @@ public class ClientConfiguration {
         this.validateAfterInactivityMillis = other.getValidateAfterInactivityMillis();
         this.tcpKeepAlive = other.useTcpKeepAlive();
         this.secureRandom = other.getSecureRandom();
+        this.tlsSessionCacheSize = other.getTlsSessionCacheSize();
+        this.tlsSessionTimeoutMillis = other.getTlsSessionTimeoutMillis();
         this.headers.clear();
         this.headers.putAll(other.getHeaders());
         this.maxConsecutiveRetriesBeforeThrottling = other.getMaxConsecutiveRetriesBeforeThrottling();
@@ -449,6 +520,173 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the maximum number of allowed open HTTP connections to a single route, i.e. to a
+     * single host and port through the same proxy. A negative value means the maximum number of
+     * allowed open HTTP connections applies.
+     * <p>
+     * The default value is {@value #DEFAULT_MAX_CONNECTIONS_PER_ROUTE}.
+     *
+     * @return The maximum number of allowed open HTTP connections to a single route.
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of allowed open HTTP connections to a single route, i.e. to a
+     * single host and port through the same proxy. Lowering it below the maximum number of
+     * allowed open HTTP connections keeps requests to one host, such as one S3 bucket's virtual
+     * host, from taking up the whole pool. A negative value means the maximum number of allowed
+     * open HTTP connections applies.
+     * <p>
+     * The default value is {@value #DEFAULT_MAX_CONNECTIONS_PER_ROUTE}.
+     *
+     * @param maxConnectionsPerRoute
+     *            The maximum number of allowed open HTTP connections to a single route.
+     */
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of allowed open HTTP connections to a single route and returns the
+     * updated ClientConfiguration object.
+     *
+     * @param maxConnectionsPerRoute
+     *            The maximum number of allowed open HTTP connections to a single route.
+     * @return The updated ClientConfiguration object.
+     * @see #setMaxConnectionsPerRoute(int)
+     */
+    public ClientConfiguration withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of HTTP connections in use at the same time to specific hosts,
+     * on top of the maximum per route.
+     *
+     * @return The maximum number of HTTP connections in use by host name.
+     */
+    public Map<String, Integer> getMaxConnectionsPerHost() {
+        return Collections.unmodifiableMap(maxConnectionsPerHost);
+    }
+
+    /**
+     * Sets the maximum number of HTTP connections in use at the same time for every route to the
+     * given host. The limit applies on top of the maximum per route, so it only has an effect when
+     * it's lower. A host name starting with a dot, such as {@code .s3.amazonaws.com}, applies the
+     * limit to each of its subdomains, e.g. to the virtual host of each S3 bucket.
+     *
+     * @param host
+     *            The host name.
+     * @param maxConnections
+     *            The maximum number of HTTP connections in use to each route to the host.
+     */
+    public void setMaxConnectionsPerHost(String host, int maxConnections) {
+        maxConnectionsPerHost.put(host, maxConnections);
+    }
+
+    /**
+     * Sets the maximum number of HTTP connections in use at the same time for every route to the
+     * given host and returns the updated ClientConfiguration object.
+     *
+     * @param host
+     *            The host name.
+     * @param maxConnections
+     *            The maximum number of HTTP connections in use to each route to the host.
+     * @return The updated ClientConfiguration object.
+     * @see #setMaxConnectionsPerHost(String, int)
+     */
+    public ClientConfiguration withMaxConnectionsPerHost(String host, int maxConnections) {
+        setMaxConnectionsPerHost(host, maxConnections);
+        return this;
+    }
+
+    /**
+     * Checks if the connection pool is sized adaptively.
+     * <p>
+     * The default value is {@value #DEFAULT_USE_ADAPTIVE_CONNECTION_POOL}.
+     *
+     * @return True if the connection pool is sized adaptively.
+     * @see #setUseAdaptiveConnectionPool(boolean)
+     */
+    public boolean useAdaptiveConnectionPool() {
+        return useAdaptiveConnectionPool;
+    }
+
+    /**
+     * Sets whether to size the connection pool adaptively. An adaptive pool starts out allowing
+     * the minimum number of connections and grows towards the maximum number of allowed open
+     * HTTP connections whenever requests have to wait for a connection. Once connections have
+     * been sitting idle for a while it shrinks back towards the minimum, so bursts don't leave
+     * the pool holding on to sockets it no longer needs.
+     * <p>
+     * The default value is {@value #DEFAULT_USE_ADAPTIVE_CONNECTION_POOL}.
+     *
+     * @param useAdaptiveConnectionPool
+     *            Whether to size the connection pool adaptively.
+     * @see #setMinConnections(int)
+     * @see #setMaxConnections(int)
+     */
+    public void setUseAdaptiveConnectionPool(boolean useAdaptiveConnectionPool) {
+        this.useAdaptiveConnectionPool = useAdaptiveConnectionPool;
+    }
+
+    /**
+     * Sets whether to size the connection pool adaptively and returns the updated
+     * ClientConfiguration object.
+     *
+     * @param useAdaptiveConnectionPool
+     *            Whether to size the connection pool adaptively.
+     * @return The updated ClientConfiguration object.
+     * @see #setUseAdaptiveConnectionPool(boolean)
+     */
+    public ClientConfiguration withAdaptiveConnectionPool(boolean useAdaptiveConnectionPool) {
+        setUseAdaptiveConnectionPool(useAdaptiveConnectionPool);
+        return this;
+    }
+
+    /**
+     * Returns the minimum size of the connection pool when it is sized adaptively.
+     * <p>
+     * The default value is {@value #DEFAULT_MIN_CONNECTIONS}.
+     *
+     * @return The minimum size of the connection pool.
+     */
+    public int getMinConnections() {
+        return minConnections;
+    }
+
+    /**
+     * Sets the minimum size of the connection pool when it is sized adaptively. Values larger than
+     * the maximum number of allowed open HTTP connections are capped to it.
+     * <p>
+     * The default value is {@value #DEFAULT_MIN_CONNECTIONS}.
+     *
+     * @param minConnections
+     *            The minimum size of the connection pool.
+     * @see #setUseAdaptiveConnectionPool(boolean)
+     */
+    public void setMinConnections(int minConnections) {
+        this.minConnections = minConnections;
+    }
+
+    /**
+     * Sets the minimum size of the connection pool when it is sized adaptively and returns the
+     * updated ClientConfiguration object.
+     *
+     * @param minConnections
+     *            The minimum size of the connection pool.
+     * @return The updated ClientConfiguration object.
+     * @see #setMinConnections(int)
+     */
+    public ClientConfiguration withMinConnections(int minConnections) {
+        setMinConnections(minConnections);
+        return this;
+    }
+
     /**
      * @deprecated Replaced by {@link #getUserAgentPrefix()} and {@link #getUserAgentSuffix()}
      * @return The user agent string to use when sending requests.
@@ -1475,6 +1713,82 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Checks if request compression is used
+     *
+     * @return if request compression is used
+     * @see #setUseRequestCompression(boolean)
+     */
+    public boolean useRequestCompression() {
+        return useRequestCompression;
+    }
+
+    /**
+     * Sets whether to gzip compress the bodies of requests to operations that accept compressed
+     * requests, such as Amazon CloudWatch's PutMetricData. Bodies smaller than the
+     * {@link #setRequestCompressionThreshold(int) threshold} are sent as is. Compression trades
+     * CPU time for bandwidth, which pays off when the network is the bottleneck.
+     * <p>
+     * An operation accepts compressed requests if the service client marks it so, or if the
+     * {@link com.amazonaws.handlers.HandlerContextKey#ACCEPTS_COMPRESSED_REQUEST} handler context
+     * of the request is set.
+     *
+     * @param use
+     *            Whether to compress request bodies.
+     */
+    public void setUseRequestCompression(boolean use) {
+        this.useRequestCompression = use;
+    }
+
+    /**
+     * Sets whether to gzip compress the bodies of requests to operations that accept it and
+     * returns the updated ClientConfiguration object.
+     *
+     * @param use
+     *            Whether to compress request bodies.
+     * @return The updated ClientConfiguration object.
+     * @see #setUseRequestCompression(boolean)
+     */
+    public ClientConfiguration withRequestCompression(boolean use) {
+        setUseRequestCompression(use);
+        return this;
+    }
+
+    /**
+     * Returns the minimum size (in bytes) of a request body to be compressed.
+     *
+     * @return The minimum size of a request body to be compressed.
+     */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size (in bytes) of a request body to be compressed, if request compression
+     * is used. Compressing small bodies costs more time than it saves.
+     * <p>
+     * The default value is {@value #DEFAULT_REQUEST_COMPRESSION_THRESHOLD} bytes.
+     *
+     * @param requestCompressionThreshold
+     *            The minimum size of a request body to be compressed.
+     */
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size (in bytes) of a request body to be compressed and returns the updated
+     * ClientConfiguration object.
+     *
+     * @param requestCompressionThreshold
+     *            The minimum size of a request body to be compressed.
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withRequestCompressionThreshold(int requestCompressionThreshold) {
+        setRequestCompressionThreshold(requestCompressionThreshold);
+        return this;
+    }
+
     /**
      * Returns the optional size hints (in bytes) for the low level TCP send and receive buffers.
      * This is an advanced option for advanced users who want to tune low level TCP parameters to
@@ -1909,6 +2223,8 @@ public class ClientConfiguration {
 
     /**
      * Sets the DNS Resolver that should be used to for resolving AWS IP addresses.
+     * Use a {@link CachingDnsResolver} to cache lookups and spread connections across all
+     * addresses of a host.
      */
     public void setDnsResolver(final DnsResolver resolver) {
         if (resolver == null) {
@@ -1952,6 +2268,11 @@ public class ClientConfiguration {
      * While this feature is useful for debugging it adds overhead and disabling it may
      * be desired in high throughput applications.
      * </p>
+     * <p>
+     * Disabling the cache doesn't lose the metadata of operations whose result extends
+     * {@link AmazonWebServiceResult}; it's still available from the result with
+     * {@link AmazonWebServiceResult#getSdkResponseMetadata()}.
+     * </p>
      *
      * @param shouldCache true if response metadata should be cached
      */
@@ -2044,6 +2365,102 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the maximum number of TLS sessions the client caches for resumption.
+     * <p>
+     * The default value is {@value #DEFAULT_TLS_SESSION_CACHE_SIZE}, meaning the JVM default
+     * (see the {@code javax.net.ssl.sessionCacheSize} system property) is used.
+     *
+     * @return The maximum number of cached TLS sessions, zero for no limit, or a negative value
+     *         for the JVM default.
+     */
+    public int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions the client caches for resumption. Connections to a
+     * host with a cached session resume it with an abbreviated handshake, which saves a round trip
+     * and the key exchange. Clients opening many connections to many hosts, for example with a
+     * large connection pool spread over many DNS addresses, may need a larger cache than the JVM
+     * default to keep resuming sessions.
+     * <p>
+     * Only applies to the TLS socket factory created by the SDK, not to one configured with
+     * {@link ApacheHttpClientConfig#setSslSocketFactory}.
+     * <p>
+     * The default value is {@value #DEFAULT_TLS_SESSION_CACHE_SIZE}, meaning the JVM default
+     * is used.
+     *
+     * @param tlsSessionCacheSize
+     *            The maximum number of cached TLS sessions, zero for no limit, or a negative value
+     *            for the JVM default.
+     */
+    public void setTlsSessionCacheSize(int tlsSessionCacheSize) {
+        this.tlsSessionCacheSize = tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions the client caches for resumption and returns the
+     * updated ClientConfiguration object.
+     *
+     * @param tlsSessionCacheSize
+     *            The maximum number of cached TLS sessions, zero for no limit, or a negative value
+     *            for the JVM default.
+     * @return The updated ClientConfiguration object.
+     * @see #setTlsSessionCacheSize(int)
+     */
+    public ClientConfiguration withTlsSessionCacheSize(int tlsSessionCacheSize) {
+        setTlsSessionCacheSize(tlsSessionCacheSize);
+        return this;
+    }
+
+    /**
+     * Returns how long, in milliseconds, a cached TLS session can be resumed.
+     * <p>
+     * The default value is {@value #DEFAULT_TLS_SESSION_TIMEOUT_MILLIS}, meaning the JVM default
+     * is used.
+     *
+     * @return The TLS session timeout in milliseconds, zero for no limit, or a negative value for
+     *         the JVM default.
+     */
+    public long getTlsSessionTimeoutMillis() {
+        return tlsSessionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long, in milliseconds, a cached TLS session can be resumed. The timeout is applied
+     * with a granularity of seconds, rounding up. Sessions are also bound by the lifetime the
+     * server allows.
+     * <p>
+     * Only applies to the TLS socket factory created by the SDK, not to one configured with
+     * {@link ApacheHttpClientConfig#setSslSocketFactory}.
+     * <p>
+     * The default value is {@value #DEFAULT_TLS_SESSION_TIMEOUT_MILLIS}, meaning the JVM default
+     * is used.
+     *
+     * @param tlsSessionTimeoutMillis
+     *            The TLS session timeout in milliseconds, zero for no limit, or a negative value for
+     *            the JVM default.
+     */
+    public void setTlsSessionTimeoutMillis(long tlsSessionTimeoutMillis) {
+        this.tlsSessionTimeoutMillis = tlsSessionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long, in milliseconds, a cached TLS session can be resumed and returns the updated
+     * ClientConfiguration object.
+     *
+     * @param tlsSessionTimeoutMillis
+     *            The TLS session timeout in milliseconds, zero for no limit, or a negative value for
+     *            the JVM default.
+     * @return The updated ClientConfiguration object.
+     * @see #setTlsSessionTimeoutMillis(long)
+     */
+    public ClientConfiguration withTlsSessionTimeoutMillis(long tlsSessionTimeoutMillis) {
+        setTlsSessionTimeoutMillis(tlsSessionTimeoutMillis);
+        return this;
+    }
+
     /**
      * Returns the use expect continue flag
      */
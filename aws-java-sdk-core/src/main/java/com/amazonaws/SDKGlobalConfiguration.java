@@ -266,6 +266,23 @@ public class SDKGlobalConfiguration {
      */
     public static final String AWS_EC2_METADATA_DISABLED_SYSTEM_PROPERTY = "com.amazonaws.sdk.disableEc2Metadata";
 
+    /**
+     * System property to set the period, in milliseconds, between sweeps of the
+     * {@link com.amazonaws.http.IdleConnectionReaper} over all connection pools. Defaults to one
+     * minute; lower it if idle connections are dropped by NATs or load balancers in less than the
+     * max idle time plus this period.
+     */
+    public static final String IDLE_CONNECTION_REAPER_PERIOD_SYSTEM_PROPERTY =
+            "com.amazonaws.sdk.idleConnectionReaperPeriodMillis";
+
+    /**
+     * System property to set the maximum number of bytes held by the
+     * {@link com.amazonaws.util.ByteArrayPool} that recycles the buffers used to marshall requests
+     * and read responses. Defaults to 2 MiB; zero disables pooling.
+     */
+    public static final String BYTE_ARRAY_POOL_MAX_BYTES_SYSTEM_PROPERTY =
+            "com.amazonaws.sdk.byteArrayPoolMaxBytes";
+
 
     /**
      * @deprecated by {@link SDKGlobalTime#setGlobalTimeOffset(int)}
@@ -21,7 +21,7 @@ import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.auth.internal.AWS4SignerRequestParams;
 import com.amazonaws.auth.internal.AWS4SignerUtils;
 import com.amazonaws.auth.internal.SignerKey;
-import com.amazonaws.internal.FIFOCache;
+import com.amazonaws.auth.internal.SignerKeyCache;
 import com.amazonaws.log.InternalLogApi;
 import com.amazonaws.log.InternalLogFactory;
 import com.amazonaws.util.BinaryUtils;
@@ -32,14 +32,14 @@ import com.amazonaws.util.StringUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.nio.charset.Charset;
-import java.util.ArrayList;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 import static com.amazonaws.auth.internal.SignerConstants.AUTHORIZATION;
 import static com.amazonaws.auth.internal.SignerConstants.AWS4_SIGNING_ALGORITHM;
@@ -63,10 +63,21 @@ public class AWS4Signer extends AbstractAWSSigner implements
         ServiceAwareSigner, RegionAwareSigner, Presigner, EndpointPrefixAwareSigner {
 
     protected static final InternalLogApi log = InternalLogFactory.getLog(AWS4Signer.class);
-    private static final int SIGNER_CACHE_MAX_SIZE = 300;
-    private static final FIFOCache<SignerKey> signerCache = new FIFOCache<SignerKey>(SIGNER_CACHE_MAX_SIZE);
+    private static final SignerKeyCache signerCache = SignerKeyCache.getSharedCache();
     private static final List<String> listOfHeadersToIgnoreInLowerCase = Arrays.asList("connection", "x-amzn-trace-id");
 
+    /**
+     * HMAC-SHA256 instance of each thread, kept initialized with the last signing key it computed
+     * a signature with. Requests signed in a row share the same signing key for a day, so this
+     * saves re-keying the MAC for every request.
+     */
+    private static final ThreadLocal<KeyedMac> signatureMac = new ThreadLocal<KeyedMac>() {
+        @Override
+        protected KeyedMac initialValue() {
+            return new KeyedMac();
+        }
+    };
+
     private final SdkClock clock;
 
     /**
@@ -319,10 +330,10 @@ public class AWS4Signer extends AbstractAWSSigner implements
         final String path = SdkHttpUtils.appendUri(
                 request.getEndpoint().getPath(), request.getResourcePath());
 
-        final StringBuilder canonicalRequestBuilder = new StringBuilder(request
-                .getHttpMethod().toString());
+        final StringBuilder canonicalRequestBuilder = new StringBuilder(512);
 
-        canonicalRequestBuilder.append(LINE_SEPARATOR)
+        canonicalRequestBuilder.append(request.getHttpMethod().toString())
+                .append(LINE_SEPARATOR)
                 // This would optionally double url-encode the resource path
                 .append(getCanonicalizedResourcePath(path, doubleUrlEncode))
                 .append(LINE_SEPARATOR)
@@ -330,7 +341,8 @@ public class AWS4Signer extends AbstractAWSSigner implements
                 .append(LINE_SEPARATOR)
                 .append(getCanonicalizedHeaderString(request))
                 .append(LINE_SEPARATOR)
-                .append(getSignedHeadersString(request)).append(LINE_SEPARATOR)
+                .append(getSignedHeadersString(request))
+                .append(LINE_SEPARATOR)
                 .append(contentSha256);
 
         final String canonicalRequest = canonicalRequestBuilder.toString();
@@ -349,9 +361,9 @@ public class AWS4Signer extends AbstractAWSSigner implements
     protected String createStringToSign(String canonicalRequest,
             AWS4SignerRequestParams signerParams) {
 
-        final StringBuilder stringToSignBuilder = new StringBuilder(
-                signerParams.getSigningAlgorithm());
-        stringToSignBuilder.append(LINE_SEPARATOR)
+        final StringBuilder stringToSignBuilder = new StringBuilder(160);
+        stringToSignBuilder.append(signerParams.getSigningAlgorithm())
+                .append(LINE_SEPARATOR)
                 .append(signerParams.getFormattedSigningDateTime())
                 .append(LINE_SEPARATOR)
                 .append(signerParams.getScope())
@@ -375,19 +387,18 @@ public class AWS4Signer extends AbstractAWSSigner implements
     private final byte[] deriveSigningKey(AWSCredentials credentials,
             AWS4SignerRequestParams signerRequestParams) {
 
-        final String cacheKey = computeSigningCacheKeyName(credentials,
-                signerRequestParams);
+        final String secretKey = credentials.getAWSSecretKey();
+        final String regionName = signerRequestParams.getRegionName();
+        final String serviceName = signerRequestParams.getServiceName();
         final long daysSinceEpochSigningDate = DateUtils
                 .numberOfDaysSinceEpoch(signerRequestParams
                         .getSigningDateTimeMilli());
 
-        SignerKey signerKey = signerCache.get(cacheKey);
+        SignerKey signerKey = signerCache.get(secretKey, regionName,
+                serviceName, daysSinceEpochSigningDate);
 
         if (signerKey != null) {
-            if (daysSinceEpochSigningDate == signerKey
-                    .getNumberOfDaysSinceEpoch()) {
-                return signerKey.getSigningKey();
-            }
+            return signerKey.getSigningKey();
         }
         if (log.isDebugEnabled()) {
             log.debug("Generating a new signing key as the signing key not available in the cache for the date "
@@ -395,27 +406,13 @@ public class AWS4Signer extends AbstractAWSSigner implements
         }
         byte[] signingKey = newSigningKey(credentials,
                 signerRequestParams.getFormattedSigningDate(),
-                signerRequestParams.getRegionName(),
-                signerRequestParams.getServiceName());
-        signerCache.add(cacheKey, new SignerKey(
+                regionName,
+                serviceName);
+        signerCache.add(secretKey, regionName, serviceName, new SignerKey(
                 daysSinceEpochSigningDate, signingKey));
         return signingKey;
     }
 
-    /**
-     * Computes the name to be used to reference the signing key in the cache.
-     */
-    private final String computeSigningCacheKeyName(AWSCredentials credentials,
-            AWS4SignerRequestParams signerRequestParams) {
-        final StringBuilder hashKeyBuilder = new StringBuilder(
-                credentials.getAWSSecretKey());
-
-        return hashKeyBuilder.append("-")
-                .append(signerRequestParams.getRegionName())
-                .append("-")
-                .append(signerRequestParams.getServiceName()).toString();
-    }
-
     /**
      * Step 3 of the AWS Signature version 4 calculation. It involves deriving
      * the signing key and computing the signature. Refer to
@@ -424,8 +421,7 @@ public class AWS4Signer extends AbstractAWSSigner implements
      */
     protected final byte[] computeSignature(String stringToSign,
             byte[] signingKey, AWS4SignerRequestParams signerRequestParams) {
-        return sign(stringToSign.getBytes(Charset.forName("UTF-8")), signingKey,
-                SigningAlgorithm.HmacSHA256);
+        return signatureMac.get().sign(stringToSign.getBytes(StringUtils.UTF8), signingKey);
     }
 
     /**
@@ -434,25 +430,17 @@ public class AWS4Signer extends AbstractAWSSigner implements
     private String buildAuthorizationHeader(SignableRequest<?> request,
             byte[] signature, AWSCredentials credentials,
             AWS4SignerRequestParams signerParams) {
-        final String signingCredentials = credentials.getAWSAccessKeyId() + "/"
-                + signerParams.getScope();
-
-        final String credential = "Credential="
-                + signingCredentials;
-        final String signerHeaders = "SignedHeaders="
-                + getSignedHeadersString(request);
-        final String signatureHeader = "Signature="
-                + BinaryUtils.toHex(signature);
-
-        final StringBuilder authHeaderBuilder = new StringBuilder();
+        final StringBuilder authHeaderBuilder = new StringBuilder(256);
 
         authHeaderBuilder.append(AWS4_SIGNING_ALGORITHM)
-                         .append(" ")
-                         .append(credential)
-                         .append(", ")
-                         .append(signerHeaders)
-                         .append(", ")
-                         .append(signatureHeader);
+                         .append(" Credential=")
+                         .append(credentials.getAWSAccessKeyId())
+                         .append("/")
+                         .append(signerParams.getScope())
+                         .append(", SignedHeaders=")
+                         .append(getSignedHeadersString(request))
+                         .append(", Signature=")
+                         .append(BinaryUtils.toHex(signature));
 
         return authHeaderBuilder.toString();
     }
@@ -483,41 +471,18 @@ public class AWS4Signer extends AbstractAWSSigner implements
     }
 
     protected String getCanonicalizedHeaderString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request.getHeaders()
-                .keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         final Map<String, String> requestHeaders = request.getHeaders();
         StringBuilder buffer = new StringBuilder();
-        for (String header : sortedHeaders) {
-            if (shouldExcludeHeaderFromSigning(header)) {
-                continue;
-            }
-            String key = StringUtils.lowerCase(header);
-            String value = requestHeaders.get(header);
-
-            StringUtils.appendCompactedString(buffer, key);
-            buffer.append(":");
-            if (value != null) {
-                StringUtils.appendCompactedString(buffer, value);
-            }
-
-            buffer.append("\n");
+        for (String header : getSortedSignedHeaders(requestHeaders)) {
+            appendCanonicalizedHeader(buffer, StringUtils.lowerCase(header), requestHeaders.get(header));
         }
 
         return buffer.toString();
     }
 
     protected String getSignedHeadersString(SignableRequest<?> request) {
-        final List<String> sortedHeaders = new ArrayList<String>(request
-                .getHeaders().keySet());
-        Collections.sort(sortedHeaders, String.CASE_INSENSITIVE_ORDER);
-
         StringBuilder buffer = new StringBuilder();
-        for (String header : sortedHeaders) {
-            if (shouldExcludeHeaderFromSigning(header)) {
-                continue;
-            }
+        for (String header : getSortedSignedHeaders(request.getHeaders())) {
             if (buffer.length() > 0)
                 buffer.append(";");
             buffer.append(StringUtils.lowerCase(header));
@@ -526,8 +491,40 @@ public class AWS4Signer extends AbstractAWSSigner implements
         return buffer.toString();
     }
 
+    private static void appendCanonicalizedHeader(StringBuilder buffer, String key, String value) {
+        StringUtils.appendCompactedString(buffer, key);
+        buffer.append(':');
+        if (value != null) {
+            StringUtils.appendCompactedString(buffer, value);
+        }
+        buffer.append('\n');
+    }
+
+    /**
+     * Returns the names of the headers to sign in case insensitive order.
+     */
+    private String[] getSortedSignedHeaders(Map<String, String> requestHeaders) {
+        String[] headers = new String[requestHeaders.size()];
+        int count = 0;
+        for (String header : requestHeaders.keySet()) {
+            if (!shouldExcludeHeaderFromSigning(header)) {
+                headers[count++] = header;
+            }
+        }
+        if (count < headers.length) {
+            headers = Arrays.copyOf(headers, count);
+        }
+        Arrays.sort(headers, String.CASE_INSENSITIVE_ORDER);
+        return headers;
+    }
+
     protected boolean shouldExcludeHeaderFromSigning(String header) {
-        return listOfHeadersToIgnoreInLowerCase.contains(header.toLowerCase());
+        for (String ignored : listOfHeadersToIgnoreInLowerCase) {
+            if (ignored.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     protected void addHostHeader(SignableRequest<?> request) {
@@ -623,11 +620,45 @@ public class AWS4Signer extends AbstractAWSSigner implements
     protected byte[] newSigningKey(AWSCredentials credentials,
             String dateStamp, String regionName, String serviceName) {
         byte[] kSecret = ("AWS4" + credentials.getAWSSecretKey())
-                .getBytes(Charset.forName("UTF-8"));
+                .getBytes(StringUtils.UTF8);
         byte[] kDate = sign(dateStamp, kSecret, SigningAlgorithm.HmacSHA256);
         byte[] kRegion = sign(regionName, kDate, SigningAlgorithm.HmacSHA256);
         byte[] kService = sign(serviceName, kRegion,
                 SigningAlgorithm.HmacSHA256);
         return sign(AWS4_TERMINATOR, kService, SigningAlgorithm.HmacSHA256);
     }
+
+    /**
+     * An HMAC-SHA256 instance that is only re-keyed when the signing key changes.
+     */
+    private static final class KeyedMac {
+        private final Mac mac;
+        private byte[] key;
+
+        private KeyedMac() {
+            try {
+                this.mac = Mac.getInstance(SigningAlgorithm.HmacSHA256.toString());
+            } catch (NoSuchAlgorithmException e) {
+                throw new SdkClientException("Unable to fetch Mac instance for Algorithm "
+                        + SigningAlgorithm.HmacSHA256 + e.getMessage(), e);
+            }
+        }
+
+        private byte[] sign(byte[] data, byte[] signingKey) {
+            try {
+                if (key == null || !Arrays.equals(key, signingKey)) {
+                    // Forget the old key first so a failed init isn't mistaken for a keyed MAC
+                    key = null;
+                    mac.init(new SecretKeySpec(signingKey, SigningAlgorithm.HmacSHA256.toString()));
+                    key = signingKey.clone();
+                }
+                // doFinal resets the MAC to its keyed initial state for the next signature
+                return mac.doFinal(data);
+            } catch (Exception e) {
+                throw new SdkClientException(
+                        "Unable to calculate a request signature: "
+                                + e.getMessage(), e);
+            }
+        }
+    }
 }
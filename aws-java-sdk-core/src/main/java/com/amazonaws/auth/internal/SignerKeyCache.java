@@ -0,0 +1,188 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.auth.internal;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.ServiceMetricCollector;
+import com.amazonaws.util.AWSServiceMetrics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free cache of derived AWS4 signing keys, keyed by secret key,
+ * region and service.
+ * <p>
+ * A signing key is only valid for the day it was derived for, so an entry for an
+ * earlier day is treated as a miss and replaced. When the cache is full, the
+ * earliest added entry is evicted, like {@link com.amazonaws.internal.FIFOCache}.
+ * <p>
+ * Lookups are counted as hits or misses, and each one is reported to the service metric
+ * collector as {@link AWSServiceMetrics#SignerKeyCacheHitCount} or
+ * {@link AWSServiceMetrics#SignerKeyCacheMissCount}.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class SignerKeyCache {
+    /** The maximum number of entries of the cache shared by all AWS4 signers. */
+    private static final int SHARED_CACHE_MAX_SIZE = 300;
+    private static final SignerKeyCache SHARED_CACHE = new SignerKeyCache(SHARED_CACHE_MAX_SIZE);
+
+    private final ConcurrentMap<Key, SignerKey> cache;
+    /** The keys of the cache in the order they were added. */
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<Key>();
+    private final int maxSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param maxSize the maximum number of entries of the cache
+     */
+    public SignerKeyCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize " + maxSize + " must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.cache = new ConcurrentHashMap<Key, SignerKey>(maxSize);
+    }
+
+    /**
+     * Returns the cache of signing keys shared by all AWS4 signers.
+     */
+    public static SignerKeyCache getSharedCache() {
+        return SHARED_CACHE;
+    }
+
+    /**
+     * Returns the signing key cached for the given secret key, region and service if it was
+     * derived for the given day; or null otherwise.
+     */
+    public SignerKey get(String secretKey, String regionName, String serviceName, long daysSinceEpoch) {
+        SignerKey signerKey = cache.get(new Key(secretKey, regionName, serviceName));
+        if (signerKey != null && signerKey.getNumberOfDaysSinceEpoch() == daysSinceEpoch) {
+            hitCount.incrementAndGet();
+            collectCount(AWSServiceMetrics.SignerKeyCacheHitCount);
+            return signerKey;
+        }
+        missCount.incrementAndGet();
+        collectCount(AWSServiceMetrics.SignerKeyCacheMissCount);
+        return null;
+    }
+
+    private static void collectCount(AWSServiceMetrics type) {
+        ServiceMetricCollector collector = AwsSdkMetrics.getServiceMetricCollector();
+        if (collector.isEnabled()) {
+            collector.collectCount(type, 1);
+        }
+    }
+
+    /**
+     * Adds or replaces the signing key for the given secret key, region and service, evicting
+     * the earliest added entries if the cache is full.
+     */
+    public void add(String secretKey, String regionName, String serviceName, SignerKey signerKey) {
+        Key key = new Key(secretKey, regionName, serviceName);
+        if (cache.put(key, signerKey) != null) {
+            // Replacing keeps the entry's place in the insertion order.
+            return;
+        }
+        insertionOrder.add(key);
+        if (size.incrementAndGet() > maxSize) {
+            Key eldest = insertionOrder.poll();
+            if (eldest != null && cache.remove(eldest) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the current number of entries in the cache.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of lookups that found a signing key valid for the requested day.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups that required a new signing key to be derived.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the maximum number of entries of the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Composite cache key; the hash code is computed once up front.
+     */
+    private static final class Key {
+        private final String secretKey;
+        private final String regionName;
+        private final String serviceName;
+        private final int hashCode;
+
+        private Key(String secretKey, String regionName, String serviceName) {
+            this.secretKey = secretKey;
+            this.regionName = regionName;
+            this.serviceName = serviceName;
+            int result = secretKey == null ? 0 : secretKey.hashCode();
+            result = 31 * result + (regionName == null ? 0 : regionName.hashCode());
+            result = 31 * result + (serviceName == null ? 0 : serviceName.hashCode());
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hashCode == other.hashCode
+                   && stringEquals(secretKey, other.secretKey)
+                   && stringEquals(regionName, other.regionName)
+                   && stringEquals(serviceName, other.serviceName);
+        }
+
+        private static boolean stringEquals(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -22,7 +22,11 @@ import com.amazonaws.client.AwsAsyncClientParams;
 import com.amazonaws.regions.AwsRegionProvider;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Base class for all service specific async client builders.
@@ -33,6 +37,13 @@ import java.util.concurrent.Executors;
 @SdkProtectedApi
 public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuilder, TypeToBuild> extends
                                                                                                  AwsClientBuilder<Subclass, TypeToBuild> {
+    /**
+     * Time an idle thread of the default executor is kept alive before it is released.
+     */
+    private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS = 60;
+
+    private static final AtomicInteger DEFAULT_EXECUTOR_COUNT = new AtomicInteger();
+
     private ExecutorFactory executorFactory;
 
     protected AwsAsyncClientBuilder(ClientConfigurationFactory clientConfigFactory) {
@@ -108,10 +119,34 @@ public abstract class AwsAsyncClientBuilder<Subclass extends AwsAsyncClientBuild
         }
 
         /**
-         * @return Default async Executor to use if none is explicitly provided by user.
+         * @return Default async Executor to use if none is explicitly provided by user. Like {@link
+         * java.util.concurrent.Executors#newFixedThreadPool(int)} it runs at most max connections
+         * requests at a time, but threads are only created on demand and are released again once
+         * they have been idle for a minute, so idle or lightly used async clients don't pin a full
+         * pool of threads.
          */
         private ExecutorService defaultExecutor() {
-            return Executors.newFixedThreadPool(getClientConfiguration().getMaxConnections());
+            final int maxConnections = getClientConfiguration().getMaxConnections();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConnections, maxConnections,
+                                                                 DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS,
+                                                                 TimeUnit.SECONDS,
+                                                                 new LinkedBlockingQueue<Runnable>(),
+                                                                 new AsyncClientThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Names the threads of the default executor so they can be told apart in thread dumps.
+     */
+    private static class AsyncClientThreadFactory implements ThreadFactory {
+        private final int poolNumber = DEFAULT_EXECUTOR_COUNT.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "aws-async-client-" + poolNumber + "-" + threadCount.incrementAndGet());
         }
     }
 
@@ -17,6 +17,7 @@ package com.amazonaws.event;
 import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.annotation.NotThreadSafe;
 import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.internal.PositionedInputStream;
 import com.amazonaws.internal.SdkFilterInputStream;
 
 import java.io.IOException;
@@ -47,13 +48,19 @@ public abstract class ProgressInputStream extends SdkFilterInputStream {
      * @param progressListener Optional progress listener
      * @return If the progress listener is non null returns a new input stream decorated with
      * progress reporting functionality. If progress listener is null it returns the same input
-     * stream.
+     * stream. A {@link PositionedInputStream} is returned as is with a progress observer added,
+     * so that it can still be written out directly.
      */
     @SdkInternalApi
     public static InputStream inputStreamForRequest(InputStream is, ProgressListener progressListener) {
-        return progressListener == null
-                ? is
-                : new RequestProgressInputStream(is, progressListener);
+        if (progressListener == null) {
+            return is;
+        }
+        if (is instanceof PositionedInputStream) {
+            ((PositionedInputStream) is).addObserver(new RequestProgressObserver(progressListener));
+            return is;
+        }
+        return new RequestProgressInputStream(is, progressListener);
     }
 
     /**
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.event;
+
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestBytesTransferred;
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestReset;
+
+import com.amazonaws.internal.PositionedInputStream;
+
+/**
+ * Used for request progress tracking purposes when the request content is a
+ * {@link PositionedInputStream}, which is observed rather than wrapped so that
+ * it can still be written out directly. Reports the same events as
+ * {@link RequestProgressInputStream}.
+ */
+class RequestProgressObserver extends PositionedInputStream.Observer {
+
+    /** The threshold of bytes between notifications. */
+    private static final int NOTIFICATION_THRESHOLD = 8 * 1024;
+
+    private final ProgressListener listener;
+    /** The number of bytes transferred that the listener hasn't been notified about yet. */
+    private long unnotifiedByteCount;
+    private long notifiedByteCount;
+
+    RequestProgressObserver(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void onBytes(byte[] b, int off, int len) {
+        unnotifiedByteCount += len;
+        if (unnotifiedByteCount >= NOTIFICATION_THRESHOLD) {
+            notifyBytesTransferred();
+        }
+    }
+
+    @Override
+    public void onEnd() {
+        if (unnotifiedByteCount > 0) {
+            notifyBytesTransferred();
+        }
+    }
+
+    @Override
+    public void onReset() {
+        publishRequestReset(listener, notifiedByteCount);
+        unnotifiedByteCount = 0;
+        notifiedByteCount = 0;
+    }
+
+    private void notifyBytesTransferred() {
+        publishRequestBytesTransferred(listener, unnotifiedByteCount);
+        notifiedByteCount += unnotifiedByteCount;
+        unnotifiedByteCount = 0;
+    }
+}
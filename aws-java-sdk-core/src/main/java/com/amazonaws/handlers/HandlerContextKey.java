@@ -54,6 +54,14 @@ public class HandlerContextKey<T> {
      */
     public static final HandlerContextKey<String> SIGNING_REGION = new HandlerContextKey<String>("SigningRegion");
 
+    /**
+     * Whether the service accepts a gzip compressed body for the request.
+     *
+     * @see com.amazonaws.ClientConfiguration#setUseRequestCompression(boolean)
+     */
+    public static final HandlerContextKey<Boolean> ACCEPTS_COMPRESSED_REQUEST =
+            new HandlerContextKey<Boolean>("AcceptsCompressedRequest");
+
     private final String name;
 
     public HandlerContextKey(String name) {
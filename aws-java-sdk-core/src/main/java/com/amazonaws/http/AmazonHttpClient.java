@@ -57,13 +57,16 @@ import com.amazonaws.handlers.HandlerContextKey;
 import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.http.apache.client.impl.ApacheHttpClientFactory;
 import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
+import com.amazonaws.http.apache.client.impl.ConnectionPoolWarmer;
 import com.amazonaws.http.apache.request.impl.ApacheHttpRequestFactory;
 import com.amazonaws.http.apache.utils.ApacheUtils;
+import com.amazonaws.http.apache.utils.SdkBufferedHttpEntity;
 import com.amazonaws.http.client.HttpClientFactory;
 import com.amazonaws.http.exception.HttpRequestTimeoutException;
 import com.amazonaws.http.request.HttpRequestFactory;
 import com.amazonaws.http.response.AwsResponseHandlerAdapter;
 import com.amazonaws.http.settings.HttpClientSettings;
+import com.amazonaws.http.timers.HashedWheelTimer;
 import com.amazonaws.http.timers.client.ClientExecutionAbortTrackerTask;
 import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
 import com.amazonaws.http.timers.client.ClientExecutionTimer;
@@ -122,7 +125,6 @@ import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.pool.ConnPoolControl;
 import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
@@ -146,7 +148,7 @@ public class AmazonHttpClient {
     @SdkInternalApi
     public static final Log requestLog = LogFactory.getLog("com.amazonaws.request");
 
-    private static final HttpClientFactory<ConnectionManagerAwareHttpClient> httpClientFactory = new
+    private static final HttpClientFactory<ConnectionManagerAwareHttpClient> DEFAULT_HTTP_CLIENT_FACTORY = new
             ApacheHttpClientFactory();
     /**
      * Used for testing via failure injection.
@@ -311,12 +313,29 @@ public class AmazonHttpClient {
         this(config,
              retryPolicy,
              requestMetricCollector,
-             HttpClientSettings.adapt(config, useBrowserCompatibleHostNameVerifier, calculateCRC32FromCompressedData));
+             useBrowserCompatibleHostNameVerifier,
+             calculateCRC32FromCompressedData,
+             DEFAULT_HTTP_CLIENT_FACTORY);
+    }
+
+    private AmazonHttpClient(ClientConfiguration config,
+                             RetryPolicy retryPolicy,
+                             RequestMetricCollector requestMetricCollector,
+                             boolean useBrowserCompatibleHostNameVerifier,
+                             boolean calculateCRC32FromCompressedData,
+                             HttpClientFactory<ConnectionManagerAwareHttpClient> httpClientFactory) {
+        this(config,
+             retryPolicy,
+             requestMetricCollector,
+             HttpClientSettings.adapt(config, useBrowserCompatibleHostNameVerifier, calculateCRC32FromCompressedData),
+             new HttpRequestTimer(),
+             new ClientExecutionTimer());
         this.httpClient = httpClientFactory.create(this.httpClientSettings);
     }
 
     /**
-     * Package-protected constructor for unit test purposes.
+     * Package-protected constructor for unit test purposes. The timers of the client run on
+     * their own timer threads rather than the shared ones, so tests can observe them in isolation.
      */
     @SdkTestInternalApi
     public AmazonHttpClient(ClientConfiguration clientConfig,
@@ -325,14 +344,18 @@ public class AmazonHttpClient {
         this(clientConfig,
              null,
              requestMetricCollector,
-             HttpClientSettings.adapt(clientConfig, false));
+             HttpClientSettings.adapt(clientConfig, false),
+             new HttpRequestTimer(new HashedWheelTimer("AwsSdkRequestTimerThread")),
+             new ClientExecutionTimer(new HashedWheelTimer("AwsSdkClientExecutionTimerThread")));
         this.httpClient = httpClient;
     }
 
     private AmazonHttpClient(ClientConfiguration clientConfig,
                              RetryPolicy retryPolicy,
                              RequestMetricCollector requestMetricCollector,
-                             HttpClientSettings httpClientSettings) {
+                             HttpClientSettings httpClientSettings,
+                             HttpRequestTimer httpRequestTimer,
+                             ClientExecutionTimer clientExecutionTimer) {
         this.config = clientConfig;
         this.retryPolicy =
                 retryPolicy == null ? new RetryPolicyAdapter(clientConfig.getRetryPolicy(), clientConfig) : retryPolicy;
@@ -342,8 +365,8 @@ public class AmazonHttpClient {
                 clientConfig.getCacheResponseMetadata() ?
                         new ResponseMetadataCache(clientConfig.getResponseMetadataCacheSize()) :
                         new NullResponseMetadataCache();
-        this.httpRequestTimer = new HttpRequestTimer();
-        this.clientExecutionTimer = new ClientExecutionTimer();
+        this.httpRequestTimer = httpRequestTimer;
+        this.clientExecutionTimer = clientExecutionTimer;
 
         // When enabled, total retry capacity is computed based on retry cost
         // and desired number of retries.
@@ -363,6 +386,7 @@ public class AmazonHttpClient {
         private RequestMetricCollector requestMetricCollector;
         private boolean useBrowserCompatibleHostNameVerifier;
         private boolean calculateCRC32FromCompressedData;
+        private HttpClientFactory<ConnectionManagerAwareHttpClient> httpClientFactory = DEFAULT_HTTP_CLIENT_FACTORY;
 
         private Builder() {
         }
@@ -392,12 +416,30 @@ public class AmazonHttpClient {
             return this;
         }
 
+        /**
+         * Sets the factory used to create the Apache HTTP client that executes each attempt made by
+         * the request pipeline, e.g. to decorate or instrument it. Defaults to {@link
+         * ApacheHttpClientFactory}.
+         * <p>
+         * This is not a transport SPI. The pipeline builds Apache requests, reads Apache responses
+         * and executes each attempt on the calling thread, so the client returned must be a
+         * blocking Apache HTTP client.
+         *
+         * @param httpClientFactory Factory creating the Apache HTTP client from the resolved {@link
+         *                          HttpClientSettings}.
+         */
+        public Builder httpClientFactory(HttpClientFactory<ConnectionManagerAwareHttpClient> httpClientFactory) {
+            this.httpClientFactory = httpClientFactory;
+            return this;
+        }
+
         public AmazonHttpClient build() {
             return new AmazonHttpClient(clientConfig,
                                         retryPolicy,
                                         requestMetricCollector,
                                         useBrowserCompatibleHostNameVerifier,
-                                        calculateCRC32FromCompressedData);
+                                        calculateCRC32FromCompressedData,
+                                        httpClientFactory == null ? DEFAULT_HTTP_CLIENT_FACTORY : httpClientFactory);
         }
     }
 
@@ -420,12 +462,31 @@ public class AmazonHttpClient {
      * make more requests.
      */
     public void shutdown() {
-        clientExecutionTimer.shutdown();
-        httpRequestTimer.shutdown();
         IdleConnectionReaper.removeConnectionManager(httpClient.getHttpClientConnectionManager());
         httpClient.getHttpClientConnectionManager().shutdown();
     }
 
+    /**
+     * Opens connections to the given endpoint ahead of the first requests and keeps them in the
+     * connection pool, opening the missing ones in parallel. The number of connections is capped by
+     * the limits of the pool, and connections through a proxy are not opened ahead of time. Failures
+     * to connect are logged and otherwise ignored.
+     *
+     * @param endpoint    The endpoint to connect to.
+     * @param connections The number of connections the pool should hold.
+     * @return The number of open connections to the endpoint in the pool.
+     * @throws AbortedException If the thread is interrupted while connecting.
+     */
+    public int warmUp(URI endpoint, int connections) {
+        try {
+            return new ConnectionPoolWarmer(httpClient.getHttpClientConnectionManager(), httpClientSettings)
+                    .warmUp(endpoint, connections);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        }
+    }
+
     /**
      * Used to configure the test conditions for injecting intermittent failures to the content
      * input stream.
@@ -731,9 +792,14 @@ public class AmazonHttpClient {
             request.getHeaders().putAll(requestConfig.getCustomRequestHeaders());
             // add custom query parameters
             mergeQueryParameters(requestConfig.getCustomQueryParameters());
+            compressRequest();
             Response<Output> response = null;
             final InputStream origContent = request.getContent();
             final InputStream toBeClosed = beforeRequest(); // for progress tracking
+            // Releasable content is not wrapped below, so its own close gets disabled; it then has
+            // to be released explicitly unless the caller disabled its close already
+            final boolean releaseContent = toBeClosed instanceof ReleasableInputStream
+                    && !((ReleasableInputStream) toBeClosed).isCloseDisabled();
             // make "notCloseable", so reset would work with retries
             final InputStream notCloseable = (toBeClosed == null) ? null
                     : ReleasableInputStream.wrap(toBeClosed).disableClose();
@@ -753,11 +819,30 @@ public class AmazonHttpClient {
                 throw e;
             } finally {
                 // Always close so any progress tracking would get the final events propagated.
-                closeQuietly(toBeClosed, log);
+                if (releaseContent) {
+                    ((ReleasableInputStream) toBeClosed).release();
+                } else {
+                    closeQuietly(toBeClosed, log);
+                }
                 request.setContent(origContent); // restore the original content
             }
         }
 
+        /**
+         * Compresses the request body, before it's signed, if the operation accepts it.
+         */
+        private void compressRequest() {
+            if (!config.useRequestCompression()
+                || !Boolean.TRUE.equals(request.getHandlerContext(HandlerContextKey.ACCEPTS_COMPRESSED_REQUEST))) {
+                return;
+            }
+            try {
+                RequestCompressor.compress(request, config.getRequestCompressionThreshold());
+            } catch (IOException e) {
+                throw new SdkClientException("Unable to compress request body: " + e.getMessage(), e);
+            }
+        }
+
         private void runBeforeRequestHandlers() {
             AWSCredentials credentials = getCredentialsFromContext();
             request.addHandlerContext(HandlerContextKey.AWS_CREDENTIALS, credentials);
@@ -941,6 +1026,10 @@ public class AmazonHttpClient {
          */
         private InputStream monitorStreamProgress(ProgressListener listener,
                                                   InputStream content) {
+            if (listener == ProgressListener.NOOP) {
+                // Nothing to report to; leave the content as is so it can be written out directly
+                return content;
+            }
             return ProgressInputStream.inputStreamForRequest(content, listener);
         }
 
@@ -1239,7 +1328,7 @@ public class AmazonHttpClient {
                                            execOneParams,
                                            requestAbortTaskTracker)) {
                     execOneParams.apacheResponse
-                            .setEntity(new BufferedHttpEntity(
+                            .setEntity(new SdkBufferedHttpEntity(
                                     execOneParams.apacheResponse.getEntity()));
                 }
             } catch (IOException ioe) {
@@ -1360,7 +1449,7 @@ public class AmazonHttpClient {
         }
 
         /**
-         * @return True if the {@link HttpEntity} should be wrapped in a {@link BufferedHttpEntity}
+         * @return True if the {@link HttpEntity} should be wrapped in a {@link SdkBufferedHttpEntity}
          */
         private boolean shouldBufferHttpEntity(final boolean needsConnectionLeftOpen,
                                                final ExecutionContext execContext,
@@ -1656,6 +1745,7 @@ public class AmazonHttpClient {
                     .originalRequest(requestConfig.getOriginalRequest())
                     .retriesAttempted(retriesAttempted)
                     .exception(execOneParams.retriedException)
+                    .previousBackoffDelay(execOneParams.lastBackoffDelay)
                     .build();
             // don't pause if the retry was not due to a redirection (I.E. when retried exception is null)
             if (context.exception() != null) {
@@ -14,17 +14,27 @@
  */
 package com.amazonaws.http;
 
+import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.http.conn.LeaseWaitHistogram;
+import com.amazonaws.http.conn.SdkPoolingHttpClientConnectionManager;
+import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.ServiceMetricCollector;
+import com.amazonaws.metrics.ServiceMetricType;
+import com.amazonaws.util.AWSServiceMetrics;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.pool.ConnPoolControl;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,18 +54,28 @@ import java.util.concurrent.TimeUnit;
  * cleaning up old/inactive HTTP connections, we'd see more IO exceptions when
  * stale connections (i.e. closed on the AWS side) are left in the connection
  * pool, and requests grab one of them to begin executing a request.
+ * <p/>
+ * All registered connection managers are swept by a single scheduled task, every minute by
+ * default (see {@link SDKGlobalConfiguration#IDLE_CONNECTION_REAPER_PERIOD_SYSTEM_PROPERTY}).
+ * The number of connections closed and left idle by a sweep, summed over all the pools of the
+ * JVM, are reported once per sweep to the service metric collector as
+ * {@link AWSServiceMetrics#HttpClientIdleConnectionsClosed} and
+ * {@link AWSServiceMetrics#HttpClientIdleConnectionCount}. The lease waits recorded by the
+ * {@link LeaseWaitHistogram} of each {@link SdkPoolingHttpClientConnectionManager} since they
+ * were last reported are summed the same way and reported under the
+ * {@link LeaseWaitHistogram#getMetricTypes() metric types of its buckets}.
  */
 @SdkInternalApi
-public final class IdleConnectionReaper extends Thread {
+public final class IdleConnectionReaper {
 
     /**
      * Shared log for any errors during connection reaping.
      */
     private static final Log LOG = LogFactory.getLog(IdleConnectionReaper.class);
     /**
-     * The period between invocations of the idle connection reaper.
+     * The default period between invocations of the idle connection reaper.
      */
-    private static final int PERIOD_MILLISECONDS = 1000 * 60;
+    private static final long DEFAULT_PERIOD_MILLISECONDS = 1000 * 60;
 
     /**
      * Legacy constant used when {@link #registerConnectionManager(HttpClientConnectionManager)} is called. New code paths should
@@ -70,18 +90,32 @@ public final class IdleConnectionReaper extends Thread {
      * Singleton instance of the connection reaper.
      */
     private static volatile IdleConnectionReaper instance;
-    /**
-     * Set to true when shutting down the reaper;  Once set to true, this
-     * flag is never set back to false.
-     */
-    private volatile boolean shuttingDown;
+
+    private final ScheduledThreadPoolExecutor executor;
 
     /**
      * Private constructor - singleton pattern.
      */
-    private IdleConnectionReaper() {
-        super("java-sdk-http-connection-reaper");
-        setDaemon(true);
+    private IdleConnectionReaper(long periodMillis) {
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "java-sdk-http-connection-reaper");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sweep();
+                } catch (Throwable t) {
+                    // Keep the sweep scheduled
+                    LOG.debug("Reaper thread: ", t);
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -106,8 +140,7 @@ public final class IdleConnectionReaper extends Thread {
         if (instance == null) {
             synchronized (IdleConnectionReaper.class) {
                 if (instance == null) {
-                    instance = new IdleConnectionReaper();
-                    instance.start();
+                    instance = new IdleConnectionReaper(getPeriodMillis());
                 }
             }
         }
@@ -147,8 +180,7 @@ public final class IdleConnectionReaper extends Thread {
      */
     public static synchronized boolean shutdown() {
         if (instance != null) {
-            instance.markShuttingDown();
-            instance.interrupt();
+            instance.executor.shutdownNow();
             connectionManagers.clear();
             instance = null;
             return true;
@@ -165,34 +197,79 @@ public final class IdleConnectionReaper extends Thread {
         return connectionManagers.size();
     }
 
-    private void markShuttingDown() {
-        shuttingDown = true;
+    private static long getPeriodMillis() {
+        String period = System.getProperty(SDKGlobalConfiguration.IDLE_CONNECTION_REAPER_PERIOD_SYSTEM_PROPERTY);
+        if (period != null) {
+            try {
+                long periodMillis = Long.parseLong(period.trim());
+                if (periodMillis > 0) {
+                    return periodMillis;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default
+            }
+            LOG.warn("Ignoring invalid idle connection reaper period: " + period);
+        }
+        return DEFAULT_PERIOD_MILLISECONDS;
     }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public void run() {
-        while (true) {
-            if (shuttingDown) {
-                LOG.debug("Shutting down reaper thread.");
-                return;
-            }
+    /**
+     * Closes the idle connections of all registered connection managers.
+     */
+    @SdkTestInternalApi
+    static void sweep() {
+        ServiceMetricCollector collector = AwsSdkMetrics.getServiceMetricCollector();
+        boolean collectCounts = collector.isEnabled();
+        boolean counted = false;
+        long closed = 0;
+        long idle = 0;
+        long[] leaseWaits = null;
+        for (Map.Entry<HttpClientConnectionManager, Long> entry : connectionManagers.entrySet()) {
+            // When we release connections, the connection manager leaves them
+            // open so they can be reused.  We want to close out any idle
+            // connections so that they don't sit around in CLOSE_WAIT.
             try {
-                Thread.sleep(PERIOD_MILLISECONDS);
-
-                for (Map.Entry<HttpClientConnectionManager, Long> entry : connectionManagers.entrySet()) {
-                    // When we release connections, the connection manager leaves them
-                    // open so they can be reused.  We want to close out any idle
-                    // connections so that they don't sit around in CLOSE_WAIT.
-                    try {
-                        entry.getKey().closeIdleConnections(entry.getValue(), TimeUnit.MILLISECONDS);
-                    } catch (Exception t) {
-                        LOG.warn("Unable to close idle connections", t);
+                HttpClientConnectionManager connectionManager = entry.getKey();
+                if (collectCounts && connectionManager instanceof ConnPoolControl) {
+                    ConnPoolControl<?> pool = (ConnPoolControl<?>) connectionManager;
+                    int idleBefore = pool.getTotalStats().getAvailable();
+                    connectionManager.closeIdleConnections(entry.getValue(), TimeUnit.MILLISECONDS);
+                    int idleAfter = pool.getTotalStats().getAvailable();
+                    closed += Math.max(0, idleBefore - idleAfter);
+                    idle += idleAfter;
+                    counted = true;
+                    if (connectionManager instanceof SdkPoolingHttpClientConnectionManager) {
+                        leaseWaits = add(leaseWaits, ((SdkPoolingHttpClientConnectionManager) connectionManager)
+                                .getLeaseWaitHistogram().getCountsSinceLastReport());
                     }
+                } else {
+                    connectionManager.closeIdleConnections(entry.getValue(), TimeUnit.MILLISECONDS);
                 }
-            } catch (Throwable t) {
-                LOG.debug("Reaper thread: ", t);
+            } catch (Exception t) {
+                LOG.warn("Unable to close idle connections", t);
             }
         }
+        if (counted) {
+            collector.collectCount(AWSServiceMetrics.HttpClientIdleConnectionsClosed, closed);
+            collector.collectCount(AWSServiceMetrics.HttpClientIdleConnectionCount, idle);
+        }
+        if (leaseWaits != null) {
+            List<ServiceMetricType> types = LeaseWaitHistogram.getMetricTypes();
+            for (int i = 0; i < leaseWaits.length; i++) {
+                if (leaseWaits[i] > 0) {
+                    collector.collectCount(types.get(i), leaseWaits[i]);
+                }
+            }
+        }
+    }
+
+    private static long[] add(long[] sums, long[] counts) {
+        if (sums == null) {
+            return counts;
+        }
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += counts[i];
+        }
+        return sums;
     }
-}
\ No newline at end of file
+}
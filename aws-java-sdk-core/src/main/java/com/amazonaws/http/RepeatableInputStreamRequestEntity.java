@@ -15,6 +15,7 @@
 package com.amazonaws.http;
 
 import com.amazonaws.Request;
+import com.amazonaws.internal.PositionedInputStream;
 import com.amazonaws.metrics.MetricInputStreamEntity;
 import com.amazonaws.metrics.ServiceMetricType;
 import com.amazonaws.metrics.ThroughputMetricType;
@@ -50,6 +51,14 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
     /** The InputStream containing the content to write out */
     private InputStream content;
 
+    /**
+     * The content if it can be written out directly, bypassing the copy loop of the
+     * InputStreamEntity; null otherwise. Only content that is itself a PositionedInputStream
+     * qualifies. Progress reporting and MD5 calculation observe such content instead of wrapping
+     * it, and the MetricInputStreamEntity writes it out directly too when metrics are enabled.
+     */
+    private PositionedInputStream positionedContent;
+
     private static final Log log = LogFactory
             .getLog(RepeatableInputStreamRequestEntity.class);
 
@@ -106,6 +115,9 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
         inputStreamRequestEntity = (type == null) ? new InputStreamEntity(content, contentLength) :
                 new MetricInputStreamEntity(type, content, contentLength);
         inputStreamRequestEntity.setContentType(contentType);
+        if (type == null && content instanceof PositionedInputStream) {
+            positionedContent = (PositionedInputStream) content;
+        }
 
         setContent(content);
         setContentType(contentType);
@@ -142,7 +154,8 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
     /**
      * Resets the underlying InputStream if this isn't the first attempt to
      * write out the request, otherwise simply delegates to
-     * InputStreamRequestEntity to write out the data.
+     * InputStreamRequestEntity to write out the data. Content backed by a
+     * file region or buffer is written out directly instead.
      * <p>
      * If an error is encountered the first time we try to write the request
      * entity, we remember the original exception, and report that as the root
@@ -157,7 +170,11 @@ public class RepeatableInputStreamRequestEntity extends BasicHttpEntity {
             if (!firstAttempt && isRepeatable()) content.reset();
 
             firstAttempt = false;
-            inputStreamRequestEntity.writeTo(output);
+            if (positionedContent != null) {
+                positionedContent.writeTo(output);
+            } else {
+                inputStreamRequestEntity.writeTo(output);
+            }
         } catch (IOException ioe) {
             if (originalException == null) originalException = ioe;
             throw originalException;
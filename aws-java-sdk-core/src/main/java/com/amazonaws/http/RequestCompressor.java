@@ -0,0 +1,132 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
+
+import com.amazonaws.Request;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Gzip compresses the body of requests to operations that accept a {@code Content-Encoding}.
+ * Requests are compressed before they are signed, so the signature covers the compressed body.
+ */
+@SdkInternalApi
+final class RequestCompressor {
+
+    private static final Log LOG = LogFactory.getLog(RequestCompressor.class);
+
+    private static final String GZIP = "gzip";
+
+    private static final String FORM_URL_ENCODED_CONTENT_TYPE = "application/x-www-form-urlencoded; charset="
+                                                                + StringUtils.UTF8.name().toLowerCase();
+
+    private RequestCompressor() {
+    }
+
+    /**
+     * Replaces the body of the given request with its gzip compressed form, if the body is at least
+     * the given number of bytes. The parameters of a POST request without content are its body.
+     * Requests that already have a {@code Content-Encoding} are left alone.
+     *
+     * @return True if the request was compressed.
+     */
+    static boolean compress(Request<?> request, int threshold) throws IOException {
+        if (hasHeader(request, HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+
+        final InputStream content = request.getContent();
+        final boolean paramsAsBody = content == null;
+        final byte[] body;
+        if (paramsAsBody) {
+            String encodedParams = request.getHttpMethod() == HttpMethodName.POST
+                    ? SdkHttpUtils.encodeParameters(request)
+                    : null;
+            if (encodedParams == null) {
+                return false;
+            }
+            body = encodedParams.getBytes(StringUtils.UTF8);
+        } else {
+            try {
+                body = IOUtils.toByteArray(content);
+            } finally {
+                IOUtils.closeQuietly(content, LOG);
+            }
+        }
+
+        if (body.length < threshold) {
+            if (!paramsAsBody) {
+                request.setContent(new ByteArrayInputStream(body));
+            }
+            return false;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        try {
+            gzip.write(body);
+        } finally {
+            gzip.close();
+        }
+
+        if (paramsAsBody) {
+            request.setParameters(Collections.<String, List<String>>emptyMap());
+            if (!hasHeader(request, HttpHeaders.CONTENT_TYPE)) {
+                request.addHeader(HttpHeaders.CONTENT_TYPE, FORM_URL_ENCODED_CONTENT_TYPE);
+            }
+        }
+        request.setContent(new ByteArrayInputStream(compressed.toByteArray()));
+        removeHeader(request, HttpHeaders.CONTENT_LENGTH);
+        request.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(compressed.size()));
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Compressed request body from " + body.length + " to " + compressed.size() + " bytes");
+        }
+        return true;
+    }
+
+    private static boolean hasHeader(Request<?> request, String name) {
+        for (String header : request.getHeaders().keySet()) {
+            if (header.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void removeHeader(Request<?> request, String name) {
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                request.getHeaders().remove(header.getKey());
+                return;
+            }
+        }
+    }
+}
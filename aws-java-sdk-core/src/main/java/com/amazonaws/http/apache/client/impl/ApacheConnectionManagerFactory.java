@@ -14,10 +14,14 @@
  */
 package com.amazonaws.http.apache.client.impl;
 
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.DnsResolver;
 import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.http.AmazonHttpClient;
 import com.amazonaws.http.DelegatingDnsResolver;
 import com.amazonaws.http.client.ConnectionManagerFactory;
+import com.amazonaws.http.conn.ConnectFailureReportingSocketFactory;
+import com.amazonaws.http.conn.SdkPoolingHttpClientConnectionManager;
 import com.amazonaws.http.conn.ssl.SdkTLSSocketFactory;
 import com.amazonaws.http.settings.HttpClientSettings;
 import com.amazonaws.internal.SdkSSLContext;
@@ -34,7 +38,6 @@ import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.conn.DefaultSchemePortResolver;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
 
 import javax.net.ssl.HostnameVerifier;
@@ -64,18 +67,22 @@ public class ApacheConnectionManagerFactory implements
     public HttpClientConnectionManager create(final HttpClientSettings settings) {
         ConnectionSocketFactory sslsf = getPreferredSocketFactory(settings);
 
-        final PoolingHttpClientConnectionManager cm = new
-                PoolingHttpClientConnectionManager(
-                createSocketFactoryRegistry(sslsf),
-                null,
+        final SdkPoolingHttpClientConnectionManager cm = new
+                SdkPoolingHttpClientConnectionManager(
+                createSocketFactoryRegistry(sslsf, settings.getDnsResolver()),
                 DefaultSchemePortResolver.INSTANCE,
                 new DelegatingDnsResolver(settings.getDnsResolver()),
                 settings.getConnectionPoolTTL(),
                 TimeUnit.MILLISECONDS);
 
         cm.setValidateAfterInactivity(settings.getValidateAfterInactivityMillis());
-        cm.setDefaultMaxPerRoute(settings.getMaxConnections());
-        cm.setMaxTotal(settings.getMaxConnections());
+        cm.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        if (settings.useAdaptiveConnectionPool() && settings.getMinConnections() > 0) {
+            cm.setAdaptiveMaxTotal(settings.getMinConnections(), settings.getMaxConnections());
+        } else {
+            cm.setMaxTotal(settings.getMaxConnections());
+        }
+        cm.setMaxPerHost(settings.getMaxConnectionsPerHost());
         cm.setDefaultSocketConfig(buildSocketConfig(settings));
         cm.setDefaultConnectionConfig(buildConnectionConfig(settings));
 
@@ -88,7 +95,9 @@ public class ApacheConnectionManagerFactory implements
         return sslsf != null
                 ? sslsf
                 : new SdkTLSSocketFactory(
-                SdkSSLContext.getPreferredSSLContext(settings.getSecureRandom()),
+                SdkSSLContext.getPreferredSSLContext(settings.getSecureRandom(),
+                                                     settings.getTlsSessionCacheSize(),
+                                                     settings.getTlsSessionTimeoutMillis()),
                 getHostNameVerifier(settings));
     }
 
@@ -121,7 +130,8 @@ public class ApacheConnectionManagerFactory implements
                 : SSLConnectionSocketFactory.STRICT_HOSTNAME_VERIFIER;
     }
 
-    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry(ConnectionSocketFactory sslSocketFactory) {
+    private Registry<ConnectionSocketFactory> createSocketFactoryRegistry(ConnectionSocketFactory sslSocketFactory,
+                                                                          DnsResolver dnsResolver) {
 
         /*
          * If SSL cert checking for endpoints has been explicitly disabled,
@@ -136,8 +146,15 @@ public class ApacheConnectionManagerFactory implements
             sslSocketFactory = new TrustingSocketFactory();
         }
 
+        ConnectionSocketFactory plainSocketFactory = PlainConnectionSocketFactory.getSocketFactory();
+        if (dnsResolver instanceof CachingDnsResolver) {
+            CachingDnsResolver cachingDnsResolver = (CachingDnsResolver) dnsResolver;
+            plainSocketFactory = ConnectFailureReportingSocketFactory.wrap(plainSocketFactory, cachingDnsResolver);
+            sslSocketFactory = ConnectFailureReportingSocketFactory.wrap(sslSocketFactory, cachingDnsResolver);
+        }
+
         return RegistryBuilder.<ConnectionSocketFactory>create()
-                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("http", plainSocketFactory)
                 .register("https", sslSocketFactory)
                 .build();
     }
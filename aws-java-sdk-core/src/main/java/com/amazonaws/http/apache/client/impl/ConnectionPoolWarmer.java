@@ -0,0 +1,212 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.apache.client.impl;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.http.apache.SdkProxyRoutePlanner;
+import com.amazonaws.http.settings.HttpClientSettings;
+
+/**
+ * Opens connections to an endpoint ahead of the first requests and returns them to the pool, so
+ * those requests don't pay for the TCP and TLS handshakes.
+ */
+@SdkInternalApi
+public class ConnectionPoolWarmer {
+
+    private static final Log LOG = LogFactory.getLog(ConnectionPoolWarmer.class);
+
+    /**
+     * Upper bound of the number of connections opened concurrently.
+     */
+    private static final int MAX_CONCURRENT_CONNECTS = 16;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final HttpClientConnectionManager connectionManager;
+    private final HttpClientSettings settings;
+
+    public ConnectionPoolWarmer(HttpClientConnectionManager connectionManager, HttpClientSettings settings) {
+        this.connectionManager = connectionManager;
+        this.settings = settings;
+    }
+
+    /**
+     * Makes sure the pool holds open connections to the given endpoint, opening the missing ones in
+     * parallel. The number of connections is capped by the limits of the pool. Failures to connect
+     * are logged and otherwise ignored, as the requests will open connections as needed.
+     *
+     * @param endpoint
+     *            The endpoint to connect to.
+     * @param connections
+     *            The number of connections the pool should hold.
+     * @return The number of open connections to the endpoint that were returned to the pool.
+     */
+    public int warmUp(URI endpoint, int connections) throws InterruptedException {
+        if (connections <= 0) {
+            return 0;
+        }
+        final HttpRoute route = determineRoute(endpoint);
+        if (route.getProxyHost() != null) {
+            // Connections through a proxy may need tunnelling and authentication; leave them to the
+            // requests
+            LOG.debug("Not warming up connections to " + endpoint + " as they go through a proxy");
+            return 0;
+        }
+
+        List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>();
+        try {
+            try {
+                leased.add(lease(route));
+                int limit = Math.min(connections, leased.size() + freeCapacity(route));
+                while (leased.size() < limit) {
+                    leased.add(lease(route));
+                }
+            } catch (ExecutionException e) {
+                LOG.debug("Unable to lease connections to warm up", e);
+            } catch (ConnectionPoolTimeoutException e) {
+                LOG.debug("Timed out leasing connections to warm up", e);
+            }
+            return connectAll(route, leased);
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                release(connection);
+            }
+        }
+    }
+
+    private HttpRoute determineRoute(URI endpoint) {
+        HttpHost target = new HttpHost(endpoint.getHost(), endpoint.getPort(), endpoint.getScheme());
+        HttpRoutePlanner routePlanner = settings.isProxyEnabled()
+                ? new SdkProxyRoutePlanner(settings.getProxyHost(), settings.getProxyPort(),
+                                           settings.getNonProxyHosts())
+                : new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom().setLocalAddress(settings.getLocalAddress()).build());
+        try {
+            return routePlanner.determineRoute(target, new BasicHttpRequest("HEAD", "/"), context);
+        } catch (HttpException e) {
+            throw new SdkClientException("Unable to determine the route to " + endpoint, e);
+        }
+    }
+
+    private HttpClientConnection lease(HttpRoute route)
+            throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+        return connectionManager.requestConnection(route, null)
+                .get(settings.getConnectionPoolRequestTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return How many more connections to the route can be leased without waiting, or zero if the
+     *         connection manager doesn't tell.
+     */
+    @SuppressWarnings("unchecked")
+    private int freeCapacity(HttpRoute route) {
+        if (!(connectionManager instanceof ConnPoolControl)) {
+            return 0;
+        }
+        ConnPoolControl<HttpRoute> pool = (ConnPoolControl<HttpRoute>) connectionManager;
+        PoolStats routeStats = pool.getStats(route);
+        PoolStats totalStats = pool.getTotalStats();
+        int routeFree = pool.getMaxPerRoute(route) - routeStats.getLeased();
+        int totalFree = pool.getMaxTotal() - totalStats.getLeased();
+        return Math.max(0, Math.min(routeFree, totalFree));
+    }
+
+    private int connectAll(final HttpRoute route, List<HttpClientConnection> leased) throws InterruptedException {
+        List<Callable<Boolean>> connects = new ArrayList<Callable<Boolean>>();
+        int open = 0;
+        for (final HttpClientConnection connection : leased) {
+            if (connection.isOpen()) {
+                open++;
+            } else {
+                connects.add(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        HttpClientContext context = HttpClientContext.create();
+                        connectionManager.connect(connection, route, settings.getConnectionTimeout(), context);
+                        connectionManager.routeComplete(connection, route, context);
+                        return Boolean.TRUE;
+                    }
+                });
+            }
+        }
+        if (connects.isEmpty()) {
+            return open;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(connects.size(), MAX_CONCURRENT_CONNECTS), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r);
+                        t.setName("java-sdk-connection-warmer-" + THREAD_COUNT.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        try {
+            for (Future<Boolean> connect : executor.invokeAll(connects)) {
+                try {
+                    connect.get();
+                    open++;
+                } catch (ExecutionException e) {
+                    LOG.debug("Unable to open a connection to " + route.getTargetHost(), e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (open < leased.size()) {
+            LOG.warn("Opened " + open + " of " + leased.size() + " connections to " + route.getTargetHost());
+        }
+        return open;
+    }
+
+    private void release(HttpClientConnection connection) {
+        // Connections that failed to open are discarded by the pool
+        long keepAlive = settings.getMaxIdleConnectionTime();
+        connectionManager.releaseConnection(connection, null, keepAlive > 0 ? keepAlive : -1, TimeUnit.MILLISECONDS);
+    }
+}
@@ -30,7 +30,6 @@ import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
@@ -105,13 +104,13 @@ public class ApacheUtils {
      * as a SdkClientException.
      *
      * @param entity The HTTP entity to wrap with a buffered HTTP entity.
-     * @return A new BufferedHttpEntity wrapping the specified entity.
+     * @return A new SdkBufferedHttpEntity wrapping the specified entity.
      * @throws FakeIOException only for test simulation
      */
     public static HttpEntity newBufferedHttpEntity(HttpEntity entity) throws
             FakeIOException {
         try {
-            return new BufferedHttpEntity(entity);
+            return new SdkBufferedHttpEntity(entity);
         } catch (FakeIOException e) {
             // Only for test simulation.
             throw e;
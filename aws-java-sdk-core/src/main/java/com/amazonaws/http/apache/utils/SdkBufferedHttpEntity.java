@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.apache.utils;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.util.ByteArrayPool;
+import com.amazonaws.util.PooledByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Equivalent of {@link BufferedHttpEntity} that reads the wrapped entity through a
+ * {@link ByteArrayPool} buffer when its length isn't known up front, instead of growing a fresh
+ * array. Entities of known length are read straight into an array of that length.
+ * <p>
+ * Content is always read through {@link HttpEntity#getContent()}, never
+ * {@link HttpEntity#writeTo(OutputStream)}, so that wrapped entities computing checksums over
+ * their content stream see every byte.
+ */
+@SdkInternalApi
+public class SdkBufferedHttpEntity extends HttpEntityWrapper {
+
+    private final byte[] buffer;
+
+    public SdkBufferedHttpEntity(HttpEntity entity) throws IOException {
+        super(entity);
+        if (!entity.isRepeatable() || entity.getContentLength() < 0) {
+            InputStream content = entity.getContent();
+            try {
+                this.buffer = content == null ? null : readFully(content, entity.getContentLength());
+            } finally {
+                if (content != null) {
+                    content.close();
+                }
+            }
+        } else {
+            this.buffer = null;
+        }
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer != null ? buffer.length : super.getContentLength();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return buffer != null ? new ByteArrayInputStream(buffer) : super.getContent();
+    }
+
+    @Override
+    public boolean isChunked() {
+        return buffer == null && super.isChunked();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return buffer == null && super.isStreaming();
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        if (buffer != null) {
+            outStream.write(buffer);
+        } else {
+            super.writeTo(outStream);
+        }
+    }
+
+    private static byte[] readFully(InputStream content, long length) throws IOException {
+        PooledByteArrayOutputStream output;
+        if (length >= 0 && length <= Integer.MAX_VALUE) {
+            byte[] bytes = new byte[(int) length];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int n = content.read(bytes, offset, bytes.length - offset);
+                if (n == -1) {
+                    break;
+                }
+                offset += n;
+            }
+            int next = offset < bytes.length ? -1 : content.read();
+            if (next == -1 && offset == bytes.length) {
+                return bytes;
+            }
+            // The content doesn't match its declared length; fall back to reading what there is
+            output = new PooledByteArrayOutputStream(ByteArrayPool.getDefault(), offset + 1);
+            output.write(bytes, 0, offset);
+            if (next != -1) {
+                output.write(next);
+            }
+        } else {
+            output = new PooledByteArrayOutputStream(ByteArrayPool.getDefault());
+        }
+        try {
+            output.readFrom(content);
+            return output.toByteArray();
+        } finally {
+            output.release();
+        }
+    }
+}
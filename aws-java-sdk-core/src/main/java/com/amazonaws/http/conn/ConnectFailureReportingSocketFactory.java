@@ -0,0 +1,90 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.annotation.SdkInternalApi;
+
+/**
+ * Decorates a {@link ConnectionSocketFactory} to report addresses that can't be connected to back
+ * to the {@link CachingDnsResolver} that resolved them, so they are dropped from its rotation.
+ * Failures after the socket is connected, e.g. during the TLS handshake, are not the address's
+ * fault and are not reported.
+ */
+@SdkInternalApi
+public class ConnectFailureReportingSocketFactory implements ConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+    private final CachingDnsResolver dnsResolver;
+
+    private ConnectFailureReportingSocketFactory(ConnectionSocketFactory delegate, CachingDnsResolver dnsResolver) {
+        this.delegate = delegate;
+        this.dnsResolver = dnsResolver;
+    }
+
+    /**
+     * @return A decorated socket factory, which is a {@link LayeredConnectionSocketFactory} if the
+     *         given socket factory is one.
+     */
+    public static ConnectionSocketFactory wrap(ConnectionSocketFactory delegate, CachingDnsResolver dnsResolver) {
+        return delegate instanceof LayeredConnectionSocketFactory
+                ? new Layered((LayeredConnectionSocketFactory) delegate, dnsResolver)
+                : new ConnectFailureReportingSocketFactory(delegate, dnsResolver);
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        try {
+            return delegate.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+        } catch (IOException e) {
+            if ((sock == null || !sock.isConnected()) && remoteAddress.getAddress() != null) {
+                dnsResolver.reportFailure(host.getHostName(), remoteAddress.getAddress());
+            }
+            throw e;
+        }
+    }
+
+    private static class Layered extends ConnectFailureReportingSocketFactory
+            implements LayeredConnectionSocketFactory {
+
+        private final LayeredConnectionSocketFactory delegate;
+
+        private Layered(LayeredConnectionSocketFactory delegate, CachingDnsResolver dnsResolver) {
+            super(delegate, dnsResolver);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            return delegate.createLayeredSocket(socket, target, port, context);
+        }
+    }
+}
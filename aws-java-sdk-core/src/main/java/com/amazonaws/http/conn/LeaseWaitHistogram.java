@@ -0,0 +1,156 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.metrics.ServiceMetricType;
+import com.amazonaws.metrics.SimpleServiceMetricType;
+
+/**
+ * Counts how long requests waited to lease a connection from the pool, in fixed buckets of
+ * exponentially increasing width. Recording is lock free so it can be done on every lease.
+ * <p>
+ * Each bucket has a service metric type, such as {@code HttpClientLeaseWaitUpTo5ms} or
+ * {@code HttpClientLeaseWaitOver5000ms}, under which the idle connection reaper reports the
+ * number of leases of the bucket.
+ */
+@ThreadSafe
+public class LeaseWaitHistogram {
+
+    /**
+     * Inclusive upper bounds, in milliseconds, of all but the last bucket. The last bucket counts
+     * every longer wait and leases that timed out.
+     */
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+            0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000
+    };
+
+    private static final List<ServiceMetricType> METRIC_TYPES;
+
+    static {
+        ServiceMetricType[] types = new ServiceMetricType[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+            types[i] = new SimpleServiceMetricType(
+                    "HttpClientLeaseWaitUpTo" + BUCKET_UPPER_BOUNDS_MILLIS[i] + "ms", "HttpClient");
+        }
+        types[BUCKET_UPPER_BOUNDS_MILLIS.length] = new SimpleServiceMetricType(
+                "HttpClientLeaseWaitOver" + BUCKET_UPPER_BOUNDS_MILLIS[BUCKET_UPPER_BOUNDS_MILLIS.length - 1] + "ms",
+                "HttpClient");
+        METRIC_TYPES = Collections.unmodifiableList(Arrays.asList(types));
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+
+    /** The counts as of the last call to {@link #getCountsSinceLastReport()}. Guarded by this. */
+    private final long[] reported = new long[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+
+    /**
+     * @return The service metric types of the buckets, in the order of {@link #getCounts()}.
+     */
+    public static List<ServiceMetricType> getMetricTypes() {
+        return METRIC_TYPES;
+    }
+
+    /**
+     * Records a lease that waited the given number of milliseconds.
+     */
+    public void record(long waitMillis) {
+        counts.incrementAndGet(bucketOf(waitMillis));
+    }
+
+    /**
+     * Records a lease that timed out waiting for a connection.
+     */
+    public void recordTimeout() {
+        counts.incrementAndGet(BUCKET_UPPER_BOUNDS_MILLIS.length);
+    }
+
+    /**
+     * @return The inclusive upper bounds, in milliseconds, of the buckets returned by
+     *         {@link #getCounts()}. The last bucket has no upper bound and is not included.
+     */
+    public long[] getBucketUpperBoundsMillis() {
+        return BUCKET_UPPER_BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * @return A snapshot of the number of leases in each bucket. The returned array has one more
+     *         element than {@link #getBucketUpperBoundsMillis()}, counting longer waits and
+     *         timeouts.
+     */
+    public long[] getCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return The number of leases recorded in each bucket since the last call, or since the
+     *         histogram was created.
+     */
+    public synchronized long[] getCountsSinceLastReport() {
+        long[] delta = new long[reported.length];
+        for (int i = 0; i < delta.length; i++) {
+            long count = counts.get(i);
+            delta[i] = count - reported[i];
+            reported[i] = count;
+        }
+        return delta;
+    }
+
+    /**
+     * @return The total number of recorded leases.
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private static int bucketOf(long waitMillis) {
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+            if (waitMillis <= BUCKET_UPPER_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_UPPER_BOUNDS_MILLIS.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < counts.length(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (i < BUCKET_UPPER_BOUNDS_MILLIS.length) {
+                sb.append("<=").append(BUCKET_UPPER_BOUNDS_MILLIS[i]).append("ms");
+            } else {
+                sb.append(">").append(BUCKET_UPPER_BOUNDS_MILLIS[i - 1]).append("ms");
+            }
+            sb.append(": ").append(counts.get(i));
+        }
+        return sb.append("}").toString();
+    }
+}
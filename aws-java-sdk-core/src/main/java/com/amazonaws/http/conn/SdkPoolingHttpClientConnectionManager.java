@@ -0,0 +1,383 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.SchemePortResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.auth.SdkClock;
+
+/**
+ * Connection manager that can size its pool adaptively and apply per-host connection limits on
+ * top of what {@link PoolingHttpClientConnectionManager} offers.
+ * <p>
+ * With adaptive sizing enabled, the maximum size of the pool starts at a minimum and grows
+ * towards a maximum whenever a lease has to wait for a connection. When part of the pool has
+ * gone unused and no leases were waiting for a while, it shrinks back towards the minimum;
+ * the connections above the new limit are closed as the pool makes room for new ones or by the
+ * idle connection reaper.
+ * <p>
+ * Per-host limits apply to every route to a host. A host name starting with a dot, such as
+ * {@code .s3.amazonaws.com}, matches all of its subdomains, e.g. the virtual hosts of S3 buckets.
+ * They cap the connections leased for a route at the same time and are enforced here rather than
+ * through {@link #setMaxPerRoute(HttpRoute, int)}, as the pool keeps a per-route maximum forever
+ * and a client talking to many buckets would accumulate one for each of them. The limit of a route
+ * is only tracked while it has leased or waiting connections.
+ * <p>
+ * The time every lease waits for a connection is recorded in a {@link LeaseWaitHistogram}, which
+ * the {@link com.amazonaws.http.IdleConnectionReaper} reports to the service metric collector.
+ */
+@SdkInternalApi
+public class SdkPoolingHttpClientConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final Log LOG = LogFactory.getLog(SdkPoolingHttpClientConnectionManager.class);
+
+    /**
+     * Leases waiting longer than this grow an adaptively sized pool.
+     */
+    private static final long GROW_THRESHOLD_MILLIS = 10;
+
+    /**
+     * How long an adaptively sized pool has to go without growing before it's considered for
+     * shrinking.
+     */
+    private static final long SHRINK_INTERVAL_MILLIS = 30 * 1000;
+
+    /**
+     * How often a lease waiting for a per-host limit checks whether it was canceled.
+     */
+    private static final long CANCEL_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LeaseWaitHistogram leaseWaitHistogram = new LeaseWaitHistogram();
+    private final SdkClock clock;
+
+    private volatile Map<String, Integer> maxPerHost = Collections.emptyMap();
+
+    /** Limits of the routes with leased or waiting connections. Guarded by itself. */
+    private final Map<HttpRoute, RouteLimit> routeLimits = new HashMap<HttpRoute, RouteLimit>();
+
+    /** Leased connections that hold a permit of their route's limit. */
+    private final ConcurrentMap<HttpClientConnection, RouteLimit> limitedConnections =
+            new ConcurrentHashMap<HttpClientConnection, RouteLimit>();
+
+    private volatile boolean adaptive;
+    private int minTotal;
+    private int maxTotal;
+    private volatile long lastResizeTime;
+
+    public SdkPoolingHttpClientConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                                 SchemePortResolver schemePortResolver,
+                                                 DnsResolver dnsResolver,
+                                                 long timeToLive,
+                                                 TimeUnit tunit) {
+        this(socketFactoryRegistry, schemePortResolver, dnsResolver, timeToLive, tunit, SdkClock.STANDARD);
+    }
+
+    @SdkTestInternalApi
+    SdkPoolingHttpClientConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                          SchemePortResolver schemePortResolver,
+                                          DnsResolver dnsResolver,
+                                          long timeToLive,
+                                          TimeUnit tunit,
+                                          SdkClock clock) {
+        super(socketFactoryRegistry, null, schemePortResolver, dnsResolver, timeToLive, tunit);
+        this.clock = clock;
+    }
+
+    /**
+     * Sizes the pool adaptively between the given bounds, starting at the minimum.
+     */
+    public synchronized void setAdaptiveMaxTotal(int minTotal, int maxTotal) {
+        if (minTotal <= 0 || minTotal > maxTotal) {
+            throw new IllegalArgumentException(
+                    "minTotal must be positive and no more than maxTotal: " + minTotal + ", " + maxTotal);
+        }
+        this.minTotal = minTotal;
+        this.maxTotal = maxTotal;
+        this.lastResizeTime = clock.currentTimeMillis();
+        this.adaptive = true;
+        super.setMaxTotal(minTotal);
+    }
+
+    /**
+     * Sets a fixed maximum size of the pool, disabling adaptive sizing.
+     */
+    @Override
+    public synchronized void setMaxTotal(int max) {
+        this.adaptive = false;
+        super.setMaxTotal(max);
+    }
+
+    /**
+     * Limits the number of leased connections of each route to the given hosts. Host names
+     * starting with a dot match all subdomains. Only affects leases requested afterwards.
+     */
+    public void setMaxPerHost(Map<String, Integer> maxPerHost) {
+        Map<String, Integer> limits = new HashMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : maxPerHost.entrySet()) {
+            if (entry.getValue() <= 0) {
+                throw new IllegalArgumentException(
+                        "Max connections of " + entry.getKey() + " must be positive: " + entry.getValue());
+            }
+            limits.put(entry.getKey().toLowerCase(Locale.ENGLISH), entry.getValue());
+        }
+        this.maxPerHost = limits;
+    }
+
+    /**
+     * @return The waits of all leases from this pool.
+     */
+    public LeaseWaitHistogram getLeaseWaitHistogram() {
+        return leaseWaitHistogram;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+        final Integer limit = maxPerHost.isEmpty() ? null : findMaxPerHost(route.getTargetHost().getHostName());
+        final ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            private final AtomicBoolean cancelled = new AtomicBoolean();
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                RouteLimit routeLimit = null;
+                boolean leased = false;
+                try {
+                    if (limit != null) {
+                        routeLimit = acquireRouteLimit(route, limit, timeout, tunit, cancelled);
+                        if (timeout > 0) {
+                            // The pool treats a zero timeout as no timeout, so never pass it on
+                            long remainingNanos = tunit.toNanos(timeout) - (System.nanoTime() - start);
+                            timeout = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+                            tunit = TimeUnit.MILLISECONDS;
+                        }
+                    }
+                    HttpClientConnection connection = request.get(timeout, tunit);
+                    if (routeLimit != null) {
+                        limitedConnections.put(connection, routeLimit);
+                    }
+                    leased = true;
+                    onLease(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false);
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    onLease(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+                    throw e;
+                } finally {
+                    if (routeLimit != null && !leased) {
+                        releaseRouteLimit(routeLimit);
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                cancelled.set(true);
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection managedConn, Object state, long keepalive, TimeUnit tunit) {
+        try {
+            super.releaseConnection(managedConn, state, keepalive, tunit);
+        } finally {
+            RouteLimit routeLimit = limitedConnections.remove(managedConn);
+            if (routeLimit != null) {
+                releaseRouteLimit(routeLimit);
+            }
+        }
+    }
+
+    /**
+     * @return Number of routes whose limit is currently tracked.
+     */
+    @SdkTestInternalApi
+    int getLimitedRouteCount() {
+        synchronized (routeLimits) {
+            return routeLimits.size();
+        }
+    }
+
+    /**
+     * Waits for a permit of the route's limit, tracking the limit while it's waited for or held.
+     *
+     * @return The limit, whose permit must be handed back with
+     *         {@link #releaseRouteLimit(RouteLimit)}.
+     */
+    private RouteLimit acquireRouteLimit(HttpRoute route, int limit, long timeout, TimeUnit tunit,
+                                         AtomicBoolean cancelled)
+            throws InterruptedException, ConnectionPoolTimeoutException {
+        RouteLimit routeLimit;
+        synchronized (routeLimits) {
+            routeLimit = routeLimits.get(route);
+            if (routeLimit == null) {
+                routeLimit = new RouteLimit(route, limit);
+                routeLimits.put(route, routeLimit);
+            }
+            routeLimit.users++;
+        }
+        boolean acquired = false;
+        try {
+            acquired = routeLimit.acquire(timeout, tunit, cancelled);
+        } finally {
+            if (!acquired) {
+                untrack(routeLimit);
+            }
+        }
+        if (!acquired) {
+            throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+        }
+        return routeLimit;
+    }
+
+    private void releaseRouteLimit(RouteLimit routeLimit) {
+        routeLimit.permits.release();
+        untrack(routeLimit);
+    }
+
+    private void untrack(RouteLimit routeLimit) {
+        synchronized (routeLimits) {
+            if (--routeLimit.users == 0) {
+                routeLimits.remove(routeLimit.route);
+            }
+        }
+    }
+
+    private Integer findMaxPerHost(String hostName) {
+        String host = hostName.toLowerCase(Locale.ENGLISH);
+        Integer limit = maxPerHost.get(host);
+        for (int dot = host.indexOf('.'); limit == null && dot >= 0; dot = host.indexOf('.', dot + 1)) {
+            limit = maxPerHost.get(host.substring(dot));
+        }
+        return limit;
+    }
+
+    /**
+     * The connections a route may lease at the same time, and how many leases hold or wait for
+     * one of them.
+     */
+    private static final class RouteLimit {
+        private final HttpRoute route;
+        private final Semaphore permits;
+        /** Guarded by the routeLimits map of the connection manager. */
+        private int users;
+
+        private RouteLimit(HttpRoute route, int limit) {
+            this.route = route;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        /**
+         * Waits for a permit, waking up regularly to give up if the lease was canceled, as
+         * aborting a request only cancels its connection request.
+         *
+         * @param timeout
+         *            Non-positive to wait without timeout.
+         * @return False if no permit became available in time.
+         */
+        private boolean acquire(long timeout, TimeUnit tunit, AtomicBoolean cancelled) throws InterruptedException {
+            boolean timed = timeout > 0;
+            long deadline = timed ? System.nanoTime() + tunit.toNanos(timeout) : 0;
+            while (true) {
+                if (cancelled.get()) {
+                    throw new InterruptedException("Connection request canceled");
+                }
+                long wait = timed ? Math.min(deadline - System.nanoTime(), CANCEL_CHECK_INTERVAL_NANOS)
+                                  : CANCEL_CHECK_INTERVAL_NANOS;
+                if (wait <= 0) {
+                    return false;
+                }
+                if (permits.tryAcquire(wait, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    @SdkTestInternalApi
+    void onLease(long waitMillis, boolean timedOut) {
+        if (timedOut) {
+            leaseWaitHistogram.recordTimeout();
+        } else {
+            leaseWaitHistogram.record(waitMillis);
+        }
+        if (!adaptive) {
+            return;
+        }
+        if (timedOut || waitMillis > GROW_THRESHOLD_MILLIS) {
+            grow();
+        } else if (clock.currentTimeMillis() - lastResizeTime >= SHRINK_INTERVAL_MILLIS) {
+            shrink();
+        }
+    }
+
+    private synchronized void grow() {
+        int current = getMaxTotal();
+        if (!adaptive || current >= maxTotal) {
+            return;
+        }
+        resize(current, Math.min(maxTotal, current + Math.max(1, current / 2)));
+    }
+
+    private synchronized void shrink() {
+        if (!adaptive || clock.currentTimeMillis() - lastResizeTime < SHRINK_INTERVAL_MILLIS) {
+            return;
+        }
+        int current = getMaxTotal();
+        PoolStats stats = getTotalStats();
+        int unused = current - stats.getLeased();
+        if (stats.getPending() == 0 && unused > 0 && current > minTotal) {
+            // Give up half of the capacity that went unused, so the pool converges on its load
+            resize(current, Math.max(minTotal, current - (unused + 1) / 2));
+        } else {
+            lastResizeTime = clock.currentTimeMillis();
+        }
+    }
+
+    private void resize(int current, int target) {
+        super.setMaxTotal(target);
+        lastResizeTime = clock.currentTimeMillis();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Resized connection pool from " + current + " to " + target
+                      + " connections, lease waits: " + leaseWaitHistogram);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.amazonaws.DnsResolver;
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.util.ValidationUtils;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A convienient class that expose all settings in {@link ClientConfiguration} and other internal settings to the
@@ -73,6 +74,23 @@ public class HttpClientSettings {
         return config.getMaxConnections();
     }
 
+    public int getMaxConnectionsPerRoute() {
+        int maxConnectionsPerRoute = config.getMaxConnectionsPerRoute();
+        return maxConnectionsPerRoute < 0 ? getMaxConnections() : maxConnectionsPerRoute;
+    }
+
+    public Map<String, Integer> getMaxConnectionsPerHost() {
+        return config.getMaxConnectionsPerHost();
+    }
+
+    public boolean useAdaptiveConnectionPool() {
+        return config.useAdaptiveConnectionPool();
+    }
+
+    public int getMinConnections() {
+        return Math.min(config.getMinConnections(), getMaxConnections());
+    }
+
     public InetAddress getLocalAddress() {
         return config.getLocalAddress();
     }
@@ -129,6 +147,14 @@ public class HttpClientSettings {
         return config.useTcpKeepAlive();
     }
 
+    public int getTlsSessionCacheSize() {
+        return config.getTlsSessionCacheSize();
+    }
+
+    public long getTlsSessionTimeoutMillis() {
+        return config.getTlsSessionTimeoutMillis();
+    }
+
     public SecureRandom getSecureRandom() {
         return config.getSecureRandom();
     }
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A low overhead timer for the request timeout and client execution timeout features, shared by
+ * all clients in the JVM through {@link #getSharedTimer()}.
+ * <p>
+ * Timeouts are hashed into a wheel of buckets that a single worker thread advances once per tick.
+ * Scheduling a timeout is a single compare-and-set onto a lock-free stack and canceling it is a
+ * single compare-and-set on the timeout itself; canceled timeouts are unlinked by the worker the
+ * next time it visits their bucket. Expiration is therefore only accurate to within one tick,
+ * which is more than enough for timeouts that are typically seconds long.
+ * <p>
+ * The worker thread only does the bookkeeping: it hands the tasks of expired timeouts to a small
+ * pool of task threads, so a task that blocks, e.g. while closing a socket to abort a request,
+ * doesn't hold up any other timeout.
+ * <p>
+ * The worker and task threads are started on demand and exit once they have been idle for the
+ * keep alive time, so an idle timer holds no threads.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class HashedWheelTimer {
+
+    private static final Log LOG = LogFactory.getLog(HashedWheelTimer.class);
+
+    private static final String SHARED_TIMER_THREAD_NAME = "AwsSdkTimeoutTimerThread";
+    private static final long DEFAULT_TICK_DURATION_MILLIS = 10;
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = 5000;
+    private static final int DEFAULT_TASK_THREADS = 4;
+
+    private final String threadName;
+    private final long tickDurationNanos;
+    private final long keepAliveNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final ThreadPoolExecutor taskExecutor;
+
+    /** Timeouts scheduled since the worker last looked, linked through {@link Timeout#nextNew}. */
+    private final AtomicReference<Timeout> newTimeouts = new AtomicReference<Timeout>();
+    private final AtomicBoolean workerRunning = new AtomicBoolean();
+
+    /** Only written by the worker thread. */
+    private volatile long expiredTimeoutCount;
+
+    /**
+     * Creates a timer with the same settings as the shared timer.
+     *
+     * @param threadName
+     *            Name of the worker thread, and prefix of the names of the task threads.
+     */
+    public HashedWheelTimer(String threadName) {
+        this(threadName, DEFAULT_TICK_DURATION_MILLIS, DEFAULT_TICKS_PER_WHEEL, DEFAULT_KEEP_ALIVE_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param threadName
+     *            Name of the worker thread, and prefix of the names of the task threads.
+     * @param tickDuration
+     *            Time between two ticks of the wheel, i.e. the precision of the timer.
+     * @param ticksPerWheel
+     *            Number of buckets in the wheel, rounded up to a power of two.
+     * @param keepAlive
+     *            How long the worker thread is kept around when there are no pending timeouts, and
+     *            the task threads when there are no expired tasks to run.
+     * @param unit
+     *            Time unit of the tick duration and keep alive time.
+     */
+    public HashedWheelTimer(String threadName, long tickDuration, int ticksPerWheel, long keepAlive, TimeUnit unit) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+        if (keepAlive < 0) {
+            throw new IllegalArgumentException("keepAlive must not be negative: " + keepAlive);
+        }
+        this.threadName = threadName;
+        this.tickDurationNanos = unit.toNanos(tickDuration);
+        this.keepAliveNanos = unit.toNanos(keepAlive);
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.taskExecutor = new ThreadPoolExecutor(DEFAULT_TASK_THREADS, DEFAULT_TASK_THREADS,
+                Math.max(keepAliveNanos, 1), TimeUnit.NANOSECONDS, new LinkedBlockingQueue<Runnable>(),
+                new TaskThreadFactory(threadName));
+        taskExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return The timer shared by all clients in the JVM.
+     */
+    public static HashedWheelTimer getSharedTimer() {
+        return SharedTimerHolder.SHARED_TIMER;
+    }
+
+    /**
+     * Schedules the given task to be run on a task thread once the given delay has elapsed. The
+     * task should be short, as only a few task threads run expired tasks.
+     *
+     * @return A handle to cancel the timeout.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+        Timeout head;
+        do {
+            head = newTimeouts.get();
+            timeout.nextNew = head;
+        } while (!newTimeouts.compareAndSet(head, timeout));
+
+        if (!workerRunning.get() && workerRunning.compareAndSet(false, true)) {
+            startWorker();
+        }
+        return timeout;
+    }
+
+    /**
+     * @return True if the worker thread is currently running.
+     */
+    public boolean isWorkerRunning() {
+        return workerRunning.get();
+    }
+
+    /**
+     * @return The time the worker thread is kept around without any pending timeouts.
+     */
+    public long getKeepAliveTime(TimeUnit unit) {
+        return unit.convert(keepAliveNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return Number of timeouts that expired and had their task handed to a task thread since the
+     *         timer was created.
+     */
+    public long getExpiredTimeoutCount() {
+        return expiredTimeoutCount;
+    }
+
+    private void startWorker() {
+        Thread thread = new Thread(new Worker(), threadName);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Handle to a scheduled task. Handed to the task threads once expired.
+     */
+    public static final class Timeout implements Runnable {
+        private static final int ST_PENDING = 0;
+        private static final int ST_CANCELED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final long deadline;
+        private volatile Runnable task;
+        private volatile int state = ST_PENDING;
+
+        private Timeout nextNew;
+
+        // Only accessed by the worker thread
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout. The task is not interrupted if it's already running.
+         *
+         * @return True if the timeout was canceled before it expired.
+         */
+        public boolean cancel() {
+            if (STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_CANCELED)) {
+                // Let the task be garbage collected before the worker unlinks the timeout
+                task = null;
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private boolean markExpired() {
+            return STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_EXPIRED);
+        }
+
+        /**
+         * Runs the task of an expired timeout. Only called by the timer's task threads.
+         */
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOG.warn("Timeout task threw an exception", t);
+            }
+            task = null;
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed to a slot of the wheel. Only accessed by the
+     * worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            return next;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private long startTime;
+        private long tick;
+        /** Timeouts in the wheel, including canceled ones that haven't been unlinked yet. */
+        private int timeoutsInWheel;
+
+        @Override
+        public void run() {
+            startTime = System.nanoTime();
+            long idleSince = startTime;
+            while (true) {
+                long now = waitForNextTick();
+                transferNewTimeouts();
+                expireTimeouts(wheel[(int) (tick & mask)]);
+                tick++;
+
+                if (timeoutsInWheel > 0 || newTimeouts.get() != null) {
+                    idleSince = now;
+                } else if (now - idleSince >= keepAliveNanos && !keepRunningAfterStop()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Marks the worker as stopped. A timeout scheduled concurrently either sees the worker
+         * stopped and starts a new one, or is seen here and this worker keeps running.
+         *
+         * @return True if this worker must keep running.
+         */
+        private boolean keepRunningAfterStop() {
+            workerRunning.set(false);
+            return newTimeouts.get() != null && workerRunning.compareAndSet(false, true);
+        }
+
+        private long waitForNextTick() {
+            long deadline = startTime + (tick + 1) * tickDurationNanos;
+            while (true) {
+                long now = System.nanoTime();
+                long sleepMillis = (deadline - now + 999999) / 1000000;
+                if (sleepMillis <= 0) {
+                    return now;
+                }
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException ignored) {
+                    // The worker is never meant to be interrupted; keep the timer going
+                }
+            }
+        }
+
+        private void transferNewTimeouts() {
+            Timeout timeout = newTimeouts.getAndSet(null);
+            while (timeout != null) {
+                Timeout nextNew = timeout.nextNew;
+                timeout.nextNew = null;
+                if (!timeout.isCancelled()) {
+                    long expirationTick = Math.max((timeout.deadline - startTime) / tickDurationNanos, tick);
+                    timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+                    wheel[(int) (expirationTick & mask)].add(timeout);
+                    timeoutsInWheel++;
+                }
+                timeout = nextNew;
+            }
+        }
+
+        private void expireTimeouts(Bucket bucket) {
+            Timeout timeout = bucket.head;
+            while (timeout != null) {
+                if (timeout.isCancelled()) {
+                    timeout = unlink(bucket, timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    Timeout next = unlink(bucket, timeout);
+                    if (timeout.markExpired()) {
+                        expiredTimeoutCount++;
+                        taskExecutor.execute(timeout);
+                    }
+                    timeout = next;
+                } else {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                }
+            }
+        }
+
+        private Timeout unlink(Bucket bucket, Timeout timeout) {
+            timeoutsInWheel--;
+            return bucket.remove(timeout);
+        }
+    }
+
+    private static final class TaskThreadFactory implements ThreadFactory {
+        private final String namePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private TaskThreadFactory(String threadName) {
+            this.namePrefix = threadName + "-task-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        }
+    }
+
+    private static final class SharedTimerHolder {
+        private static final HashedWheelTimer SHARED_TIMER = new HashedWheelTimer(SHARED_TIMER_THREAD_NAME);
+    }
+}
@@ -14,31 +14,35 @@
  */
 package com.amazonaws.http.timers.client;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
 import com.amazonaws.http.AmazonHttpClient;
-import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
+import com.amazonaws.http.timers.HashedWheelTimer;
+import com.amazonaws.http.timers.HashedWheelTimer.Timeout;
 
 /**
  * Represents a timer to enforce a timeout on the total client execution time. That is the time
  * spent executing request handlers, any HTTP request including retries, unmarshalling, etc.
- * Essentially all the time spent in {@link AmazonHttpClient}
+ * Essentially all the time spent in {@link AmazonHttpClient}. The timer is shared by all clients
+ * and its threads exit on their own once no timeouts are pending, so there is nothing to shut down.
  */
-// DO NOT override finalize(). The shutdown() method is called from AmazonHttpClient#shutdown()
-// which is called from it's finalize() method.  Since finalize methods can be be called in any
-// order and even concurrently, we need to rely on AmazonHttpClient to call our shutdown() method.
 @SdkInternalApi
 @ThreadSafe
 public class ClientExecutionTimer {
 
-    private static final String threadNamePrefix = "AwsSdkClientExecutionTimerThread";
+    private final HashedWheelTimer timer;
 
-    private volatile ScheduledThreadPoolExecutor executor;
+    public ClientExecutionTimer() {
+        this(HashedWheelTimer.getSharedTimer());
+    }
+
+    @SdkTestInternalApi
+    public ClientExecutionTimer(HashedWheelTimer timer) {
+        this.timer = timer;
+    }
 
     /**
      * Start the timer with the specified timeout and return a object that can be used to track the
@@ -53,46 +57,24 @@ public class ClientExecutionTimer {
     public ClientExecutionAbortTrackerTask startTimer(int clientExecutionTimeoutMillis) {
         if (isTimeoutDisabled(clientExecutionTimeoutMillis)) {
             return NoOpClientExecutionAbortTrackerTask.INSTANCE;
-        } else if (executor == null) {
-            initializeExecutor();
         }
         return scheduleTimerTask(clientExecutionTimeoutMillis);
     }
 
-    /**
-     * Executor is lazily initialized as it's not compatible with Java 6
-     */
-    private synchronized void initializeExecutor() {
-        if (executor == null) {
-            executor = TimeoutThreadPoolBuilder.buildDefaultTimeoutThreadPool(threadNamePrefix);
-        }
-    }
-
     /**
      * This method is current exposed for testing purposes
-     * 
-     * @return The underlying {@link ScheduledThreadPoolExecutor}
+     *
+     * @return The underlying {@link HashedWheelTimer}
      */
     @SdkTestInternalApi
-    public ScheduledThreadPoolExecutor getExecutor() {
-        return this.executor;
-    }
-
-    /**
-     * Shutdown the underlying {@link ScheduledThreadPoolExecutor}. Should be invoked when
-     * {@link AmazonHttpClient} is shutdown
-     */
-    public synchronized void shutdown() {
-        if (executor != null) {
-            executor.shutdown();
-        }
+    public HashedWheelTimer getTimer() {
+        return this.timer;
     }
 
     private ClientExecutionAbortTrackerTask scheduleTimerTask(int clientExecutionTimeoutMillis) {
         ClientExecutionAbortTask timerTask = new ClientExecutionAbortTaskImpl(Thread.currentThread());
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, clientExecutionTimeoutMillis,
-                TimeUnit.MILLISECONDS);
-        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timerTaskFuture);
+        Timeout timeout = timer.newTimeout(timerTask, clientExecutionTimeoutMillis, TimeUnit.MILLISECONDS);
+        return new ClientExecutionAbortTrackerTaskImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(int clientExecutionTimeoutMillis) {
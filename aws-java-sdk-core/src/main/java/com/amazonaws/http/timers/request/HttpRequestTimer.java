@@ -14,8 +14,6 @@
  */
 package com.amazonaws.http.timers.request;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.client.methods.HttpRequestBase;
@@ -23,21 +21,27 @@ import org.apache.http.client.methods.HttpRequestBase;
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.annotation.SdkTestInternalApi;
 import com.amazonaws.annotation.ThreadSafe;
-import com.amazonaws.http.timers.TimeoutThreadPoolBuilder;
+import com.amazonaws.http.timers.HashedWheelTimer;
+import com.amazonaws.http.timers.HashedWheelTimer.Timeout;
 
 /**
- * Represents a timer class to enforce HTTP request timeouts.
+ * Represents a timer class to enforce HTTP request timeouts. The timer is shared by all clients
+ * and its threads exit on their own once no timeouts are pending, so there is nothing to shut down.
  */
-// DO NOT override finalize(). The shutdown() method is called from AmazonHttpClient#shutdown()
-// which is called from it's finalize() method. Since finalize methods can be be called in any order
-// and even concurrently, we need to rely on AmazonHttpClient to call our shutdown() method.
 @ThreadSafe
 @SdkInternalApi
 public class HttpRequestTimer {
 
-    private static final String threadNamePrefix = "AwsSdkRequestTimerThread";
+    private final HashedWheelTimer timer;
 
-    private volatile ScheduledThreadPoolExecutor executor;
+    public HttpRequestTimer() {
+        this(HashedWheelTimer.getSharedTimer());
+    }
+
+    @SdkTestInternalApi
+    public HttpRequestTimer(HashedWheelTimer timer) {
+        this.timer = timer;
+    }
 
     /**
      * Start the timer with the specified timeout and return a object that can be used to track the
@@ -54,45 +58,24 @@ public class HttpRequestTimer {
     public HttpRequestAbortTaskTracker startTimer(final HttpRequestBase apacheRequest, final int requestTimeoutMillis) {
         if (isTimeoutDisabled(requestTimeoutMillis)) {
             return NoOpHttpRequestAbortTaskTracker.INSTANCE;
-        } else if (executor == null) {
-            initializeExecutor();
         }
         HttpRequestAbortTaskImpl timerTask = new HttpRequestAbortTaskImpl(apacheRequest);
-        ScheduledFuture<?> timerTaskFuture = executor.schedule(timerTask, requestTimeoutMillis, TimeUnit.MILLISECONDS);
-        return new HttpRequestAbortTaskTrackerImpl(timerTask, timerTaskFuture);
+        Timeout timeout = timer.newTimeout(timerTask, requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        return new HttpRequestAbortTaskTrackerImpl(timerTask, timeout);
     }
 
     private boolean isTimeoutDisabled(final int requestTimeoutMillis) {
         return requestTimeoutMillis <= 0;
     }
 
-    /**
-     * Executor is lazily initialized as it's not compatible with Java 6
-     */
-    private synchronized void initializeExecutor() {
-        if (executor == null) {
-            executor = TimeoutThreadPoolBuilder.buildDefaultTimeoutThreadPool(threadNamePrefix);
-        }
-    }
-
-    /**
-     * Shutdown the underlying {@link ScheduledThreadPoolExecutor}. Should be invoked when
-     * {@link com.amazonaws.http.AmazonHttpClient} is shutdown
-     */
-    public synchronized void shutdown() {
-        if (executor != null) {
-            executor.shutdown();
-        }
-    }
-
     /**
      * This method is current exposed for testing purposes
-     * 
-     * @return The underlying {@link ScheduledThreadPoolExecutor}
+     *
+     * @return The underlying {@link HashedWheelTimer}
      */
     @SdkTestInternalApi
-    public ScheduledThreadPoolExecutor getExecutor() {
-        return executor;
+    public HashedWheelTimer getTimer() {
+        return timer;
     }
 
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.amazonaws.annotation.NotThreadSafe;
+
+/**
+ * Request content backed by the remaining bytes of a {@link ByteBuffer}. The buffer is never
+ * modified, and neither is its position, so the same buffer can back any number of requests.
+ * <p>
+ * When the buffer is backed by an accessible array, the HTTP client writes the content straight
+ * from that array without copying it; direct and read-only buffers are copied in chunks.
+ */
+@NotThreadSafe
+public class ByteBufferInputStream extends PositionedInputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        super(new ByteArrayInputStream(new byte[0]), buffer.remaining());
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    protected int read(long position, byte[] b, int off, int len) {
+        buffer.position((int) position);
+        buffer.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    protected void write(OutputStream out, long position, long length) throws IOException {
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset() + (int) position, (int) length);
+        } else {
+            super.write(out, position, length);
+        }
+    }
+}
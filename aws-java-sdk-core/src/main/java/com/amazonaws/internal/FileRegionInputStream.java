@@ -0,0 +1,95 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.annotation.NotThreadSafe;
+
+/**
+ * Request content backed by a region of a file. The file is read with positional reads on its
+ * {@link FileChannel}, so the position of the channel is left untouched and retries simply start
+ * over from the beginning of the region.
+ * <p>
+ * Closing or releasing this stream closes the underlying file channel.
+ */
+@NotThreadSafe
+public class FileRegionInputStream extends PositionedInputStream {
+
+    private final FileChannel channel;
+    private final long offset;
+
+    /**
+     * Creates a stream of the whole content of the given file.
+     */
+    public FileRegionInputStream(File file) throws IOException {
+        this(file, 0, file.length());
+    }
+
+    /**
+     * Creates a stream of the given region of the file.
+     */
+    public FileRegionInputStream(File file, long offset, long length) throws IOException {
+        this(new FileInputStream(file), offset, length);
+    }
+
+    /**
+     * Creates a stream of the given region of the file channel. The channel is closed when this
+     * stream is closed or released.
+     */
+    public FileRegionInputStream(FileChannel channel, long offset, long length) {
+        this(Channels.newInputStream(channel), channel, offset, length);
+    }
+
+    private FileRegionInputStream(FileInputStream fis, long offset, long length) {
+        this(fis, fis.getChannel(), offset, length);
+    }
+
+    private FileRegionInputStream(InputStream resource, FileChannel channel, long offset, long length) {
+        super(resource, length);
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+        this.channel = channel;
+        this.offset = offset;
+    }
+
+    @Override
+    protected int read(long position, byte[] b, int off, int len) throws IOException {
+        return channel.read(ByteBuffer.wrap(b, off, len), offset + position);
+    }
+
+    public static FileRegionInputStream newFileRegionInputStream(File file, String errmsg) {
+        return newFileRegionInputStream(file, 0, file.length(), errmsg);
+    }
+
+    public static FileRegionInputStream newFileRegionInputStream(File file, long offset, long length,
+                                                                 String errmsg) {
+        try {
+            return new FileRegionInputStream(file, offset, length);
+        } catch (IOException e) {
+            throw errmsg == null
+                ? new SdkClientException(e)
+                : new SdkClientException(errmsg, e);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.annotation.NotThreadSafe;
+
+/**
+ * Base class for request content with a known length that is read by absolute position, such as
+ * a region of a file or a {@link java.nio.ByteBuffer}.
+ * <p>
+ * Since the content can be re-read from any position, mark-and-reset is always supported, without
+ * any buffering and regardless of the read limit; resetting simply moves the position back. The
+ * HTTP client also recognizes this type of content and writes it to the connection with
+ * {@link #writeTo(OutputStream)} in large chunks instead of pumping it through
+ * {@link #read(byte[], int, int)}. It only does so when the content of the request is this stream
+ * itself, so anything that needs to see every byte, e.g. to report progress or calculate an MD5
+ * digest on the fly, should be added as an {@link Observer} rather than wrap the stream.
+ * <p>
+ * Like {@link ResettableInputStream}, the close operation can be disabled via
+ * {@link #disableClose()}, in which case the underlying resource is only released via
+ * {@link #release()}.
+ */
+@NotThreadSafe
+public abstract class PositionedInputStream extends ReleasableInputStream {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final long length;
+    private long position;
+    private long markPosition;
+    private boolean endNotified;
+    private List<Observer> observers;
+
+    /**
+     * @param resource
+     *            Stream closed when this stream is closed or released.
+     * @param length
+     *            Length of the content in bytes.
+     */
+    protected PositionedInputStream(InputStream resource, long length) {
+        super(resource);
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        this.length = length;
+    }
+
+    /**
+     * Reads up to the given number of bytes starting at the given position of the content, without
+     * affecting the position of this stream.
+     *
+     * @return The number of bytes read, or -1 if the underlying content ended early, e.g. when
+     *         a file was truncated.
+     */
+    protected abstract int read(long position, byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Writes the given range of the content to the output stream. Subclasses that can write the
+     * content without copying it first should override this method.
+     */
+    protected void write(OutputStream out, long position, long length) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(WRITE_BUFFER_SIZE, length)];
+        long end = position + length;
+        while (position < end) {
+            abortIfNeeded();
+            int read = read(position, buffer, 0, (int) Math.min(buffer.length, end - position));
+            if (read == -1) {
+                throw contentEndedEarly(end - position);
+            }
+            out.write(buffer, 0, read);
+            position += read;
+        }
+    }
+
+    private static IOException contentEndedEarly(long missingBytes) {
+        return new IOException("The content ended " + missingBytes + " bytes before its expected length");
+    }
+
+    /**
+     * Writes all remaining content to the given output stream and moves the position to the end
+     * of the content.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        abortIfNeeded();
+        write(observers == null ? out : new ObservedOutputStream(out), position, length - position);
+        position = length;
+        notifyEnd();
+    }
+
+    /**
+     * Adds an observer of the content read or written out from now on.
+     */
+    public void addObserver(Observer observer) {
+        if (observers == null) {
+            observers = new ArrayList<Observer>(2);
+        }
+        observers.add(observer);
+    }
+
+    private void notifyBytes(byte[] b, int off, int len) {
+        if (observers != null) {
+            for (Observer observer : observers) {
+                observer.onBytes(b, off, len);
+            }
+        }
+    }
+
+    private void notifyEnd() {
+        if (observers != null && !endNotified) {
+            endNotified = true;
+            for (Observer observer : observers) {
+                observer.onEnd();
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes from the current position to the end of the content.
+     */
+    public long remaining() {
+        return length - position;
+    }
+
+    /**
+     * @return The total length of the content in bytes.
+     */
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        abortIfNeeded();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            notifyEnd();
+            return -1;
+        }
+        int read = read(position, b, off, (int) Math.min(len, length - position));
+        if (read == -1) {
+            throw contentEndedEarly(length - position);
+        }
+        position += read;
+        notifyBytes(b, off, read);
+        if (position == length) {
+            notifyEnd();
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        abortIfNeeded();
+        long skipped = Math.max(0, Math.min(n, length - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        abortIfNeeded();
+        return (int) Math.min(Integer.MAX_VALUE, length - position);
+    }
+
+    @Override
+    public final boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * Marks the current position. The read limit is ignored as resetting never needs to buffer.
+     */
+    @Override
+    public void mark(int readlimit) {
+        abortIfNeeded();
+        markPosition = position;
+        if (observers != null) {
+            for (Observer observer : observers) {
+                observer.onMark();
+            }
+        }
+    }
+
+    @Override
+    public void reset() throws IOException {
+        abortIfNeeded();
+        position = markPosition;
+        endNotified = false;
+        if (observers != null) {
+            for (Observer observer : observers) {
+                observer.onReset();
+            }
+        }
+    }
+
+    /**
+     * Observes the content of a {@link PositionedInputStream} as it is read or written out. Unlike
+     * a wrapper, an observer leaves the HTTP client free to write the content out directly, and
+     * sees it in the chunks it is written in, straight from the source where possible. Each
+     * method defaults to do nothing.
+     */
+    public abstract static class Observer {
+        /**
+         * Upon the given bytes of content being read or written out. The bytes must not be
+         * modified.
+         */
+        public void onBytes(byte[] b, int off, int len) {}
+
+        /**
+         * Upon reaching the end of the content; only notified once until the stream is reset.
+         */
+        public void onEnd() {}
+
+        /**
+         * Upon the stream being marked.
+         */
+        public void onMark() {}
+
+        /**
+         * Upon the stream being reset to the last mark, or the beginning of the content.
+         */
+        public void onReset() {}
+    }
+
+    /**
+     * Notifies the observers of the content written through it.
+     */
+    private class ObservedOutputStream extends FilterOutputStream {
+        ObservedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            notifyBytes(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            notifyBytes(b, off, len);
+        }
+    }
+}
@@ -18,9 +18,11 @@ import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.conn.ssl.SSLInitializationException;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
 
 public class SdkSSLContext {
 
@@ -39,4 +41,33 @@ public class SdkSSLContext {
             throw new SSLInitializationException(ex.getMessage(), ex);
         }
     }
+
+    /**
+     * Creates the preferred SSL context with the given limits on the client sessions it caches for
+     * resumption.
+     *
+     * @param sessionCacheSize
+     *            Maximum number of cached sessions, zero for no limit, or a negative value to keep
+     *            the JVM default.
+     * @param sessionTimeoutMillis
+     *            How long a cached session can be resumed, rounded up to whole seconds, zero for no
+     *            limit, or a negative value to keep the JVM default.
+     * @see #getPreferredSSLContext(SecureRandom)
+     */
+    public static final SSLContext getPreferredSSLContext(final SecureRandom secureRandom,
+                                                          final int sessionCacheSize,
+                                                          final long sessionTimeoutMillis) {
+        final SSLContext sslcontext = getPreferredSSLContext(secureRandom);
+        final SSLSessionContext sessionContext = sslcontext.getClientSessionContext();
+        if (sessionContext != null) {
+            if (sessionCacheSize >= 0) {
+                sessionContext.setSessionCacheSize(sessionCacheSize);
+            }
+            if (sessionTimeoutMillis >= 0) {
+                long seconds = TimeUnit.MILLISECONDS.toSeconds(sessionTimeoutMillis + 999);
+                sessionContext.setSessionTimeout((int) Math.min(seconds, Integer.MAX_VALUE));
+            }
+        }
+        return sslcontext;
+    }
 }
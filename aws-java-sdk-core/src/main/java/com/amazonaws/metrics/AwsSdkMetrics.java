@@ -35,6 +35,7 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.PropertiesCredentials;
+import com.amazonaws.http.conn.LeaseWaitHistogram;
 import com.amazonaws.jmx.spi.SdkMBeanRegistry;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.util.AWSRequestMetrics;
@@ -910,6 +911,11 @@ public enum AwsSdkMetrics {
             metricTypes.add(Field.HttpClientPoolLeasedCount);
             metricTypes.add(Field.HttpClientPoolPendingCount);
             metricTypes.add(AWSServiceMetrics.HttpClientGetConnectionTime);
+            metricTypes.add(AWSServiceMetrics.HttpClientIdleConnectionsClosed);
+            metricTypes.add(AWSServiceMetrics.HttpClientIdleConnectionCount);
+            metricTypes.add(AWSServiceMetrics.SignerKeyCacheHitCount);
+            metricTypes.add(AWSServiceMetrics.SignerKeyCacheMissCount);
+            metricTypes.addAll(LeaseWaitHistogram.getMetricTypes());
             syncReadOnly();
         }
 
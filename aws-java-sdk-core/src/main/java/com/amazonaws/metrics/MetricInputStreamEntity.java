@@ -14,6 +14,7 @@
  */
 package com.amazonaws.metrics;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -22,6 +23,7 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 
 import com.amazonaws.internal.MetricAware;
+import com.amazonaws.internal.PositionedInputStream;
 
 /**
  * Used to help capture the throughput metrics.
@@ -65,7 +67,8 @@ public class MetricInputStreamEntity extends InputStreamEntity {
 
     /**
      * Copied from {{@link InputStreamEntity#writeTo(OutputStream)} but modified
-     * to capture metrics for the output stream.
+     * to capture metrics for the output stream. A {@link PositionedInputStream}
+     * is written out directly, timing each chunk it is written in.
      */
     private void writeToWithMetrics(final OutputStream outstream) throws IOException {
         if (outstream == null) {
@@ -75,6 +78,17 @@ public class MetricInputStreamEntity extends InputStreamEntity {
         final long length = getContentLength();
         InputStream instream = content;
         try {
+            if (instream instanceof PositionedInputStream) {
+                ((PositionedInputStream) instream).writeTo(new FilterOutputStream(outstream) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        long startNano = helper.startTiming();
+                        out.write(b, off, len);
+                        helper.increment(len, startNano);
+                    }
+                });
+                return;
+            }
             byte[] buffer = new byte[BUFFER_SIZE];
             int l;
             if (length < 0) {
@@ -35,6 +35,11 @@ public abstract class ServiceMetricCollector {
      * Collects metrics for non-request specific latencies.
      */
     public abstract void collectLatency(ServiceLatencyProvider provider);
+    /**
+     * Collects metrics for non-request specific counts. Ignored unless
+     * overridden.
+     */
+    public void collectCount(ServiceMetricType type, long count) {}
 
     public boolean isEnabled() { return true; }
     /** A convenient instance of a no-op service metric collector. */
@@ -75,6 +75,22 @@
  * <ol>
  * <li>HttpClientGetConnectionTime - Total number of milliseconds taken for the
  * underlying http client library to get a connection.
+ * <li>HttpClientIdleConnectionsClosed - Number of idle connections closed by a
+ * sweep of the idle connection reaper. Captured once per sweep, summed over all
+ * the connection pools of the JVM.</li>
+ * <li>HttpClientIdleConnectionCount - Number of idle connections left after a
+ * sweep of the idle connection reaper. Captured once per sweep, summed over all
+ * the connection pools of the JVM.</li>
+ * <li>HttpClientLeaseWaitUpTo0ms, HttpClientLeaseWaitUpTo1ms, ...,
+ * HttpClientLeaseWaitUpTo5000ms and HttpClientLeaseWaitOver5000ms - Number of
+ * connection leases that waited up to, or longer than, the given number of
+ * milliseconds for a connection, including leases that timed out in the last
+ * one. Captured once per sweep of the idle connection reaper, summed over all
+ * the connection pools of the JVM.</li>
+ * <li>SignerKeyCacheHitCount - Number of AWS4 signing key lookups served from
+ * the signer's cache.</li>
+ * <li>SignerKeyCacheMissCount - Number of AWS4 signing key lookups that had to
+ * derive a new signing key.</li>
  * <li>S3DownloadThroughput - Number of bytes downloaded from S3 per second.</li>
  * <li>S3DownloadByteCount - Number of bytes downloaded from S3.</li>
  * <li>S3UploadThroughput - Number of bytes uploaded to S3 per second.</li>
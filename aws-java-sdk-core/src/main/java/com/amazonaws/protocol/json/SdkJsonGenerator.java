@@ -17,11 +17,12 @@ package com.amazonaws.protocol.json;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.annotation.SdkInternalApi;
 import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.ByteArrayPool;
 import com.amazonaws.util.DateUtils;
+import com.amazonaws.util.PooledByteArrayOutputStream;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -34,12 +35,6 @@ import java.util.Date;
 @SdkInternalApi
 public class SdkJsonGenerator implements StructuredJsonGenerator {
 
-    /**
-     * Default buffer size for the BAOS. Chosen somewhat arbitrarily. Should be large enough to
-     * prevent frequent resizings but small enough to avoid wasted allocations for small requests.
-     */
-    private static final int DEFAULT_BUFFER_SIZE = 1024;
-
     /**
      * Indicates an issue writing JSON content.
      */
@@ -50,7 +45,16 @@ public class SdkJsonGenerator implements StructuredJsonGenerator {
         }
     }
 
-    private final ByteArrayOutputStream baos = new ByteArrayOutputStream(DEFAULT_BUFFER_SIZE);
+    /**
+     * Buffer taken from the shared pool, which is given back once the content has been copied out
+     * of it by {@link #getBytes()}.
+     */
+    private final PooledByteArrayOutputStream baos = new PooledByteArrayOutputStream(ByteArrayPool.getDefault());
+
+    /**
+     * Content copied out of the buffer by the first call to {@link #getBytes()}.
+     */
+    private byte[] bytes;
 
     private final JsonGenerator generator;
 
@@ -266,7 +270,12 @@ public class SdkJsonGenerator implements StructuredJsonGenerator {
     @Override
     public byte[] getBytes() {
         close();
-        return baos.toByteArray();
+        if (bytes == null) {
+            bytes = baos.toByteArray();
+            baos.release();
+            return bytes;
+        }
+        return bytes.clone();
     }
 
     @Override
@@ -111,6 +111,38 @@ public class PredefinedBackoffStrategies {
         }
     }
 
+    /**
+     * Backoff strategy using decorrelated jitter: each delay is picked at random between the base delay and three
+     * times the previous delay, capped at the max backoff. Compared to the exponential jitter strategies this spreads
+     * retries from many concurrent callers more evenly, so a throttled service sees fewer synchronized retry waves.
+     * <p>
+     * The previous delay is taken from {@link RetryPolicyContext#previousBackoffDelay()}, which the SDK fills in for
+     * both legacy and v2 retry policies. Called through the legacy {@link RetryPolicy.BackoffStrategy} method there
+     * is no previous delay, so each delay is picked between the base delay and three times the base delay.
+     */
+    public static class DecorrelatedJitterBackoffStrategy extends V2CompatibleBackoffStrategyAdapter {
+
+        private final int baseDelay;
+        private final int maxBackoffTime;
+        private final Random random = new Random();
+
+        public DecorrelatedJitterBackoffStrategy(final int baseDelay,
+                                                 final int maxBackoffTime) {
+            this.baseDelay = ValidationUtils.assertIsPositive(baseDelay, "Base delay");
+            this.maxBackoffTime = ValidationUtils.assertIsPositive(maxBackoffTime, "Max backoff");
+        }
+
+        @Override
+        public long computeDelayBeforeNextRetry(RetryPolicyContext context) {
+            long previousDelay = Math.max(baseDelay, context.previousBackoffDelay());
+            long ceil = Math.min(maxBackoffTime, previousDelay * 3);
+            if (ceil <= baseDelay) {
+                return ceil;
+            }
+            return baseDelay + (long) (random.nextDouble() * (ceil - baseDelay + 1));
+        }
+    }
+
     private static int calculateExponentialDelay(int retriesAttempted, int baseDelay, int maxBackoffTime) {
         int retries = Math.min(retriesAttempted, MAX_RETRIES);
         return (int) Math.min((1L << retries) * baseDelay, maxBackoffTime);
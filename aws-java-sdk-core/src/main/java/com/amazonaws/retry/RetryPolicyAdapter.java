@@ -39,7 +39,12 @@ public class RetryPolicyAdapter implements com.amazonaws.retry.v2.RetryPolicy {
 
     @Override
     public long computeDelayBeforeNextRetry(RetryPolicyContext context) {
-        return legacyRetryPolicy.getBackoffStrategy().delayBeforeNextRetry(
+        RetryPolicy.BackoffStrategy backoffStrategy = legacyRetryPolicy.getBackoffStrategy();
+        // V2 compatible strategies get the whole context, including the previous backoff delay.
+        if (backoffStrategy instanceof V2CompatibleBackoffStrategy) {
+            return ((V2CompatibleBackoffStrategy) backoffStrategy).computeDelayBeforeNextRetry(context);
+        }
+        return backoffStrategy.delayBeforeNextRetry(
                 (AmazonWebServiceRequest) context.originalRequest(),
                 (AmazonClientException) context.exception(),
                 context.retriesAttempted());
@@ -32,17 +32,20 @@ public class RetryPolicyContext {
     private final SdkBaseException exception;
     private final int retriesAttempted;
     private final Integer httpStatusCode;
+    private final long previousBackoffDelay;
 
     private RetryPolicyContext(Object originalRequest,
                                Request<?> request,
                                SdkBaseException exception,
                                int retriesAttempted,
-                               Integer httpStatusCode) {
+                               Integer httpStatusCode,
+                               long previousBackoffDelay) {
         this.originalRequest = originalRequest;
         this.request = request;
         this.exception = exception;
         this.retriesAttempted = retriesAttempted;
         this.httpStatusCode = httpStatusCode;
+        this.previousBackoffDelay = previousBackoffDelay;
     }
 
     /**
@@ -88,6 +91,14 @@ public class RetryPolicyContext {
         return this.httpStatusCode;
     }
 
+    /**
+     * @return Delay in milliseconds that was waited before the previous attempt, or zero if the previous attempt was not
+     * delayed.
+     */
+    public long previousBackoffDelay() {
+        return this.previousBackoffDelay;
+    }
+
     @SdkInternalApi
     public static Builder builder() {
         return new Builder();
@@ -101,6 +112,7 @@ public class RetryPolicyContext {
         private SdkBaseException exception;
         private int retriesAttempted;
         private Integer httpStatusCode;
+        private long previousBackoffDelay;
 
         private Builder() {
         }
@@ -130,8 +142,14 @@ public class RetryPolicyContext {
             return this;
         }
 
+        public Builder previousBackoffDelay(long previousBackoffDelay) {
+            this.previousBackoffDelay = previousBackoffDelay;
+            return this;
+        }
+
         public RetryPolicyContext build() {
-            return new RetryPolicyContext(originalRequest, request, exception, retriesAttempted, httpStatusCode);
+            return new RetryPolicyContext(originalRequest, request, exception, retriesAttempted, httpStatusCode,
+                                          previousBackoffDelay);
         }
 
     }
@@ -27,7 +27,6 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Stack;
 
 public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
     /** The current JsonToken that the private JsonParser is currently pointing to. **/
@@ -41,7 +40,7 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
     private String currentHeader;
 
     /**
-     * A stack of JsonFieldTokenPair objects that indicates the current state of the context.
+     * A stack of field name and token pairs that indicates the current state of the context.
      * For example, if we have a JSON object:
      * {
      *   A :
@@ -57,8 +56,14 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
      * }
      * When the parser points to "D", the state of this stack should be (from top to bottom):
      *  [ (C, START_OBJECT), (B, START_ARRAY), (A, START_OBJECT) ]
+     *
+     * The pairs are kept in two parallel arrays rather than a {@link java.util.Stack} of pair
+     * objects, so that walking a large response neither allocates per object/array nor
+     * synchronizes on every push and pop.
      */
-    private final Stack<JsonFieldTokenPair> stack = new Stack<JsonFieldTokenPair>();
+    private String[] stackFields = new String[16];
+    private JsonToken[] stackTokens = new JsonToken[16];
+    private int stackSize;
 
     /**
      * The name of the field that is currently being parsed. This value is
@@ -121,7 +126,7 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
     @Override
     public int getCurrentDepth() {
-        int depth = stack.size();
+        int depth = stackSize;
         if (currentField != null) depth++;
         return depth;
     }
@@ -172,8 +177,8 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
             if (currentField != null) {
                 return currentField.equals(expression);
             } else {
-                return (!stack.isEmpty())
-                        && stack.peek().getField().equals(expression);
+                return stackSize > 0
+                        && stackFields[stackSize - 1].equals(expression);
             }
         }
     }
@@ -183,8 +188,8 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
         String parentElement;
         if (currentField != null) {
             parentElement = currentField;
-        } else if ( !stack.isEmpty() ) {
-            parentElement = stack.peek().getField();
+        } else if (stackSize > 0) {
+            parentElement = stackFields[stackSize - 1];
         } else {
             parentElement = "";
         }
@@ -259,15 +264,16 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
 
         if (currentToken == START_OBJECT || currentToken == START_ARRAY) {
             if (currentField != null) {
-                stack.push(new JsonFieldTokenPair(currentField, currentToken));
+                push(currentField, currentToken);
                 currentField = null;
             }
         } else if (currentToken == END_OBJECT || currentToken == END_ARRAY) {
-            if (!stack.isEmpty()) {
-                boolean squareBracketsMatch = currentToken == END_ARRAY && stack.peek().getToken() == START_ARRAY;
-                boolean curlyBracketsMatch = currentToken == END_OBJECT && stack.peek().getToken() == START_OBJECT;
+            if (stackSize > 0) {
+                JsonToken topToken = stackTokens[stackSize - 1];
+                boolean squareBracketsMatch = currentToken == END_ARRAY && topToken == START_ARRAY;
+                boolean curlyBracketsMatch = currentToken == END_OBJECT && topToken == START_OBJECT;
                 if (squareBracketsMatch || curlyBracketsMatch) {
-                    lastParsedParentElement = stack.pop().getField();
+                    lastParsedParentElement = pop();
                 }
             }
             currentField = null;
@@ -277,13 +283,35 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
         }
     }
 
+    private void push(String field, JsonToken token) {
+        if (stackSize == stackFields.length) {
+            String[] newFields = new String[stackSize * 2];
+            JsonToken[] newTokens = new JsonToken[stackSize * 2];
+            System.arraycopy(stackFields, 0, newFields, 0, stackSize);
+            System.arraycopy(stackTokens, 0, newTokens, 0, stackSize);
+            stackFields = newFields;
+            stackTokens = newTokens;
+        }
+        stackFields[stackSize] = field;
+        stackTokens[stackSize] = token;
+        stackSize++;
+    }
+
+    private String pop() {
+        stackSize--;
+        String field = stackFields[stackSize];
+        stackFields[stackSize] = null;
+        stackTokens[stackSize] = null;
+        return field;
+    }
+
     @Override
     public String toString() {
         StringBuilder stackString = new StringBuilder();
 
-        for (JsonFieldTokenPair jsonFieldTokenPair : stack) {
+        for (int i = 0; i < stackSize; i++) {
             stackString.append("/")
-                       .append(jsonFieldTokenPair.getField());
+                       .append(stackFields[i]);
         }
 
         if (currentField != null) {
@@ -298,37 +326,4 @@ public class JsonUnmarshallerContextImpl extends JsonUnmarshallerContext {
     public String getLastParsedParentElement() {
         return lastParsedParentElement;
     }
-
-    /**
-     * An immutable class used to indicate a JSON field value followed by a
-     * subsequent JSON token. This inner class should only be used by the
-     * private stack to indicate the current state of the context.
-     */
-    private static class JsonFieldTokenPair {
-        private final String field;
-        private final JsonToken jsonToken;
-
-        /**
-         * @param fieldString
-         *            Not null.
-         * @param token
-         *            Not null.
-         */
-        public JsonFieldTokenPair(String fieldString, JsonToken token) {
-            field = fieldString;
-            jsonToken = token;
-        }
-
-        public String getField() {
-            return field;
-        }
-
-        public JsonToken getToken() {
-            return jsonToken;
-        }
-
-        public String toString() {
-            return field + ": " + jsonToken.asString();
-        }
-    }
 }
@@ -41,7 +41,16 @@ public class StaxUnmarshallerContext {
     private final XMLEventReader eventReader;
 
     public final Stack<String> stack = new Stack<String>();
-    private String stackString = "";
+
+    /**
+     * Names of the elements enclosing the current position, used to match expressions without
+     * building path strings. The current attribute, if any, sits between the first
+     * {@code attributeDepth} elements and the rest of the path until the next end element.
+     */
+    private String[] elements = new String[16];
+    private int depth;
+    private String attributeName;
+    private int attributeDepth;
 
     private Map<String, String> metadata = new HashMap<String, String>();
     private List<MetadataExpression> metadataExpressions = new ArrayList<MetadataExpression>();
@@ -137,7 +146,7 @@ public class StaxUnmarshallerContext {
      *         document being parsed.
      */
     public int getCurrentDepth() {
-        return stack.size();
+        return depth;
     }
 
     /**
@@ -151,7 +160,7 @@ public class StaxUnmarshallerContext {
      */
     public boolean testExpression(String expression) {
         if (expression.equals(".")) return true;
-        return stackString.endsWith(expression);
+        return pathEndsWith(expression, false);
     }
 
     /**
@@ -171,17 +180,63 @@ public class StaxUnmarshallerContext {
     public boolean testExpression(String expression, int startingStackDepth) {
         if (expression.equals(".")) return true;
 
-        int index = -1;
-        while ((index = expression.indexOf("/", index + 1)) > -1) {
+        int index = expression.indexOf('/');
+        if (index < 0 && attributeName == null) {
+            // Fast path for the common case of matching the current element by name
+            return startingStackDepth == depth && depth > 0 && expression.equals(elements[depth - 1]);
+        }
+        while (index > -1) {
             // Don't consider attributes a new depth level
             if (expression.charAt(index + 1) != '@') {
                 startingStackDepth++;
             }
+            index = expression.indexOf('/', index + 1);
         }
 
-
         return (startingStackDepth == getCurrentDepth()
-                && stackString.endsWith("/" + expression));
+                && pathEndsWith(expression, true));
+    }
+
+    /**
+     * Returns true if the path of the current position, i.e. the names of the enclosing elements
+     * and the current attribute each preceded by a slash, ends with the given suffix. Compares
+     * the characters in place rather than building the path as a string.
+     *
+     * @param suffix
+     *            The suffix to test.
+     * @param leadingSlash
+     *            Whether the suffix is implicitly preceded by a slash.
+     */
+    private boolean pathEndsWith(String suffix, boolean leadingSlash) {
+        int offset = leadingSlash ? 1 : 0;
+        int position = suffix.length() + offset;
+        int segment = depth + (attributeName == null ? 0 : 1);
+        while (position > 0) {
+            if (--segment < 0) {
+                return false;
+            }
+            boolean isAttribute = attributeName != null && segment == attributeDepth;
+            String name = isAttribute ? attributeName
+                    : elements[attributeName != null && segment > attributeDepth ? segment - 1 : segment];
+
+            int i = name.length();
+            while (i > 0 && position > 0) {
+                if (name.charAt(--i) != charAt(suffix, --position, offset)) {
+                    return false;
+                }
+            }
+            if (position > 0 && isAttribute && charAt(suffix, --position, offset) != '@') {
+                return false;
+            }
+            if (position > 0 && charAt(suffix, --position, offset) != '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char charAt(String suffix, int position, int offset) {
+        return position < offset ? '/' : suffix.charAt(position - offset);
     }
 
     /**
@@ -285,20 +340,21 @@ public class StaxUnmarshallerContext {
 
         if (event.isEndElement()) {
             stack.pop();
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
+            elements[--depth] = null;
+            attributeName = null;
         } else if (event.isStartElement()) {
-            stack.push(event.asStartElement().getName().getLocalPart());
-            stackString += "/" + event.asStartElement().getName().getLocalPart();
+            String name = event.asStartElement().getName().getLocalPart();
+            stack.push(name);
+            if (depth == elements.length) {
+                String[] newElements = new String[depth * 2];
+                System.arraycopy(elements, 0, newElements, 0, depth);
+                elements = newElements;
+            }
+            elements[depth++] = name;
         } else if (event.isAttribute()) {
             Attribute attribute = (Attribute)event;
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
-            stackString += "/@" + attribute.getName().getLocalPart();
+            attributeName = attribute.getName().getLocalPart();
+            attributeDepth = depth;
         }
     }
 
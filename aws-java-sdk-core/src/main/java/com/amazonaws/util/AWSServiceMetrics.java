@@ -27,6 +27,25 @@ public enum AWSServiceMetrics implements ServiceMetricType {
      * Time taken to get a connection by the http client library.
      */
     HttpClientGetConnectionTime("HttpClient"),
+    /**
+     * Number of idle connections closed by a sweep of the idle connection
+     * reaper, summed over all the connection pools of the JVM.
+     */
+    HttpClientIdleConnectionsClosed("HttpClient"),
+    /**
+     * Number of connections left idle after a sweep of the idle connection
+     * reaper, summed over all the connection pools of the JVM.
+     */
+    HttpClientIdleConnectionCount("HttpClient"),
+    /**
+     * Number of AWS4 signing key lookups that found a key in the signer's
+     * cache.
+     */
+    SignerKeyCacheHitCount("AWS4Signer"),
+    /**
+     * Number of AWS4 signing key lookups that had to derive a new key.
+     */
+    SignerKeyCacheMissCount("AWS4Signer"),
     ;
 
     private final String serviceName;
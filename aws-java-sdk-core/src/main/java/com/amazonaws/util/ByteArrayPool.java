@@ -0,0 +1,204 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import com.amazonaws.SDKGlobalConfiguration;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A bounded pool of byte arrays for buffers that are only needed while a request or response is
+ * processed, such as those used to marshall request bodies and to read response entities.
+ * Recycling them keeps these short lived and often large allocations from churning the young
+ * generation.
+ * <p>
+ * Arrays are pooled in power of two size classes from {@value #MIN_ARRAY_SIZE} to
+ * {@value #MAX_ARRAY_SIZE} bytes, each class holding at most an equal share of the pool's
+ * capacity. Larger arrays are allocated on demand and never pooled. Arrays handed out are not
+ * cleared and may contain data of a previous use.
+ */
+@ThreadSafe
+@SdkInternalApi
+public final class ByteArrayPool {
+
+    private static final Log LOG = LogFactory.getLog(ByteArrayPool.class);
+
+    /**
+     * Size of the smallest pooled arrays; smaller requests are rounded up to it.
+     */
+    public static final int MIN_ARRAY_SIZE = 4 * 1024;
+
+    /**
+     * Size of the largest pooled arrays.
+     */
+    public static final int MAX_ARRAY_SIZE = 128 * 1024;
+
+    /**
+     * Default capacity of the shared pool, see
+     * {@link SDKGlobalConfiguration#BYTE_ARRAY_POOL_MAX_BYTES_SYSTEM_PROPERTY}.
+     */
+    public static final long DEFAULT_MAX_POOLED_BYTES = 2 * 1024 * 1024;
+
+    private static final int MIN_SIZE_SHIFT = Integer.numberOfTrailingZeros(MIN_ARRAY_SIZE);
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_ARRAY_SIZE) - MIN_SIZE_SHIFT + 1;
+
+    private static final ByteArrayPool DEFAULT = new ByteArrayPool(getDefaultMaxPooledBytes());
+
+    /**
+     * Free arrays by size class, null for classes that don't fit in the pool's share.
+     */
+    private final BlockingQueue<byte[]>[] freeArrays;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong discards = new AtomicLong();
+
+    /**
+     * @param maxPooledBytes
+     *            Maximum number of bytes held by free arrays in the pool. Zero disables pooling.
+     */
+    @SuppressWarnings("unchecked")
+    public ByteArrayPool(long maxPooledBytes) {
+        if (maxPooledBytes < 0) {
+            throw new IllegalArgumentException("maxPooledBytes must not be negative: " + maxPooledBytes);
+        }
+        this.freeArrays = new BlockingQueue[SIZE_CLASSES];
+        long bytesPerClass = maxPooledBytes / SIZE_CLASSES;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            long capacity = bytesPerClass / sizeOf(i);
+            if (capacity > 0) {
+                freeArrays[i] = new ArrayBlockingQueue<byte[]>((int) Math.min(capacity, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    /**
+     * @return The pool shared by the SDK.
+     */
+    public static ByteArrayPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns an array of at least the given size, taken from the pool if one is free. Arrays of
+     * poolable size should be given back with {@link #release(byte[])} once no longer used.
+     */
+    public byte[] acquire(int minSize) {
+        if (minSize > MAX_ARRAY_SIZE) {
+            misses.incrementAndGet();
+            return new byte[minSize];
+        }
+        int sizeClass = sizeClassOf(minSize);
+        BlockingQueue<byte[]> free = freeArrays[sizeClass];
+        byte[] array = free == null ? null : free.poll();
+        if (array != null) {
+            hits.incrementAndGet();
+            return array;
+        }
+        misses.incrementAndGet();
+        return new byte[sizeOf(sizeClass)];
+    }
+
+    /**
+     * Gives an array back to the pool. It must no longer be used by the caller. Arrays that weren't
+     * allocated by the pool, or don't fit in it, are left to the garbage collector.
+     */
+    public void release(byte[] array) {
+        int length = array.length;
+        if (length < MIN_ARRAY_SIZE || length > MAX_ARRAY_SIZE || Integer.bitCount(length) != 1) {
+            discards.incrementAndGet();
+            return;
+        }
+        BlockingQueue<byte[]> free = freeArrays[sizeClassOf(length)];
+        if (free == null || !free.offer(array)) {
+            discards.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of arrays handed out from the pool.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of arrays that had to be allocated because none was free.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of released arrays that were left to the garbage collector because the
+     *         pool was full or they weren't of a poolable size.
+     */
+    public long getDiscardCount() {
+        return discards.get();
+    }
+
+    /**
+     * @return The number of bytes currently held by free arrays in the pool.
+     */
+    public long getPooledBytes() {
+        long bytes = 0;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            if (freeArrays[i] != null) {
+                bytes += (long) freeArrays[i].size() * sizeOf(i);
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteArrayPool[pooledBytes=" + getPooledBytes()
+               + ", hits=" + getHitCount()
+               + ", misses=" + getMissCount()
+               + ", discards=" + getDiscardCount() + "]";
+    }
+
+    private static int sizeClassOf(int size) {
+        if (size <= MIN_ARRAY_SIZE) {
+            return 0;
+        }
+        // Index of the smallest power of two that is at least the given size
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SIZE_SHIFT;
+    }
+
+    private static int sizeOf(int sizeClass) {
+        return MIN_ARRAY_SIZE << sizeClass;
+    }
+
+    private static long getDefaultMaxPooledBytes() {
+        String maxBytes = System.getProperty(SDKGlobalConfiguration.BYTE_ARRAY_POOL_MAX_BYTES_SYSTEM_PROPERTY);
+        if (maxBytes != null) {
+            try {
+                long value = Long.parseLong(maxBytes.trim());
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default
+            }
+            LOG.warn("Ignoring invalid byte array pool size: " + maxBytes);
+        }
+        return DEFAULT_MAX_POOLED_BYTES;
+    }
+}
@@ -15,7 +15,6 @@
 package com.amazonaws.util;
 
 import com.amazonaws.internal.Releasable;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
@@ -37,16 +36,12 @@ public enum IOUtils {
      * Caller is responsible for closing the given input stream.
      */
     public static byte[] toByteArray(InputStream is) throws IOException {
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PooledByteArrayOutputStream output = new PooledByteArrayOutputStream(ByteArrayPool.getDefault());
         try {
-            byte[] b = new byte[BUFFER_SIZE];
-            int n = 0;
-            while ((n = is.read(b)) != -1) {
-                output.write(b, 0, n);
-            }
+            output.readFrom(is);
             return output.toByteArray();
         } finally {
-            output.close();
+            output.release();
         }
     }
 
@@ -109,14 +104,19 @@ public enum IOUtils {
      */
     public static long copy(InputStream in, OutputStream out)
             throws IOException {
-        byte[] buf = new byte[BUFFER_SIZE];
-        long count = 0;
-        int n = 0;
-        while ((n = in.read(buf)) > -1) {
-            out.write(buf, 0, n);
-            count += n;
+        ByteArrayPool pool = ByteArrayPool.getDefault();
+        byte[] buf = pool.acquire(BUFFER_SIZE);
+        try {
+            long count = 0;
+            int n = 0;
+            while ((n = in.read(buf)) > -1) {
+                out.write(buf, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            pool.release(buf);
         }
-        return count;
     }
 
     /**
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.internal.Releasable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A {@link java.io.ByteArrayOutputStream} alike whose buffer is taken from, and given back to, a
+ * {@link ByteArrayPool}. Closing the stream has no effect, so it can be handed to writers that
+ * close their target; the buffer is only given back to the pool by {@link #release()}, after
+ * which the stream can no longer be used.
+ */
+@NotThreadSafe
+@SdkInternalApi
+public class PooledByteArrayOutputStream extends OutputStream implements Releasable {
+
+    private final ByteArrayPool pool;
+    private byte[] buffer;
+    private int count;
+
+    public PooledByteArrayOutputStream(ByteArrayPool pool) {
+        this(pool, ByteArrayPool.MIN_ARRAY_SIZE);
+    }
+
+    /**
+     * @param pool
+     *            Pool to take the buffer from.
+     * @param initialSize
+     *            Minimum initial size of the buffer, which grows as needed.
+     */
+    public PooledByteArrayOutputStream(ByteArrayPool pool, int initialSize) {
+        this.pool = ValidationUtils.assertNotNull(pool, "pool");
+        this.buffer = pool.acquire(initialSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Reads the rest of the given stream straight into the buffer. The caller is responsible for
+     * closing the given stream.
+     *
+     * @return The number of bytes read.
+     */
+    public long readFrom(InputStream in) throws IOException {
+        long total = 0;
+        while (true) {
+            ensureCapacity(count + 1);
+            int n = in.read(buffer, count, buffer.length - count);
+            if (n == -1) {
+                return total;
+            }
+            count += n;
+            total += n;
+        }
+    }
+
+    /**
+     * @return A copy of the bytes written so far.
+     */
+    public byte[] toByteArray() {
+        checkNotReleased();
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * @return The number of bytes written so far.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discards the bytes written so far, keeping the buffer.
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * Has no effect; see {@link #release()}.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Gives the buffer back to the pool. Has no effect if already released.
+     */
+    @Override
+    public void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream has been released");
+        }
+        if (minCapacity < 0) {
+            throw new IOException("Stream exceeds the maximum array size");
+        }
+        if (minCapacity > buffer.length) {
+            byte[] grown = pool.acquire(Math.max(minCapacity, buffer.length << 1));
+            System.arraycopy(buffer, 0, grown, 0, count);
+            pool.release(buffer);
+            buffer = grown;
+        }
+    }
+
+    private void checkNotReleased() {
+        if (buffer == null) {
+            throw new IllegalStateException("Stream has been released");
+        }
+    }
+}
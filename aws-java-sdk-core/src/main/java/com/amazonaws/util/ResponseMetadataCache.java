@@ -14,20 +14,33 @@
  */
 package com.amazonaws.util;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.amazonaws.ResponseMetadata;
 import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.annotation.SdkTestInternalApi;
+import com.amazonaws.annotation.ThreadSafe;
 
 /**
  * Cache of response metadata for recently executed requests for diagnostic
  * purposes. This cache has a max size and as entries are added, the oldest
  * entry is aged out once the max size has been reached.
+ * <p>
+ * Entries are kept in a ring buffer so adding one, which happens for every
+ * successful response, is lock free and constant time. Each entry records
+ * the sequence number it was added with, and only replaces an entry with a
+ * lower one, so a writer that was delayed between taking its sequence number
+ * and storing its entry never overwrites a newer entry. Looking up the
+ * metadata of a request scans the buffer from the newest entry, which is
+ * fine for a small diagnostic cache. Requests are only weakly referenced.
  */
+@ThreadSafe
 @SdkInternalApi
 public class ResponseMetadataCache implements MetadataCache {
-    private final InternalCache internalCache;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong nextIndex = new AtomicLong();
 
     /**
      * Creates a new cache that will contain, at most the specified number of
@@ -37,41 +50,58 @@ public class ResponseMetadataCache implements MetadataCache {
      *            The maximum size of this cache.
      */
     public ResponseMetadataCache(int maxEntries) {
-        internalCache = new InternalCache(maxEntries);
+        entries = new AtomicReferenceArray<Entry>(Math.max(maxEntries, 0));
     }
 
     @Override
-    public synchronized void add(Object obj, ResponseMetadata metadata) {
-        if (obj == null) return;
-        internalCache.put(System.identityHashCode(obj), metadata);
+    public void add(Object obj, ResponseMetadata metadata) {
+        if (obj == null || entries.length() == 0) return;
+        add(nextIndex.getAndIncrement(), obj, metadata);
+    }
+
+    /**
+     * Stores the entry with the given sequence number in its slot, unless the
+     * slot already holds an entry with a higher one.
+     */
+    @SdkTestInternalApi
+    void add(long index, Object obj, ResponseMetadata metadata) {
+        int slot = (int) (index % entries.length());
+        Entry entry = new Entry(obj, metadata, index);
+        Entry current;
+        do {
+            current = entries.get(slot);
+            if (current != null && current.index > index) {
+                return;
+            }
+        } while (!entries.compareAndSet(slot, current, entry));
     }
 
     @Override
-    public synchronized ResponseMetadata get(Object obj) {
-        // System.identityHashCode isn't guaranteed to be unique
-        // on all platforms, but should be reasonable enough to use
-        // for a few requests at a time.  We can always easily move
-        // to our own unique IDs if needed.
-        return internalCache.get(System.identityHashCode(obj));
+    public ResponseMetadata get(Object obj) {
+        if (obj == null) return null;
+        long newest = nextIndex.get() - 1;
+        long oldest = Math.max(0, newest - entries.length() + 1);
+        for (long index = newest; index >= oldest; index--) {
+            Entry entry = entries.get((int) (index % entries.length()));
+            if (entry != null && entry.index >= oldest && entry.get() == obj) {
+                return entry.metadata;
+            }
+        }
+        return null;
     }
 
     /**
-     * Simple implementation of LinkedHashMap that overrides the
-     * <code>removeEldestEntry</code> method to turn LinkedHashMap into a
-     * FIFO cache that automatically evicts old entries.
+     * Metadata of a request, which is only weakly referenced so the cache
+     * doesn't keep requests reachable.
      */
-    private static final class InternalCache extends LinkedHashMap<Integer, ResponseMetadata> {
-        private static final long serialVersionUID = 1L;
-        private int maxSize;
-
-        InternalCache(int maxSize) {
-            super(maxSize);
-            this.maxSize = maxSize;
-        }
+    private static final class Entry extends WeakReference<Object> {
+        private final ResponseMetadata metadata;
+        private final long index;
 
-        @Override
-        protected boolean removeEldestEntry(Entry<Integer,ResponseMetadata> eldest) {
-            return size() > maxSize;
+        private Entry(Object obj, ResponseMetadata metadata, long index) {
+            super(obj);
+            this.metadata = metadata;
+            this.index = index;
         }
     }
 }
@@ -17,13 +17,10 @@ package com.amazonaws.util;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.amazonaws.SignableRequest;
 import com.amazonaws.http.HttpMethodName;
@@ -32,32 +29,35 @@ public class SdkHttpUtils {
 
     private static final String DEFAULT_ENCODING = "UTF-8";
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
-     * Regex which matches any of the sequences that we need to fix up after
-     * URLEncoder.encode().
+     * Characters left as is by {@link #urlEncode(String, boolean)}: the unreserved characters of
+     * RFC 3986.
      */
-    private static final Pattern ENCODED_CHARACTERS_PATTERN;
+    private static final boolean[] UNRESERVED = new boolean[128];
     static {
-        StringBuilder pattern = new StringBuilder();
-
-        pattern
-            .append(Pattern.quote("+"))
-            .append("|")
-            .append(Pattern.quote("*"))
-            .append("|")
-            .append(Pattern.quote("%7E"))
-            .append("|")
-            .append(Pattern.quote("%2F"));
-
-        ENCODED_CHARACTERS_PATTERN = Pattern.compile(pattern.toString());
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['~'] = true;
     }
 
     /**
-     * Encode a string for use in the path of a URL; uses URLEncoder.encode,
-     * (which encodes a string for use in the query portion of a URL), then
-     * applies some postfilters to fix things up per the RFC. Can optionally
-     * handle strings which are meant to encode a path (ie include '/'es
-     * which should NOT be escaped).
+     * Encode a string for use in the path of a URL, percent-encoding the UTF-8 bytes of all but
+     * the unreserved characters of RFC 3986. This is what URLEncoder.encode (which encodes a
+     * string for use in the query portion of a URL) does once spaces, '*' and '~' are fixed up per
+     * the RFC, in a single pass. Can optionally handle strings which are meant to encode a path
+     * (ie include '/'es which should NOT be escaped).
      *
      * @param value the value to encode
      * @param path true if the value is intended to represent a path
@@ -68,34 +68,46 @@ public class SdkHttpUtils {
             return "";
         }
 
-        try {
-            String encoded = URLEncoder.encode(value, DEFAULT_ENCODING);
-
-            Matcher matcher = ENCODED_CHARACTERS_PATTERN.matcher(encoded);
-            StringBuffer buffer = new StringBuffer(encoded.length());
-
-            while (matcher.find()) {
-                String replacement = matcher.group(0);
-
-                if ("+".equals(replacement)) {
-                    replacement = "%20";
-                } else if ("*".equals(replacement)) {
-                    replacement = "%2A";
-                } else if ("%7E".equals(replacement)) {
-                    replacement = "~";
-                } else if (path && "%2F".equals(replacement)) {
-                    replacement = "/";
-                }
+        final int length = value.length();
+        int i = 0;
+        while (i < length && isLeftUnencoded(value.charAt(i), path)) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
 
-                matcher.appendReplacement(buffer, replacement);
+        final StringBuilder buffer = new StringBuilder(length + 16);
+        buffer.append(value, 0, i);
+        while (i < length) {
+            char ch = value.charAt(i);
+            if (isLeftUnencoded(ch, path)) {
+                buffer.append(ch);
+                i++;
+            } else if (ch < 0x80) {
+                appendEncodedByte(buffer, ch);
+                i++;
+            } else {
+                // Encode the whole run of non-ASCII characters at once so surrogate pairs stay together
+                int end = i + 1;
+                while (end < length && value.charAt(end) >= 0x80) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StringUtils.UTF8)) {
+                    appendEncodedByte(buffer, b);
+                }
+                i = end;
             }
+        }
+        return buffer.toString();
+    }
 
-            matcher.appendTail(buffer);
-            return buffer.toString();
+    private static boolean isLeftUnencoded(char ch, boolean path) {
+        return ch < 0x80 && (UNRESERVED[ch] || (path && ch == '/'));
+    }
 
-        } catch (UnsupportedEncodingException ex) {
-            throw new RuntimeException(ex);
-        }
+    private static void appendEncodedByte(StringBuilder buffer, int b) {
+        buffer.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
     }
 
     /**
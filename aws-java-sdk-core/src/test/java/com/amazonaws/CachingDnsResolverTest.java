@@ -0,0 +1,221 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.auth.SdkClock;
+
+public class CachingDnsResolverTest {
+
+    private static final String HOST = "bucket.s3.amazonaws.com";
+
+    private final InetAddress a = address(1);
+    private final InetAddress b = address(2);
+    private final InetAddress c = address(3);
+
+    private StubResolver delegate;
+    private MutableClock clock;
+    private QueuedExecutor refreshExecutor;
+    private CachingDnsResolver resolver;
+
+    @Before
+    public void setup() {
+        delegate = new StubResolver();
+        delegate.addresses = new InetAddress[] {a, b, c};
+        clock = new MutableClock();
+        refreshExecutor = new QueuedExecutor();
+        resolver = new CachingDnsResolver(delegate, 30, 10, TimeUnit.SECONDS, 3, refreshExecutor, clock);
+    }
+
+    @Test
+    public void resolve_CachesAddressesUntilTtlExpires() throws Exception {
+        resolver.resolve(HOST);
+        clock.time += 19999;
+        resolver.resolve(HOST);
+        assertEquals(1, delegate.lookups);
+
+        clock.time += 10001;
+        resolver.resolve(HOST);
+        assertEquals(2, delegate.lookups);
+    }
+
+    @Test
+    public void resolve_RotatesAddresses() throws Exception {
+        assertArrayEquals(new InetAddress[] {a, b, c}, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] {b, c, a}, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] {c, a, b}, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] {a, b, c}, resolver.resolve(HOST));
+    }
+
+    @Test
+    public void resolve_RefreshesInBackgroundBeforeExpiry() throws Exception {
+        resolver.resolve(HOST);
+        clock.time += 25000;
+        delegate.addresses = new InetAddress[] {c};
+
+        assertArrayEquals(new InetAddress[] {b, c, a}, resolver.resolve(HOST));
+        resolver.resolve(HOST);
+        assertEquals("Only one refresh should be scheduled", 1, refreshExecutor.tasks.size());
+        assertEquals(1, delegate.lookups);
+
+        refreshExecutor.runAll();
+        assertEquals(2, delegate.lookups);
+        assertArrayEquals(new InetAddress[] {c}, resolver.resolve(HOST));
+    }
+
+    @Test
+    public void resolve_FailedRefreshKeepsCachedAddresses() throws Exception {
+        resolver.resolve(HOST);
+        clock.time += 25000;
+        delegate.addresses = null;
+        resolver.resolve(HOST);
+        refreshExecutor.runAll();
+
+        assertEquals(3, resolver.resolve(HOST).length);
+    }
+
+    @Test
+    public void reportFailure_DropsAddressUntilNextLookup() throws Exception {
+        resolver.resolve(HOST);
+        resolver.reportFailure(HOST, b);
+
+        assertArrayEquals(new InetAddress[] {c, a}, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] {c, a}, resolver.resolve(HOST));
+        assertArrayEquals(new InetAddress[] {a, c}, resolver.resolve(HOST));
+
+        clock.time += 30000;
+        assertEquals(3, resolver.resolve(HOST).length);
+    }
+
+    @Test
+    public void reportFailure_AllAddressesFailed_ReturnsAllAddresses() throws Exception {
+        resolver.resolve(HOST);
+        resolver.reportFailure(HOST, a);
+        resolver.reportFailure(HOST, b);
+        resolver.reportFailure(HOST, c);
+
+        assertEquals(3, resolver.resolve(HOST).length);
+    }
+
+    @Test
+    public void resolve_UnknownHost_IsNotCached() throws Exception {
+        delegate.addresses = null;
+        try {
+            resolver.resolve(HOST);
+            fail("Expected UnknownHostException");
+        } catch (UnknownHostException expected) {
+        }
+        delegate.addresses = new InetAddress[] {a};
+        assertArrayEquals(new InetAddress[] {a}, resolver.resolve(HOST));
+    }
+
+    @Test
+    public void resolve_MoreHostsThanMax_EvictsLeastRecentlyResolvedHost() throws Exception {
+        resolver.resolve("host1");
+        resolver.resolve("host2");
+        resolver.resolve("host3");
+        resolver.resolve("host1");
+        resolver.resolve("host4");
+        assertEquals(3, resolver.getCachedHostCount());
+        assertEquals(4, delegate.lookups);
+
+        resolver.resolve("host1");
+        resolver.resolve("host3");
+        resolver.resolve("host4");
+        assertEquals(4, delegate.lookups);
+        resolver.resolve("host2");
+        assertEquals(5, delegate.lookups);
+    }
+
+    @Test
+    public void resolve_AfterTtl_SweepsExpiredHosts() throws Exception {
+        resolver.resolve("host1");
+        resolver.resolve("host2");
+        clock.time += 30000;
+        resolver.resolve("host3");
+
+        assertEquals(1, resolver.getCachedHostCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refreshAheadNotLessThanTtl_ThrowsException() {
+        new CachingDnsResolver(delegate, 10, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void resolveLocalhost() throws Exception {
+        assertEquals(1, new CachingDnsResolver().resolve("127.0.0.1").length);
+    }
+
+    private static InetAddress address(int lastOctet) {
+        try {
+            return InetAddress.getByAddress(new byte[] {10, 0, 0, (byte) lastOctet});
+        } catch (UnknownHostException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class StubResolver implements DnsResolver {
+        private InetAddress[] addresses;
+        private int lookups;
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            lookups++;
+            if (addresses == null) {
+                throw new UnknownHostException(host);
+            }
+            return addresses.clone();
+        }
+    }
+
+    private static class MutableClock implements SdkClock {
+        private long time = 1000000;
+
+        @Override
+        public long currentTimeMillis() {
+            return time;
+        }
+    }
+
+    private static class QueuedExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        private void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
@@ -279,6 +279,8 @@ public class ClientConfigurationTest {
                 field.set(customConfig, new SecureRandom());
             } else if (field.getName().equals("headers")) {
                 field.set(customConfig, ImmutableMapParameter.of("foo", "bar"));
+            } else if (field.getName().equals("maxConnectionsPerHost")) {
+                field.set(customConfig, ImmutableMapParameter.of("foo", 1));
             } else if (clzz.isAssignableFrom(ApacheHttpClientConfig.class)) {
                 customConfig.getApacheHttpClientConfig()
                             .setSslSocketFactory(Mockito.mock(ConnectionSocketFactory.class));
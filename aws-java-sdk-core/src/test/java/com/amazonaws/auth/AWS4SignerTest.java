@@ -28,6 +28,7 @@ import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -250,6 +251,80 @@ public class AWS4SignerTest {
                 request.getHeaders().get("Authorization"));
     }
 
+    /**
+     * The signature MAC is kept keyed across requests, so it must be re-keyed whenever the signing
+     * key changes.
+     */
+    @Test
+    public void signingWithAlternatingCredentials_UsesEachSigningKey() throws Exception {
+        final String EXPECTED_AUTHORIZATION_HEADER =
+            "AWS4-HMAC-SHA256 Credential=access/19810216/us-east-1/demo/aws4_request, SignedHeaders=host;x-amz-archive-description;x-amz-date, Signature=77fe7c02927966018667f21d1dc3dfad9057e58401cbb9ed64f1b7868288e35a";
+
+        Calendar c = new GregorianCalendar();
+        c.set(1981, 1, 16, 6, 30, 0);
+        c.setTimeZone(TimeZone.getTimeZone("UTC"));
+        signer.setOverrideDate(c.getTime());
+        signer.setServiceName("demo");
+
+        String otherAuthorization = null;
+        for (int i = 0; i < 3; i++) {
+            SignableRequest<?> request = generateBasicRequest();
+            signer.sign(request, new BasicAWSCredentials("access", "secret"));
+            assertEquals(EXPECTED_AUTHORIZATION_HEADER, request.getHeaders().get("Authorization"));
+
+            SignableRequest<?> other = generateBasicRequest();
+            signer.sign(other, new BasicAWSCredentials("access", "other"));
+            assertFalse(EXPECTED_AUTHORIZATION_HEADER.equals(other.getHeaders().get("Authorization")));
+            if (otherAuthorization != null) {
+                assertEquals(otherAuthorization, other.getHeaders().get("Authorization"));
+            }
+            otherAuthorization = other.getHeaders().get("Authorization");
+        }
+    }
+
+    @Test
+    public void canonicalRequest_HeadersSortedCaseInsensitively() {
+        SignableRequest<?> request = MockRequestBuilder.create()
+                .withHeader("Host", "demo.us-east-1.amazonaws.com")
+                .withHeader("X-Amz-B", "b")
+                .withHeader("x-amz-a", "  a   a ")
+                .withHeader("Connection", "keep-alive")
+                .withPath("/")
+                .withEndpoint("http://demo.us-east-1.amazonaws.com").build();
+
+        String canonicalRequest = signer.createCanonicalRequest(request, "hash");
+
+        assertEquals("POST\n/\n\nhost:demo.us-east-1.amazonaws.com\nx-amz-a: a a \nx-amz-b:b\n\n"
+                     + "host;x-amz-a;x-amz-b\nhash", canonicalRequest);
+        assertEquals("host:demo.us-east-1.amazonaws.com\nx-amz-a: a a \nx-amz-b:b\n",
+                     signer.getCanonicalizedHeaderString(request));
+        assertEquals("host;x-amz-a;x-amz-b", signer.getSignedHeadersString(request));
+    }
+
+    @Test
+    public void canonicalRequest_UsesOverriddenHeaderMethods() {
+        AWS4Signer customSigner = new AWS4Signer() {
+            @Override
+            protected String getCanonicalizedHeaderString(SignableRequest<?> request) {
+                return "host:" + request.getHeaders().get("Host") + "\n";
+            }
+
+            @Override
+            protected String getSignedHeadersString(SignableRequest<?> request) {
+                return "host";
+            }
+        };
+        customSigner.setServiceName("demo");
+        customSigner.setRegionName("us-east-1");
+        SignableRequest<?> request = generateBasicRequest();
+
+        String canonicalRequest = customSigner.createCanonicalRequest(request, "hash");
+        assertEquals("POST\n/\n\nhost:demo.us-east-1.amazonaws.com\n\nhost\nhash", canonicalRequest);
+
+        customSigner.sign(request, new BasicAWSCredentials("access", "secret"));
+        assertTrue(request.getHeaders().get("Authorization").contains("SignedHeaders=host,"));
+    }
+
     private SignableRequest<?> generateBasicRequest() {
         return MockRequestBuilder.create()
                 .withContent(new ByteArrayInputStream("{\"TableName\": \"foo\"}".getBytes()))
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.auth.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.ByteThroughputProvider;
+import com.amazonaws.metrics.MetricCollector;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.metrics.ServiceMetricCollector;
+import com.amazonaws.metrics.ServiceMetricType;
+import com.amazonaws.util.AWSServiceMetrics;
+
+public class SignerKeyCacheTest {
+
+    private static final long TODAY = 17000L;
+
+    @Test
+    public void cachedKeyIsReturnedForSameDay() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {1, 2, 3}));
+
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get("secret", "us-east-1", "s3", TODAY).getSigningKey());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void keyFromPreviousDayIsAMiss() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY - 1, new byte[] {1}));
+
+        assertNull(cache.get("secret", "us-east-1", "s3", TODAY));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {2}));
+        assertEquals(1, cache.size());
+        assertArrayEquals(new byte[] {2}, cache.get("secret", "us-east-1", "s3", TODAY).getSigningKey());
+    }
+
+    @Test
+    public void keysAreDistinctPerSecretRegionAndService() {
+        SignerKeyCache cache = new SignerKeyCache(10);
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {1}));
+        cache.add("secret", "us-west-2", "s3", new SignerKey(TODAY, new byte[] {2}));
+        cache.add("secret", "us-east-1", "sqs", new SignerKey(TODAY, new byte[] {3}));
+        cache.add("other", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {4}));
+
+        assertEquals(4, cache.size());
+        assertArrayEquals(new byte[] {1}, cache.get("secret", "us-east-1", "s3", TODAY).getSigningKey());
+        assertArrayEquals(new byte[] {2}, cache.get("secret", "us-west-2", "s3", TODAY).getSigningKey());
+        assertArrayEquals(new byte[] {3}, cache.get("secret", "us-east-1", "sqs", TODAY).getSigningKey());
+        assertArrayEquals(new byte[] {4}, cache.get("other", "us-east-1", "s3", TODAY).getSigningKey());
+    }
+
+    @Test
+    public void fullCacheEvictsEarliestAddedKeyFirst() {
+        SignerKeyCache cache = new SignerKeyCache(2);
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {1}));
+        cache.add("secret", "us-west-2", "s3", new SignerKey(TODAY, new byte[] {2}));
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {3}));
+        cache.add("secret", "eu-west-1", "s3", new SignerKey(TODAY, new byte[] {4}));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("secret", "us-east-1", "s3", TODAY));
+        assertNotNull(cache.get("secret", "us-west-2", "s3", TODAY));
+        assertNotNull(cache.get("secret", "eu-west-1", "s3", TODAY));
+    }
+
+    @Test
+    public void fullCacheNeverEvictsTheKeyJustAdded() {
+        SignerKeyCache cache = new SignerKeyCache(3);
+        for (int i = 0; i < 100; i++) {
+            cache.add("secret", "region-" + i, "s3", new SignerKey(TODAY, new byte[] {(byte) i}));
+            assertNotNull(cache.get("secret", "region-" + i, "s3", TODAY));
+            assertEquals(Math.min(i + 1, 3), cache.size());
+        }
+        assertNotNull(cache.get("secret", "region-97", "s3", TODAY));
+        assertNotNull(cache.get("secret", "region-98", "s3", TODAY));
+        assertNull(cache.get("secret", "region-96", "s3", TODAY));
+    }
+
+    @Test
+    public void fullCacheStaysWithinMaxSize() {
+        SignerKeyCache cache = new SignerKeyCache(1);
+        cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {1}));
+        cache.add("secret", "us-west-2", "s3", new SignerKey(TODAY, new byte[] {2}));
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSizeIsRejected() {
+        new SignerKeyCache(0);
+    }
+
+    @Test
+    public void hitsAndMissesAreReportedToServiceMetricCollector() {
+        final Map<ServiceMetricType, Long> counts = new HashMap<ServiceMetricType, Long>();
+        AwsSdkMetrics.setMetricCollector(new TestMetricCollector(new ServiceMetricCollector() {
+            @Override public void collectByteThroughput(ByteThroughputProvider provider) {}
+            @Override public void collectLatency(ServiceLatencyProvider provider) {}
+            @Override public void collectCount(ServiceMetricType type, long count) {
+                Long total = counts.get(type);
+                counts.put(type, total == null ? count : total + count);
+            }
+        }));
+        try {
+            SignerKeyCache cache = new SignerKeyCache(3);
+            cache.get("secret", "us-east-1", "s3", TODAY);
+            cache.add("secret", "us-east-1", "s3", new SignerKey(TODAY, new byte[] {1}));
+            cache.get("secret", "us-east-1", "s3", TODAY);
+            cache.get("secret", "us-east-1", "s3", TODAY);
+        } finally {
+            AwsSdkMetrics.setMetricCollector(null);
+        }
+
+        assertEquals(Long.valueOf(2), counts.get(AWSServiceMetrics.SignerKeyCacheHitCount));
+        assertEquals(Long.valueOf(1), counts.get(AWSServiceMetrics.SignerKeyCacheMissCount));
+    }
+
+    private static class TestMetricCollector extends MetricCollector {
+        private final ServiceMetricCollector serviceMetricCollector;
+
+        TestMetricCollector(ServiceMetricCollector serviceMetricCollector) {
+            this.serviceMetricCollector = serviceMetricCollector;
+        }
+
+        @Override public boolean start() { return true; }
+        @Override public boolean stop() { return true; }
+        @Override public boolean isEnabled() { return true; }
+        @Override public RequestMetricCollector getRequestMetricCollector() { return RequestMetricCollector.NONE; }
+        @Override public ServiceMetricCollector getServiceMetricCollector() { return serviceMetricCollector; }
+    }
+}
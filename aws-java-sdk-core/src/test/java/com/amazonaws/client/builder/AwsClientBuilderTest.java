@@ -50,6 +50,7 @@ import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -283,6 +284,14 @@ public class AwsClientBuilderTest {
         assertEquals(maxConns, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
     }
 
+    @Test
+    public void noExplicitExecutor_DefaultExecutorReleasesIdleThreads() {
+        ExecutorService executor = builderWithRegion().build().getAsyncParams().getExecutor();
+        assertThat(executor, instanceOf(ThreadPoolExecutor.class));
+        assertTrue(((ThreadPoolExecutor) executor).allowsCoreThreadTimeOut());
+        assertEquals(0, ((ThreadPoolExecutor) executor).getPoolSize());
+    }
+
     /**
      * If a custom executor is set then the Max Connections in Client Configuration should be
      * ignored and the executor should be used as is.
@@ -34,6 +34,7 @@ import com.amazonaws.handlers.HandlerContextKey;
 import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
 import com.amazonaws.http.apache.request.impl.ApacheHttpRequestFactory;
+import com.amazonaws.http.client.HttpClientFactory;
 import com.amazonaws.http.request.HttpRequestFactory;
 import com.amazonaws.http.settings.HttpClientSettings;
 import org.apache.http.ProtocolVersion;
@@ -435,6 +436,34 @@ public class AmazonHttpClientTest {
         EasyMock.replay(mockHandler);
     }
 
+    @Test
+    public void testCustomHttpClientFactoryIsUsedToExecuteRequests() throws IOException {
+        EasyMock.reset(httpClient);
+        EasyMock.expect(httpClient.execute(EasyMock.<HttpUriRequest>anyObject(), EasyMock.<HttpContext>anyObject()))
+                .andReturn(createBasicHttpResponse())
+                .once();
+        EasyMock.replay(httpClient);
+
+        final Capture<HttpClientSettings> capturedSettings = new Capture<HttpClientSettings>();
+        HttpClientFactory<ConnectionManagerAwareHttpClient> factory =
+                EasyMock.createMock(HttpClientFactory.class);
+        EasyMock.expect(factory.create(EasyMock.capture(capturedSettings))).andReturn(httpClient).once();
+        EasyMock.replay(factory);
+
+        AmazonHttpClient customClient = AmazonHttpClient.builder()
+                .clientConfiguration(new ClientConfiguration().withMaxConnections(7))
+                .httpClientFactory(factory)
+                .build();
+
+        Request<?> request = new DefaultRequest<Object>(SERVER_NAME);
+        request.setEndpoint(java.net.URI.create(URI_NAME));
+
+        customClient.requestExecutionBuilder().request(request).execute();
+
+        EasyMock.verify(factory, httpClient);
+        assertEquals(7, capturedSettings.getValue().getMaxConnections());
+    }
+
     @Test
     public void testHandlerCallbacksOnFirstAttemptSuccess() throws IOException {
         EasyMock.reset(httpClient);
@@ -29,18 +29,37 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.ClientConnectionRequest;
 import org.apache.http.conn.ManagedClientConnection;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.amazonaws.SDKGlobalConfiguration;
+import com.amazonaws.http.conn.LeaseWaitHistogram;
+import com.amazonaws.http.conn.SdkPoolingHttpClientConnectionManager;
+import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.ByteThroughputProvider;
+import com.amazonaws.metrics.MetricCollector;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.metrics.ServiceMetricCollector;
+import com.amazonaws.metrics.ServiceMetricType;
+import com.amazonaws.util.AWSServiceMetrics;
+
 public class IdleConnectionReaperTest {
     @Before
     public void init() {
@@ -85,6 +104,103 @@ public class IdleConnectionReaperTest {
         verify(connectionManager, timeout(90 * 1000)).closeIdleConnections(eq(idleTime), eq(TimeUnit.MILLISECONDS));
 
     }
+
+    @Test
+    public void sweep_ReportsClosedAndIdleCountsSummedOverPools() throws Exception {
+        HttpClientConnectionManager connectionManager = mock(HttpClientConnectionManager.class,
+                                                             withSettings().extraInterfaces(ConnPoolControl.class));
+        when(((ConnPoolControl<?>) connectionManager).getTotalStats())
+                .thenReturn(new PoolStats(1, 0, 5, 10), new PoolStats(1, 0, 2, 10));
+        HttpClientConnectionManager otherConnectionManager = mock(HttpClientConnectionManager.class,
+                                                                  withSettings().extraInterfaces(ConnPoolControl.class));
+        when(((ConnPoolControl<?>) otherConnectionManager).getTotalStats())
+                .thenReturn(new PoolStats(0, 0, 4, 10), new PoolStats(0, 0, 3, 10));
+        final Map<ServiceMetricType, Long> counts = new HashMap<ServiceMetricType, Long>();
+        final AtomicInteger dataPoints = new AtomicInteger();
+        AwsSdkMetrics.setMetricCollector(new TestMetricCollector(new ServiceMetricCollector() {
+            @Override public void collectByteThroughput(ByteThroughputProvider provider) {}
+            @Override public void collectLatency(ServiceLatencyProvider provider) {}
+            @Override public void collectCount(ServiceMetricType type, long count) {
+                counts.put(type, count);
+                dataPoints.incrementAndGet();
+            }
+        }));
+        try {
+            IdleConnectionReaper.registerConnectionManager(connectionManager, 1000);
+            IdleConnectionReaper.registerConnectionManager(otherConnectionManager, 2000);
+            IdleConnectionReaper.sweep();
+        } finally {
+            AwsSdkMetrics.setMetricCollector(null);
+        }
+
+        verify(connectionManager).closeIdleConnections(1000, TimeUnit.MILLISECONDS);
+        verify(otherConnectionManager).closeIdleConnections(2000, TimeUnit.MILLISECONDS);
+        assertEquals(2, dataPoints.get());
+        assertEquals(Long.valueOf(4), counts.get(AWSServiceMetrics.HttpClientIdleConnectionsClosed));
+        assertEquals(Long.valueOf(5), counts.get(AWSServiceMetrics.HttpClientIdleConnectionCount));
+    }
+
+    @Test
+    public void sweep_ReportsLeaseWaitsSinceLastSweep() throws Exception {
+        LeaseWaitHistogram histogram = new LeaseWaitHistogram();
+        histogram.record(0);
+        histogram.record(3);
+        histogram.record(3);
+        SdkPoolingHttpClientConnectionManager connectionManager = mock(SdkPoolingHttpClientConnectionManager.class);
+        when(connectionManager.getTotalStats()).thenReturn(new PoolStats(0, 0, 0, 10));
+        when(connectionManager.getLeaseWaitHistogram()).thenReturn(histogram);
+        final Map<ServiceMetricType, Long> counts = new HashMap<ServiceMetricType, Long>();
+        AwsSdkMetrics.setMetricCollector(new TestMetricCollector(new ServiceMetricCollector() {
+            @Override public void collectByteThroughput(ByteThroughputProvider provider) {}
+            @Override public void collectLatency(ServiceLatencyProvider provider) {}
+            @Override public void collectCount(ServiceMetricType type, long count) {
+                counts.put(type, count);
+            }
+        }));
+        try {
+            IdleConnectionReaper.registerConnectionManager(connectionManager, 1000);
+            IdleConnectionReaper.sweep();
+            assertEquals(Long.valueOf(1), counts.get(LeaseWaitHistogram.getMetricTypes().get(0)));
+            assertEquals(Long.valueOf(2), counts.get(LeaseWaitHistogram.getMetricTypes().get(3)));
+
+            counts.clear();
+            histogram.record(3);
+            IdleConnectionReaper.sweep();
+            assertFalse(counts.containsKey(LeaseWaitHistogram.getMetricTypes().get(0)));
+            assertEquals(Long.valueOf(1), counts.get(LeaseWaitHistogram.getMetricTypes().get(3)));
+        } finally {
+            AwsSdkMetrics.setMetricCollector(null);
+        }
+    }
+
+    @Test
+    public void period_ConfigurableThroughSystemProperty() throws Exception {
+        System.setProperty(SDKGlobalConfiguration.IDLE_CONNECTION_REAPER_PERIOD_SYSTEM_PROPERTY, "100");
+        try {
+            HttpClientConnectionManager connectionManager = mock(HttpClientConnectionManager.class);
+            IdleConnectionReaper.registerConnectionManager(connectionManager, 1000);
+            verify(connectionManager, timeout(5 * 1000).atLeast(2))
+                    .closeIdleConnections(eq(1000L), eq(TimeUnit.MILLISECONDS));
+        } finally {
+            System.clearProperty(SDKGlobalConfiguration.IDLE_CONNECTION_REAPER_PERIOD_SYSTEM_PROPERTY);
+            IdleConnectionReaper.shutdown();
+        }
+    }
+
+    private static class TestMetricCollector extends MetricCollector {
+        private final ServiceMetricCollector serviceMetricCollector;
+
+        TestMetricCollector(ServiceMetricCollector serviceMetricCollector) {
+            this.serviceMetricCollector = serviceMetricCollector;
+        }
+
+        @Override public boolean start() { return true; }
+        @Override public boolean stop() { return true; }
+        @Override public boolean isEnabled() { return true; }
+        @Override public RequestMetricCollector getRequestMetricCollector() { return RequestMetricCollector.NONE; }
+        @Override public ServiceMetricCollector getServiceMetricCollector() { return serviceMetricCollector; }
+    }
+
     private static class TestClientConnectionManager implements HttpClientConnectionManager {
         @Override
         public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.event.ProgressEvent;
+import com.amazonaws.event.ProgressEventType;
+import com.amazonaws.event.ProgressInputStream;
+import com.amazonaws.event.SyncProgressListener;
+import com.amazonaws.internal.ByteBufferInputStream;
+
+public class RepeatableInputStreamRequestEntityTest {
+
+    private static final byte[] CONTENT = "request content".getBytes();
+
+    @Test
+    public void positionedContent_IsWrittenInOneCallAndRepeatable() throws IOException {
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(
+                newRequest(new ByteBufferInputStream(ByteBuffer.wrap(CONTENT))));
+        assertTrue(entity.isRepeatable());
+        assertEquals(CONTENT.length, entity.getContentLength());
+
+        CountingOutputStream first = new CountingOutputStream();
+        entity.writeTo(first);
+        assertEquals(1, first.writes);
+        assertArrayEquals(CONTENT, first.toByteArray());
+
+        CountingOutputStream second = new CountingOutputStream();
+        entity.writeTo(second);
+        assertArrayEquals(CONTENT, second.toByteArray());
+    }
+
+    @Test
+    public void positionedContentWithProgressListener_IsStillWrittenInOneCall() throws IOException {
+        final AtomicLong bytesTransferred = new AtomicLong();
+        InputStream content = ProgressInputStream.inputStreamForRequest(
+                new ByteBufferInputStream(ByteBuffer.wrap(CONTENT)), new SyncProgressListener() {
+                    @Override
+                    public void progressChanged(ProgressEvent progressEvent) {
+                        if (progressEvent.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT) {
+                            bytesTransferred.addAndGet(progressEvent.getBytesTransferred());
+                        }
+                    }
+                });
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(newRequest(content));
+
+        CountingOutputStream out = new CountingOutputStream();
+        entity.writeTo(out);
+        assertEquals(1, out.writes);
+        assertArrayEquals(CONTENT, out.toByteArray());
+        assertEquals(CONTENT.length, bytesTransferred.get());
+    }
+
+    @Test
+    public void streamContent_IsWrittenThroughInputStreamEntity() throws IOException {
+        RepeatableInputStreamRequestEntity entity = new RepeatableInputStreamRequestEntity(
+                newRequest(new ByteArrayInputStream(CONTENT)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertArrayEquals(CONTENT, out.toByteArray());
+    }
+
+    private static Request<?> newRequest(InputStream content) {
+        Request<?> request = new DefaultRequest<Object>("test");
+        request.addHeader("Content-Length", String.valueOf(CONTENT.length));
+        request.setContent(content);
+        return request;
+    }
+
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        private int writes;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+}
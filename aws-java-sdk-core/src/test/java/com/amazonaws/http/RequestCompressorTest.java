@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.StringUtils;
+
+public class RequestCompressorTest {
+
+    @Test
+    public void postParameters_AboveThreshold_CompressedIntoBody() throws IOException {
+        Request<?> request = newRequest(HttpMethodName.POST);
+        for (int i = 0; i < 100; i++) {
+            request.addParameter("MetricData.member." + i + ".MetricName", "Latency");
+        }
+        String encodedParams = SdkHttpUtils.encodeParameters(request);
+
+        assertTrue(RequestCompressor.compress(request, 100));
+
+        assertTrue(request.getParameters().isEmpty());
+        assertEquals("gzip", request.getHeaders().get("Content-Encoding"));
+        assertEquals("application/x-www-form-urlencoded; charset=utf-8", request.getHeaders().get("Content-Type"));
+        byte[] compressed = IOUtils.toByteArray(request.getContent());
+        assertEquals(String.valueOf(compressed.length), request.getHeaders().get("Content-Length"));
+        assertTrue(compressed.length < encodedParams.length());
+        assertEquals(encodedParams, new String(gunzip(compressed), StringUtils.UTF8));
+    }
+
+    @Test
+    public void postParameters_BelowThreshold_Untouched() throws IOException {
+        Request<?> request = newRequest(HttpMethodName.POST);
+        request.addParameter("Action", "PutMetricData");
+
+        assertFalse(RequestCompressor.compress(request, 1024));
+
+        assertEquals("PutMetricData", request.getParameters().get("Action").get(0));
+        assertNull(request.getContent());
+        assertNull(request.getHeaders().get("Content-Encoding"));
+    }
+
+    @Test
+    public void getParameters_Untouched() throws IOException {
+        Request<?> request = newRequest(HttpMethodName.GET);
+        request.addParameter("Action", "ListMetrics");
+
+        assertFalse(RequestCompressor.compress(request, 0));
+        assertNull(request.getContent());
+    }
+
+    @Test
+    public void content_AboveThreshold_Compressed() throws IOException {
+        byte[] body = new byte[4096];
+        Request<?> request = newRequest(HttpMethodName.POST);
+        request.setContent(new ByteArrayInputStream(body));
+        request.addHeader("Content-Length", String.valueOf(body.length));
+
+        assertTrue(RequestCompressor.compress(request, 1024));
+
+        byte[] compressed = IOUtils.toByteArray(request.getContent());
+        assertEquals(String.valueOf(compressed.length), request.getHeaders().get("Content-Length"));
+        assertArrayEquals(body, gunzip(compressed));
+    }
+
+    @Test
+    public void content_BelowThreshold_Restored() throws IOException {
+        byte[] body = "{\"Namespace\":\"Test\"}".getBytes(StringUtils.UTF8);
+        Request<?> request = newRequest(HttpMethodName.POST);
+        request.setContent(new ByteArrayInputStream(body));
+
+        assertFalse(RequestCompressor.compress(request, 1024));
+
+        assertArrayEquals(body, IOUtils.toByteArray(request.getContent()));
+        assertNull(request.getHeaders().get("Content-Encoding"));
+    }
+
+    @Test
+    public void contentEncodingAlreadySet_Untouched() throws IOException {
+        byte[] body = new byte[4096];
+        InputStream content = new ByteArrayInputStream(body);
+        Request<?> request = newRequest(HttpMethodName.POST);
+        request.setContent(content);
+        request.addHeader("content-encoding", "aws-chunked");
+
+        assertFalse(RequestCompressor.compress(request, 0));
+
+        assertEquals(content, request.getContent());
+        assertEquals(4096, content.available());
+    }
+
+    private static Request<?> newRequest(HttpMethodName method) {
+        Request<?> request = new DefaultRequest<Object>("monitoring");
+        request.setHttpMethod(method);
+        return request;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        return IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+    }
+}
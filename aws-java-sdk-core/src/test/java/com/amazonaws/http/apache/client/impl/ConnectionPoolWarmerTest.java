@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.apache.client.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.http.settings.HttpClientSettings;
+
+public class ConnectionPoolWarmerTest {
+
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final List<Socket> sockets = new ArrayList<Socket>();
+    private final List<PoolingHttpClientConnectionManager> connectionManagers =
+            new ArrayList<PoolingHttpClientConnectionManager>();
+    private ServerSocket server;
+    private URI endpoint;
+
+    @Before
+    public void setup() throws Exception {
+        server = new ServerSocket(0, 50, InetAddress.getByAddress(new byte[] {127, 0, 0, 1}));
+        endpoint = URI.create("http://127.0.0.1:" + server.getLocalPort());
+        Thread acceptor = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = server.accept();
+                        synchronized (sockets) {
+                            sockets.add(socket);
+                        }
+                        accepted.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    // Server closed
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (PoolingHttpClientConnectionManager cm : connectionManagers) {
+            cm.shutdown();
+        }
+        server.close();
+        synchronized (sockets) {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void warmUp_OpensAndPoolsConnections() throws Exception {
+        ClientConfiguration config = new ClientConfiguration();
+        PoolingHttpClientConnectionManager cm = connectionManager(config);
+
+        assertEquals(5, warmer(cm, config).warmUp(endpoint, 5));
+        assertEquals(5, cm.getTotalStats().getAvailable());
+        assertEquals(0, cm.getTotalStats().getLeased());
+        awaitAccepted(5);
+    }
+
+    @Test
+    public void warmUp_ReusesPooledConnections() throws Exception {
+        ClientConfiguration config = new ClientConfiguration();
+        PoolingHttpClientConnectionManager cm = connectionManager(config);
+
+        assertEquals(3, warmer(cm, config).warmUp(endpoint, 3));
+        assertEquals(5, warmer(cm, config).warmUp(endpoint, 5));
+        assertEquals(5, cm.getTotalStats().getAvailable());
+        awaitAccepted(5);
+    }
+
+    @Test
+    public void warmUp_CappedByPoolLimits() throws Exception {
+        ClientConfiguration config = new ClientConfiguration().withMaxConnections(3);
+        PoolingHttpClientConnectionManager cm = connectionManager(config);
+
+        assertEquals(3, warmer(cm, config).warmUp(endpoint, 10));
+        assertEquals(3, cm.getTotalStats().getAvailable());
+    }
+
+    @Test
+    public void warmUp_ThroughProxy_OpensNoConnections() throws Exception {
+        ClientConfiguration config = new ClientConfiguration().withProxyHost("127.0.0.1").withProxyPort(3128);
+        PoolingHttpClientConnectionManager cm = connectionManager(config);
+
+        assertEquals(0, warmer(cm, config).warmUp(endpoint, 5));
+        assertEquals(0, cm.getTotalStats().getAvailable());
+    }
+
+    @Test
+    public void warmUp_UnreachableEndpoint_OpensNoConnections() throws Exception {
+        ClientConfiguration config = new ClientConfiguration();
+        PoolingHttpClientConnectionManager cm = connectionManager(config);
+        server.close();
+
+        assertEquals(0, warmer(cm, config).warmUp(endpoint, 5));
+        assertEquals(0, cm.getTotalStats().getAvailable());
+        assertEquals(0, cm.getTotalStats().getLeased());
+    }
+
+    private PoolingHttpClientConnectionManager connectionManager(ClientConfiguration config) {
+        PoolingHttpClientConnectionManager cm = (PoolingHttpClientConnectionManager)
+                new ApacheConnectionManagerFactory().create(HttpClientSettings.adapt(config));
+        connectionManagers.add(cm);
+        return cm;
+    }
+
+    private ConnectionPoolWarmer warmer(PoolingHttpClientConnectionManager cm, ClientConfiguration config) {
+        return new ConnectionPoolWarmer(cm, HttpClientSettings.adapt(config));
+    }
+
+    private void awaitAccepted(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && accepted.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, accepted.get());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.apache.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.util.IOUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Test;
+
+public class SdkBufferedHttpEntityTest {
+
+    private static final byte[] CONTENT = "buffered content".getBytes();
+
+    @Test
+    public void streamOfUnknownLength_IsBuffered() throws IOException {
+        SdkBufferedHttpEntity entity = new SdkBufferedHttpEntity(streamingEntity(CONTENT, -1));
+        assertBuffered(entity, CONTENT);
+    }
+
+    @Test
+    public void streamOfKnownLength_IsBuffered() throws IOException {
+        SdkBufferedHttpEntity entity = new SdkBufferedHttpEntity(streamingEntity(CONTENT, CONTENT.length));
+        assertBuffered(entity, CONTENT);
+    }
+
+    @Test
+    public void streamLongerOrShorterThanDeclared_IsBufferedAsIs() throws IOException {
+        assertBuffered(new SdkBufferedHttpEntity(streamingEntity(CONTENT, CONTENT.length - 3)), CONTENT);
+        assertBuffered(new SdkBufferedHttpEntity(streamingEntity(CONTENT, CONTENT.length + 3)), CONTENT);
+    }
+
+    @Test
+    public void repeatableEntityOfKnownLength_IsNotBuffered() throws IOException {
+        ByteArrayEntity wrapped = new ByteArrayEntity(CONTENT);
+        SdkBufferedHttpEntity entity = new SdkBufferedHttpEntity(wrapped);
+        assertTrue(entity.isRepeatable());
+        assertEquals(CONTENT.length, entity.getContentLength());
+        assertArrayEquals(CONTENT, IOUtils.toByteArray(entity.getContent()));
+    }
+
+    private static BasicHttpEntity streamingEntity(byte[] content, long length) {
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(content));
+        entity.setContentLength(length);
+        entity.setChunked(length < 0);
+        return entity;
+    }
+
+    private static void assertBuffered(SdkBufferedHttpEntity entity, byte[] expected) throws IOException {
+        assertTrue(entity.isRepeatable());
+        assertFalse(entity.isStreaming());
+        assertFalse(entity.isChunked());
+        assertEquals(expected.length, entity.getContentLength());
+        for (int i = 0; i < 2; i++) {
+            InputStream content = entity.getContent();
+            assertArrayEquals(expected, IOUtils.toByteArray(content));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+    }
+}
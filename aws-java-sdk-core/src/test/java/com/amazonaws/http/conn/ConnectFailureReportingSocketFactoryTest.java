@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.CachingDnsResolver;
+import com.amazonaws.DnsResolver;
+
+public class ConnectFailureReportingSocketFactoryTest {
+
+    private static final String HOST = "example.amazonaws.com";
+
+    private InetAddress loopback;
+    private InetAddress other;
+    private CachingDnsResolver resolver;
+
+    @Before
+    public void setup() throws Exception {
+        loopback = InetAddress.getByAddress(new byte[] {127, 0, 0, 1});
+        other = InetAddress.getByAddress(new byte[] {10, 0, 0, 1});
+        resolver = new CachingDnsResolver(new DnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) {
+                return new InetAddress[] {loopback, other};
+            }
+        }, 30, 0, TimeUnit.SECONDS);
+        resolver.resolve(HOST);
+    }
+
+    @Test
+    public void wrap_PreservesLayeredSocketFactory() {
+        assertTrue(ConnectFailureReportingSocketFactory.wrap(SSLConnectionSocketFactory.getSocketFactory(), resolver)
+                   instanceof LayeredConnectionSocketFactory);
+        assertFalse(ConnectFailureReportingSocketFactory.wrap(PlainConnectionSocketFactory.getSocketFactory(), resolver)
+                    instanceof LayeredConnectionSocketFactory);
+    }
+
+    @Test
+    public void connectFailure_ReportsAddressToResolver() throws Exception {
+        ConnectionSocketFactory socketFactory =
+                ConnectFailureReportingSocketFactory.wrap(PlainConnectionSocketFactory.getSocketFactory(), resolver);
+        int closedPort = closedPort();
+        try {
+            socketFactory.connectSocket(1000, socketFactory.createSocket(null), new HttpHost(HOST, closedPort),
+                                        new InetSocketAddress(loopback, closedPort), null, null);
+            fail("Expected the connection to be refused");
+        } catch (IOException expected) {
+        }
+
+        assertArrayEquals(new InetAddress[] {other}, resolver.resolve(HOST));
+    }
+
+    @Test
+    public void successfulConnect_DoesNotReportAddress() throws Exception {
+        ServerSocket server = new ServerSocket(0, 1, loopback);
+        try {
+            ConnectionSocketFactory socketFactory =
+                    ConnectFailureReportingSocketFactory.wrap(PlainConnectionSocketFactory.getSocketFactory(), resolver);
+            Socket socket = socketFactory.connectSocket(1000, socketFactory.createSocket(null),
+                                                        new HttpHost(HOST, server.getLocalPort()),
+                                                        new InetSocketAddress(loopback, server.getLocalPort()), null, null);
+            socket.close();
+        } finally {
+            server.close();
+        }
+
+        assertArrayEquals(new InetAddress[] {other, loopback}, resolver.resolve(HOST));
+    }
+
+    private int closedPort() throws IOException {
+        ServerSocket socket = new ServerSocket(0, 1, loopback);
+        int port = socket.getLocalPort();
+        socket.close();
+        return port;
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.auth.SdkClock;
+
+public class SdkPoolingHttpClientConnectionManagerTest {
+
+    private final AtomicLong now = new AtomicLong(1000000);
+    private SdkPoolingHttpClientConnectionManager cm;
+
+    @Before
+    public void setup() {
+        cm = new SdkPoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .build(),
+                DefaultSchemePortResolver.INSTANCE,
+                SystemDefaultDnsResolver.INSTANCE,
+                -1,
+                TimeUnit.MILLISECONDS,
+                new SdkClock() {
+                    @Override
+                    public long currentTimeMillis() {
+                        return now.get();
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        cm.shutdown();
+    }
+
+    @Test
+    public void adaptivePool_StartsAtMinimum() {
+        cm.setAdaptiveMaxTotal(4, 20);
+        assertEquals(4, cm.getMaxTotal());
+    }
+
+    @Test
+    public void adaptivePool_GrowsOnSlowLeasesUpToMaximum() {
+        cm.setAdaptiveMaxTotal(4, 20);
+        cm.onLease(100, false);
+        assertEquals(6, cm.getMaxTotal());
+        cm.onLease(0, true);
+        assertEquals(9, cm.getMaxTotal());
+        for (int i = 0; i < 10; i++) {
+            cm.onLease(100, false);
+        }
+        assertEquals(20, cm.getMaxTotal());
+    }
+
+    @Test
+    public void adaptivePool_DoesNotGrowOnFastLeases() {
+        cm.setAdaptiveMaxTotal(4, 20);
+        for (int i = 0; i < 10; i++) {
+            cm.onLease(1, false);
+        }
+        assertEquals(4, cm.getMaxTotal());
+    }
+
+    @Test
+    public void adaptivePool_ShrinksUnusedCapacityAfterInterval() {
+        cm.setAdaptiveMaxTotal(4, 20);
+        for (int i = 0; i < 10; i++) {
+            cm.onLease(100, false);
+        }
+        assertEquals(20, cm.getMaxTotal());
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(10));
+        cm.onLease(0, false);
+        assertEquals(20, cm.getMaxTotal());
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        cm.onLease(0, false);
+        assertEquals(10, cm.getMaxTotal());
+
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(TimeUnit.SECONDS.toMillis(30));
+            cm.onLease(0, false);
+        }
+        assertEquals(4, cm.getMaxTotal());
+    }
+
+    @Test
+    public void fixedMaxTotal_DisablesAdaptiveSizing() {
+        cm.setAdaptiveMaxTotal(4, 20);
+        cm.setMaxTotal(8);
+        cm.onLease(100, false);
+        assertEquals(8, cm.getMaxTotal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void adaptivePool_MinimumAboveMaximum_ThrowsException() {
+        cm.setAdaptiveMaxTotal(21, 20);
+    }
+
+    @Test
+    public void maxPerHost_AppliesToExactHostAndSubdomains() throws Exception {
+        cm.setMaxTotal(100);
+        cm.setDefaultMaxPerRoute(50);
+        Map<String, Integer> maxPerHost = new HashMap<String, Integer>();
+        maxPerHost.put(".s3.amazonaws.com", 3);
+        maxPerHost.put("dynamodb.us-east-1.amazonaws.com", 5);
+        cm.setMaxPerHost(maxPerHost);
+
+        assertEquals(3, leaseUntilTimeout(route("My-Bucket.s3.amazonaws.com")));
+        assertEquals(3, leaseUntilTimeout(route("other-bucket.s3.amazonaws.com")));
+        assertEquals(5, leaseUntilTimeout(route("dynamodb.us-east-1.amazonaws.com")));
+        assertEquals(10, leaseUntilTimeout(route("sqs.us-east-1.amazonaws.com")));
+        assertEquals(10, leaseUntilTimeout(route("s3.amazonaws.com")));
+    }
+
+    @Test
+    public void maxPerHost_ReleasedConnectionsFreeTheirRouteAndItsLimit() throws Exception {
+        Map<String, Integer> maxPerHost = new HashMap<String, Integer>();
+        maxPerHost.put(".s3.amazonaws.com", 1);
+        cm.setMaxPerHost(maxPerHost);
+
+        for (int i = 0; i < 100; i++) {
+            HttpRoute route = route("bucket-" + i + ".s3.amazonaws.com");
+            HttpClientConnection first = lease(route);
+            assertEquals(1, cm.getLimitedRouteCount());
+            cm.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+            cm.releaseConnection(lease(route), null, 0, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, cm.getLimitedRouteCount());
+    }
+
+    @Test
+    public void maxPerHost_TimedOutLeaseIsNotTracked() throws Exception {
+        Map<String, Integer> maxPerHost = new HashMap<String, Integer>();
+        maxPerHost.put(".s3.amazonaws.com", 1);
+        cm.setMaxPerHost(maxPerHost);
+        HttpRoute route = route("bucket.s3.amazonaws.com");
+
+        HttpClientConnection connection = lease(route);
+        try {
+            lease(route);
+            fail("Expected ConnectionPoolTimeoutException");
+        } catch (ConnectionPoolTimeoutException expected) {
+        }
+        cm.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        assertEquals(0, cm.getLimitedRouteCount());
+        assertEquals(2, cm.getLeaseWaitHistogram().getTotalCount());
+    }
+
+    @Test
+    public void leaseWaits_AreRecordedInHistogram() {
+        cm.onLease(0, false);
+        cm.onLease(3, false);
+        cm.onLease(3, false);
+        cm.onLease(60000, false);
+        cm.onLease(1000, true);
+
+        LeaseWaitHistogram histogram = cm.getLeaseWaitHistogram();
+        assertEquals(5, histogram.getTotalCount());
+        assertArrayEquals(new long[] {1, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2}, histogram.getCounts());
+        assertEquals(histogram.getCounts().length, histogram.getBucketUpperBoundsMillis().length + 1);
+    }
+
+    @Test
+    public void leaseWaits_ReportedOnlyOnce() {
+        cm.onLease(3, false);
+        LeaseWaitHistogram histogram = cm.getLeaseWaitHistogram();
+        assertArrayEquals(new long[] {0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, histogram.getCountsSinceLastReport());
+
+        cm.onLease(0, false);
+        assertArrayEquals(new long[] {1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, histogram.getCountsSinceLastReport());
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals("HttpClientLeaseWaitUpTo5ms", LeaseWaitHistogram.getMetricTypes().get(3).name());
+        assertEquals("HttpClientLeaseWaitOver5000ms", LeaseWaitHistogram.getMetricTypes().get(13).name());
+    }
+
+    /**
+     * @return How many connections of the route could be leased at the same time, up to 10.
+     */
+    private int leaseUntilTimeout(HttpRoute route) throws Exception {
+        List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>();
+        try {
+            while (leased.size() < 10) {
+                leased.add(lease(route));
+            }
+        } catch (ConnectionPoolTimeoutException expected) {
+        }
+        for (HttpClientConnection connection : leased) {
+            cm.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        }
+        return leased.size();
+    }
+
+    private HttpClientConnection lease(HttpRoute route) throws Exception {
+        return cm.requestConnection(route, null).get(50, TimeUnit.MILLISECONDS);
+    }
+
+    private static HttpRoute route(String host) {
+        return new HttpRoute(new HttpHost(host, 80, "http"));
+    }
+}
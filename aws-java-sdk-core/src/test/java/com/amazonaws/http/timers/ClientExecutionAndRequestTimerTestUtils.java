@@ -19,7 +19,7 @@
 package com.amazonaws.http.timers;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
@@ -28,18 +28,17 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.amazonaws.http.apache.client.impl.ApacheHttpClientFactory;
 import com.amazonaws.http.apache.client.impl.ConnectionManagerAwareHttpClient;
+import com.amazonaws.http.apache.utils.SdkBufferedHttpEntity;
 import com.amazonaws.http.response.ErrorDuringUnmarshallingResponseHandler;
 import com.amazonaws.http.settings.HttpClientSettings;
 import org.apache.http.HttpEntity;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
@@ -65,26 +64,30 @@ import com.amazonaws.http.timers.request.HttpRequestTimer;
 public class ClientExecutionAndRequestTimerTestUtils {
 
     /**
-     * Can take a little bit for ScheduledThreadPoolExecutor to update it's internal state
+     * Can take a little bit for the timer thread to run expired tasks
      */
-    private static final int WAIT_BEFORE_ASSERT_ON_EXECUTOR = 500;
+    private static final int WAIT_BEFORE_ASSERT_ON_TIMER = 500;
 
     /**
-     * Assert that the executor backing {@link ClientExecutionTimer} was never created or used
+     * Assert that {@link HttpRequestTimer} never started its timer thread. Only meaningful for a
+     * client created with {@link #createClientWithOwnTimers(ClientConfiguration)}.
      * 
      * @param requestTimer
      */
-    public static void assertRequestTimerExecutorNotCreated(HttpRequestTimer requestTimer) {
-        assertNull(requestTimer.getExecutor());
+    public static void assertRequestTimerNotStarted(HttpRequestTimer requestTimer) {
+        assertFalse(requestTimer.getTimer().isWorkerRunning());
+        assertEquals(0, requestTimer.getTimer().getExpiredTimeoutCount());
     }
 
     /**
-     * Assert that the executor backing {@link ClientExecutionTimer} was never created or used
+     * Assert that {@link ClientExecutionTimer} never started its timer thread. Only meaningful for
+     * a client created with {@link #createClientWithOwnTimers(ClientConfiguration)}.
      * 
      * @param clientExecutionTimer
      */
-    public static void assertClientExecutionTimerExecutorNotCreated(ClientExecutionTimer clientExecutionTimer) {
-        assertNull(clientExecutionTimer.getExecutor());
+    public static void assertClientExecutionTimerNotStarted(ClientExecutionTimer clientExecutionTimer) {
+        assertFalse(clientExecutionTimer.getTimer().isWorkerRunning());
+        assertEquals(0, clientExecutionTimer.getTimer().getExpiredTimeoutCount());
     }
 
     /**
@@ -95,7 +98,7 @@ public class ClientExecutionAndRequestTimerTestUtils {
      *            Must by a spied {@link HttpResponseProxy}
      */
     public static void assertResponseIsBuffered(HttpResponseProxy responseProxy) {
-        verify(responseProxy).setEntity(any(BufferedHttpEntity.class));
+        verify(responseProxy).setEntity(any(SdkBufferedHttpEntity.class));
     }
 
     /**
@@ -106,60 +109,56 @@ public class ClientExecutionAndRequestTimerTestUtils {
      *            Must by a spied {@link HttpResponseProxy}
      */
     public static void assertResponseWasNotBuffered(HttpResponseProxy responseProxy) {
-        verify(responseProxy, never()).setEntity(any(BufferedHttpEntity.class));
+        verify(responseProxy, never()).setEntity(any(SdkBufferedHttpEntity.class));
     }
 
     /**
-     * Waits until a little after the thread pools keep alive time and then asserts that all thre
+     * Waits until a little after the timer's keep alive time and then asserts that its thread
+     * exited. Canceled timeouts are only unlinked once the timer thread visits their bucket, so
+     * allow for up to a full turn of the wheel on top of the keep alive time.
      * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
-     * @throws InterruptedException
+     * @param timer
+     *            Timer used by timer implementation
      */
-    public static void assertCoreThreadsShutDownAfterBeingIdle(ScheduledThreadPoolExecutor timerExecutor) {
-        try {
-            Thread.sleep(timerExecutor.getKeepAliveTime(TimeUnit.MILLISECONDS) + 1000);
-        } catch (InterruptedException ignored) {
+    public static void assertTimerThreadStopsAfterBeingIdle(HashedWheelTimer timer) {
+        long deadline = System.currentTimeMillis() + timer.getKeepAliveTime(TimeUnit.MILLISECONDS) + 10 * 1000;
+        while (timer.isWorkerRunning() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
         }
-        assertEquals(0, timerExecutor.getPoolSize());
+        assertFalse(timer.isWorkerRunning());
     }
 
-    /**
-     * If the request completes successfully then the timer task should be canceled and should be
-     * removed from the thread pool to prevent build up of canceled tasks
-     * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
-     */
-    public static void assertCanceledTasksRemoved(ScheduledThreadPoolExecutor timerExecutor) {
-        waitBeforeAssertOnExecutor();
-        assertEquals(0, timerExecutor.getQueue().size());
+    public static void assertTimerNeverTriggered(ClientExecutionTimer clientExecutionTimer) {
+        assertNumberOfTasksTriggered(clientExecutionTimer, 0);
     }
 
-    /**
-     * Asserts the timer never went off (I.E. no timeout was exceeded and no timer task was
-     * executed)
-     * 
-     * @param timerExecutor
-     *            Executor used by timer implementation
-     */
-    public static void assertTimerNeverTriggered(ScheduledThreadPoolExecutor timerExecutor) {
-        assertNumberOfTasksTriggered(timerExecutor, 0);
+    public static void assertTimerNeverTriggered(HttpRequestTimer requestTimer) {
+        assertNumberOfTasksTriggered(requestTimer, 0);
     }
 
     public static void assertNumberOfTasksTriggered(ClientExecutionTimer clientExecutionTimer,
                                                     int expectedNumberOfTasks) {
-        assertNumberOfTasksTriggered(clientExecutionTimer.getExecutor(), expectedNumberOfTasks);
+        waitBeforeAssertOnTimer();
+        assertEquals(expectedNumberOfTasks, clientExecutionTimer.getTimer().getExpiredTimeoutCount());
     }
 
     public static void assertNumberOfTasksTriggered(HttpRequestTimer requestTimer, int expectedNumberOfTasks) {
-        assertNumberOfTasksTriggered(requestTimer.getExecutor(), expectedNumberOfTasks);
+        waitBeforeAssertOnTimer();
+        assertEquals(expectedNumberOfTasks, requestTimer.getTimer().getExpiredTimeoutCount());
     }
 
-    private static void assertNumberOfTasksTriggered(ScheduledThreadPoolExecutor timerExecutor,
-                                                     int expectedNumberOfTasks) {
-        waitBeforeAssertOnExecutor();
-        assertEquals(expectedNumberOfTasks, timerExecutor.getCompletedTaskCount());
+    /**
+     * Creates an {@link AmazonHttpClient} whose request and client execution timers run on their own
+     * timer threads instead of the shared one, so tests can assert on what each timer triggered.
+     * 
+     * @param config
+     *            {@link ClientConfiguration} for the client
+     */
+    public static AmazonHttpClient createClientWithOwnTimers(ClientConfiguration config) {
+        return new AmazonHttpClient(config, createRawHttpClientSpy(config), null);
     }
 
     /**
@@ -232,9 +231,9 @@ public class ClientExecutionAndRequestTimerTestUtils {
         }
     }
 
-    private static void waitBeforeAssertOnExecutor() {
+    private static void waitBeforeAssertOnTimer() {
         try {
-            Thread.sleep(WAIT_BEFORE_ASSERT_ON_EXECUTOR);
+            Thread.sleep(WAIT_BEFORE_ASSERT_ON_TIMER);
         } catch (InterruptedException ignored) {
         }
     }
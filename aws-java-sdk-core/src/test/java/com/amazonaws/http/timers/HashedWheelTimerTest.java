@@ -0,0 +1,171 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.timers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.amazonaws.http.timers.HashedWheelTimer.Timeout;
+
+public class HashedWheelTimerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("HashedWheelTimerTest", 5, 8, 200,
+            TimeUnit.MILLISECONDS);
+
+    @Test
+    public void timeoutExpires_RunsTaskNoEarlierThanDelay() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        Timeout timeout = timer.newTimeout(countDown(latch), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void delayLongerThanOneTurnOfTheWheel_RunsTaskNoEarlierThanDelay() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        // 8 buckets of 5ms, so this needs several turns of the wheel
+        timer.newTimeout(countDown(latch), 150, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+    }
+
+    @Test
+    public void timeoutCanceled_TaskNeverRuns() throws InterruptedException {
+        final AtomicInteger runs = new AtomicInteger();
+        Timeout timeout = timer.newTimeout(increment(runs), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        Thread.sleep(200);
+        assertEquals(0, runs.get());
+        assertEquals(0, timer.getExpiredTimeoutCount());
+    }
+
+    @Test
+    public void taskThrowsException_TimerKeepsRunning() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("Expected by test");
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        timer.newTimeout(countDown(latch), 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(2, timer.getExpiredTimeoutCount());
+    }
+
+    @Test
+    public void taskBlocks_OtherTimeoutsStillExpire() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.newTimeout(countDown(latch), 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        release.countDown();
+    }
+
+    @Test
+    public void manyConcurrentTimeouts_AllExpireOrAreCanceled() throws InterruptedException {
+        final int threads = 8;
+        final int timeoutsPerThread = 1000;
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < timeoutsPerThread; j++) {
+                        Timeout timeout = timer.newTimeout(increment(runs), j % 50, TimeUnit.MILLISECONDS);
+                        if (j % 2 == 0) {
+                            timeout.cancel();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(500);
+
+        assertEquals(runs.get(), timer.getExpiredTimeoutCount());
+        // Only the timeouts that were canceled before they expired didn't run
+        assertTrue(runs.get() >= threads * timeoutsPerThread / 2);
+    }
+
+    @Test
+    public void idleTimer_WorkerStopsAndIsRestartedOnDemand() throws InterruptedException {
+        assertFalse(timer.isWorkerRunning());
+
+        final CountDownLatch first = new CountDownLatch(1);
+        timer.newTimeout(countDown(first), 10, TimeUnit.MILLISECONDS);
+        assertTrue(timer.isWorkerRunning());
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(timer.getKeepAliveTime(TimeUnit.MILLISECONDS) + 500);
+        assertFalse(timer.isWorkerRunning());
+
+        final CountDownLatch second = new CountDownLatch(1);
+        timer.newTimeout(countDown(second), 10, TimeUnit.MILLISECONDS);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    private static Runnable increment(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+}
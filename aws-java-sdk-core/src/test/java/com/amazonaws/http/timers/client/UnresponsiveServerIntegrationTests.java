@@ -14,8 +14,9 @@
  */
 package com.amazonaws.http.timers.client;
 
-import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.assertClientExecutionTimerExecutorNotCreated;
+import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.assertClientExecutionTimerNotStarted;
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.assertNumberOfTasksTriggered;
+import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.createClientWithOwnTimers;
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.interruptCurrentThreadAfterDelay;
 import static com.amazonaws.http.timers.TimeoutTestConstants.CLIENT_EXECUTION_TIMEOUT;
 import static com.amazonaws.http.timers.TimeoutTestConstants.PRECISION_MULTIPLIER;
@@ -60,14 +61,14 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
 
     @Test(timeout = TEST_TIMEOUT)
     public void clientExecutionTimeoutDisabled_SocketTimeoutExceptionIsThrown_NoThreadsCreated() {
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withSocketTimeout(1 * 1000).withMaxErrorRetry(0));
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withSocketTimeout(1 * 1000).withMaxErrorRetry(0));
 
         try {
             httpClient.requestExecutionBuilder().request(newGetRequest()).execute();
             fail("Exception expected");
         } catch (AmazonClientException e) {
             assertThat(e.getCause(), instanceOf(SocketTimeoutException.class));
-            assertClientExecutionTimerExecutorNotCreated(httpClient.getClientExecutionTimer());
+            assertClientExecutionTimerNotStarted(httpClient.getClientExecutionTimer());
         }
     }
 
@@ -81,7 +82,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
     @Test(timeout = TEST_TIMEOUT)
     public void interruptCausedBySomethingOtherThanTimer_PropagatesInterruptToCaller() {
         final int socketTimeoutInMillis = 100;
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withSocketTimeout(socketTimeoutInMillis)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withSocketTimeout(socketTimeoutInMillis)
                 .withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
                 .withRetryPolicy(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
                         new FixedTimeBackoffStrategy(CLIENT_EXECUTION_TIMEOUT), 1, false)));
@@ -103,7 +104,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
     @Test(timeout = TEST_TIMEOUT)
     public void clientExecutionTimeoutEnabled_WithLongerSocketTimeout_ThrowsClientExecutionTimeoutException()
             throws IOException {
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
                 .withSocketTimeout(LONGER_SOCKET_TIMEOUT).withMaxErrorRetry(0));
 
         try {
@@ -118,7 +119,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
     @Test(timeout = TEST_TIMEOUT)
     public void clientExecutionTimeoutEnabled_WithShorterSocketTimeout_ThrowsSocketTimeoutException()
             throws IOException {
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
                 .withSocketTimeout(SHORTER_SOCKET_TIMEOUT).withMaxErrorRetry(0));
 
         try {
@@ -133,7 +134,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
     @Test(timeout = TEST_TIMEOUT)
     public void clientExecutionTimeoutEnabled_WithShorterClientExecutionTimeout_ThrowsClientExecutionTimeoutException()
             throws IOException {
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
                 .withRequestTimeout(LONGER_REQUEST_TIMEOUT).withMaxErrorRetry(0));
 
         try {
@@ -149,7 +150,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
     @Test(timeout = TEST_TIMEOUT)
     public void clientExecutionTimeoutEnabled_WithShorterRequestTimeout_ThrowsHttpRequestTimeoutException()
             throws IOException {
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withClientExecutionTimeout(CLIENT_EXECUTION_TIMEOUT)
                 .withRequestTimeout(SHORTER_REQUEST_TIMEOUT).withMaxErrorRetry(0));
 
         try {
@@ -169,7 +170,7 @@ public class UnresponsiveServerIntegrationTests extends UnresponsiveMockServerTe
         final int clientExecutionTimeout = 1500;
         final int requestTimeout = 1000;
         final int backoffTime = 300;
-        httpClient = new AmazonHttpClient(new ClientConfiguration().withClientExecutionTimeout(clientExecutionTimeout)
+        httpClient = createClientWithOwnTimers(new ClientConfiguration().withClientExecutionTimeout(clientExecutionTimeout)
                 .withRequestTimeout(requestTimeout)
                 .withRetryPolicy(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
                         new FixedTimeBackoffStrategy(backoffTime), Integer.MAX_VALUE, false)));
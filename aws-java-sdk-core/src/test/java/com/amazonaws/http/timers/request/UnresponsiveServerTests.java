@@ -14,7 +14,8 @@
  */
 package com.amazonaws.http.timers.request;
 
-import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.assertRequestTimerExecutorNotCreated;
+import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.assertRequestTimerNotStarted;
+import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.createClientWithOwnTimers;
 import static com.amazonaws.http.timers.ClientExecutionAndRequestTimerTestUtils.execute;
 import static com.amazonaws.http.timers.TimeoutTestConstants.PRECISION_MULTIPLIER;
 import static com.amazonaws.http.timers.TimeoutTestConstants.TEST_TIMEOUT;
@@ -57,7 +58,7 @@ public class UnresponsiveServerTests extends UnresponsiveMockServerTestBase {
     @Test(timeout = TEST_TIMEOUT)
     public void requestTimeoutDisabled_ConnectionClosedBySocketTimeout_NoThreadsCreated() {
         final int socketTimeout = 1000;
-        httpClient = new AmazonHttpClient(
+        httpClient = createClientWithOwnTimers(
                 new ClientConfiguration().withSocketTimeout(socketTimeout).withRequestTimeout(0).withMaxErrorRetry(0));
 
         try {
@@ -65,7 +66,7 @@ public class UnresponsiveServerTests extends UnresponsiveMockServerTestBase {
             fail("Exception expected");
         } catch (AmazonClientException e) {
             assertThat(e.getCause(), instanceOf(SocketTimeoutException.class));
-            assertRequestTimerExecutorNotCreated(httpClient.getHttpRequestTimer());
+            assertRequestTimerNotStarted(httpClient.getHttpRequestTimer());
         }
     }
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class ByteBufferInputStreamTest {
+
+    private static final byte[] CONTENT = "0123456789abcdef".getBytes();
+
+    @Test
+    public void read_DoesNotModifyBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(CONTENT);
+        buffer.position(4);
+        ByteBufferInputStream is = new ByteBufferInputStream(buffer);
+
+        assertArrayEquals("456789abcdef".getBytes(), IOUtils.toByteArray(is));
+        assertEquals(4, buffer.position());
+        is.reset();
+        assertArrayEquals("456789abcdef".getBytes(), IOUtils.toByteArray(is));
+    }
+
+    @Test
+    public void writeTo_HeapBuffer_WritesBackingArrayDirectly() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(CONTENT);
+        ByteBufferInputStream is = new ByteBufferInputStream(buffer);
+        is.skip(2);
+        final byte[][] written = new byte[1][];
+        is.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new AssertionError("Content should be written in one call");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written[0] = b;
+                assertEquals(2, off);
+                assertEquals(14, len);
+            }
+        });
+        assertSame(CONTENT, written[0]);
+    }
+
+    @Test
+    public void observer_SeesContentWrittenAndReadAgainAfterReset() throws IOException {
+        ByteBufferInputStream is = new ByteBufferInputStream(ByteBuffer.wrap(CONTENT));
+        final ByteArrayOutputStream observed = new ByteArrayOutputStream();
+        final int[] ends = new int[1];
+        is.addObserver(new PositionedInputStream.Observer() {
+            @Override
+            public void onBytes(byte[] b, int off, int len) {
+                assertSame(CONTENT, b);
+                observed.write(b, off, len);
+            }
+
+            @Override
+            public void onEnd() {
+                ends[0]++;
+            }
+
+            @Override
+            public void onReset() {
+                observed.reset();
+            }
+        });
+        is.mark(0);
+        is.writeTo(new ByteArrayOutputStream());
+        assertArrayEquals(CONTENT, observed.toByteArray());
+        assertEquals(1, ends[0]);
+
+        is.reset();
+        assertEquals(0, observed.size());
+        is.writeTo(new ByteArrayOutputStream());
+        assertArrayEquals(CONTENT, observed.toByteArray());
+        assertEquals(2, ends[0]);
+    }
+
+    @Test
+    public void writeTo_ReadOnlyDirectBuffer_CopiesContent() throws IOException {
+        ByteBuffer direct = ByteBuffer.allocateDirect(CONTENT.length);
+        direct.put(CONTENT).flip();
+        ByteBufferInputStream is = new ByteBufferInputStream(direct.asReadOnlyBuffer());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        is.writeTo(out);
+        assertArrayEquals(CONTENT, out.toByteArray());
+        assertEquals(-1, is.read());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import static com.amazonaws.util.FileUtils.generateRandomAsciiFile;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FileRegionInputStreamTest {
+
+    private static File file;
+    private static byte[] fileContent;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        file = generateRandomAsciiFile(200 * 1024);
+        fileContent = FileUtils.readFileToByteArray(file);
+    }
+
+    @Test
+    public void read_ReturnsOnlyTheRegion() throws IOException {
+        FileRegionInputStream is = new FileRegionInputStream(file, 100, 1000);
+        try {
+            assertArrayEquals(Arrays.copyOfRange(fileContent, 100, 1100), IOUtils.toByteArray(is));
+            assertEquals(-1, is.read());
+            assertEquals(0, is.remaining());
+        } finally {
+            is.release();
+        }
+    }
+
+    @Test
+    public void reset_RewindsToMarkedPositionRegardlessOfReadLimit() throws IOException {
+        FileRegionInputStream is = new FileRegionInputStream(file, 10, 150 * 1024);
+        try {
+            assertTrue(is.markSupported());
+            assertEquals(100, is.skip(100));
+            is.mark(1);
+            byte[] first = IOUtils.toByteArray(is);
+            is.reset();
+            assertArrayEquals(first, IOUtils.toByteArray(is));
+            assertArrayEquals(Arrays.copyOfRange(fileContent, 110, 10 + 150 * 1024), first);
+        } finally {
+            is.release();
+        }
+    }
+
+    @Test
+    public void writeTo_WritesRemainingContent() throws IOException {
+        FileRegionInputStream is = new FileRegionInputStream(file);
+        try {
+            assertEquals(500, is.skip(500));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            is.writeTo(out);
+            assertArrayEquals(Arrays.copyOfRange(fileContent, 500, fileContent.length), out.toByteArray());
+            assertEquals(0, is.remaining());
+        } finally {
+            is.release();
+        }
+    }
+
+    @Test
+    public void fileChannel_PositionIsNotChanged() throws IOException {
+        FileChannel channel = new FileInputStream(file).getChannel();
+        channel.position(42);
+        FileRegionInputStream is = new FileRegionInputStream(channel, 1000, 10);
+        assertArrayEquals(Arrays.copyOfRange(fileContent, 1000, 1010), IOUtils.toByteArray(is));
+        assertEquals(42, channel.position());
+        is.close();
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void truncatedFile_FailsInsteadOfSendingShortContent() throws IOException {
+        File truncated = generateRandomAsciiFile(100);
+        FileRegionInputStream is = new FileRegionInputStream(truncated);
+        try {
+            RandomAccessFile raf = new RandomAccessFile(truncated, "rw");
+            raf.setLength(50);
+            raf.close();
+            is.writeTo(new ByteArrayOutputStream());
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        } finally {
+            is.release();
+        }
+    }
+
+    @Test
+    public void disableClose_KeepsFileOpenUntilReleased() throws IOException {
+        FileRegionInputStream is = new FileRegionInputStream(file).disableClose();
+        is.close();
+        assertEquals(fileContent[0], is.read());
+        is.release();
+        try {
+            is.read();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.security.SecureRandom;
+import javax.net.ssl.SSLSessionContext;
+import org.junit.Test;
+
+public class SdkSSLContextTest {
+
+    @Test
+    public void sessionCacheLimits_AreApplied() {
+        SSLSessionContext sessions = SdkSSLContext.getPreferredSSLContext(new SecureRandom(), 7, 1500)
+                                                  .getClientSessionContext();
+        assertEquals(7, sessions.getSessionCacheSize());
+        // Rounded up to whole seconds
+        assertEquals(2, sessions.getSessionTimeout());
+    }
+
+    @Test
+    public void zeroSessionCacheLimits_MeanNoLimit() {
+        SSLSessionContext sessions = SdkSSLContext.getPreferredSSLContext(new SecureRandom(), 0, 0)
+                                                  .getClientSessionContext();
+        assertEquals(0, sessions.getSessionCacheSize());
+        assertEquals(0, sessions.getSessionTimeout());
+    }
+
+    @Test
+    public void negativeSessionCacheLimits_KeepJvmDefaults() {
+        SSLSessionContext defaults = SdkSSLContext.getPreferredSSLContext(new SecureRandom())
+                                                  .getClientSessionContext();
+        SSLSessionContext sessions = SdkSSLContext.getPreferredSSLContext(new SecureRandom(), -1, -1)
+                                                  .getClientSessionContext();
+        assertEquals(defaults.getSessionCacheSize(), sessions.getSessionCacheSize());
+        assertEquals(defaults.getSessionTimeout(), sessions.getSessionTimeout());
+    }
+}
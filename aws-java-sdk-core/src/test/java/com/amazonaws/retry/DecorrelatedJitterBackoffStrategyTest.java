@@ -0,0 +1,96 @@
+/*
+ * Copyright 2011-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.retry;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.retry.PredefinedBackoffStrategies.DecorrelatedJitterBackoffStrategy;
+import com.amazonaws.retry.v2.BackoffStrategy;
+import com.amazonaws.retry.v2.RetryPolicyContext;
+import com.amazonaws.retry.v2.RetryPolicyContexts;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecorrelatedJitterBackoffStrategyTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBaseDelay_ThrowsException() {
+        new DecorrelatedJitterBackoffStrategy(0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaxBackoff_ThrowsException() {
+        new DecorrelatedJitterBackoffStrategy(100, -1);
+    }
+
+    @Test
+    public void firstRetry_DelayIsBetweenBaseAndThreeTimesBase() {
+        BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 20000);
+        for (int i = 0; i < 1000; i++) {
+            long delay = strategy.computeDelayBeforeNextRetry(RetryPolicyContexts.EMPTY);
+            assertTrue(delay >= 100 && delay <= 300);
+        }
+    }
+
+    @Test
+    public void subsequentRetry_DelayIsBoundedByThreeTimesPreviousDelay() {
+        BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 20000);
+        RetryPolicyContext context = RetryPolicyContext.builder().previousBackoffDelay(1000).build();
+        for (int i = 0; i < 1000; i++) {
+            long delay = strategy.computeDelayBeforeNextRetry(context);
+            assertTrue(delay >= 100 && delay <= 3000);
+        }
+    }
+
+    @Test
+    public void delayNeverExceedsMaxBackoff() {
+        BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 500);
+        RetryPolicyContext context = RetryPolicyContext.builder().previousBackoffDelay(10000).build();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(strategy.computeDelayBeforeNextRetry(context) <= 500);
+        }
+    }
+
+    @Test
+    public void maxBackoffBelowBase_ReturnsMaxBackoff() {
+        BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 50);
+        assertEquals(50, strategy.computeDelayBeforeNextRetry(RetryPolicyContexts.EMPTY));
+    }
+
+    @Test
+    public void legacyRetryPolicy_ThroughAdapter_SeesPreviousDelay() {
+        RetryPolicy legacyPolicy = new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
+                                                   new DecorrelatedJitterBackoffStrategy(100, 20000), 3, false);
+        RetryPolicyAdapter adapter = new RetryPolicyAdapter(legacyPolicy, new ClientConfiguration());
+        RetryPolicyContext context = RetryPolicyContext.builder().previousBackoffDelay(5000).build();
+        boolean sawDelayAboveFirstRetryBound = false;
+        for (int i = 0; i < 1000; i++) {
+            long delay = adapter.computeDelayBeforeNextRetry(context);
+            assertTrue(delay >= 100 && delay <= 15000);
+            sawDelayAboveFirstRetryBound |= delay > 300;
+        }
+        assertTrue(sawDelayAboveFirstRetryBound);
+    }
+
+    @Test
+    public void legacyMethod_HasNoPreviousDelay() {
+        RetryPolicy.BackoffStrategy strategy = new DecorrelatedJitterBackoffStrategy(100, 20000);
+        for (int i = 0; i < 1000; i++) {
+            long delay = strategy.delayBeforeNextRetry(null, null, 5);
+            assertTrue(delay >= 100 && delay <= 300);
+        }
+    }
+}
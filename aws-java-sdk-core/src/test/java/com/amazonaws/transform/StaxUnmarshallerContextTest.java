@@ -0,0 +1,180 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+import com.amazonaws.util.XmlUtils;
+
+public class StaxUnmarshallerContextTest {
+
+    private static final String XML =
+            "<DescribeInstancesResponse xmlns=\"http://ec2.amazonaws.com/doc/2016-11-15/\">"
+            + "<requestId>req-id</requestId>"
+            + "<reservationSet><item>"
+            + "<reservationId>r-1</reservationId>"
+            + "<instancesSet><item><instanceId>i-1</instanceId>"
+            + "<tagSet><item><key>Name</key><value>web</value></item></tagSet>"
+            + "</item></instancesSet>"
+            + "</item></reservationSet>"
+            + "<Grantee type=\"CanonicalUser\" id=\"abc\"><ID>owner</ID><DisplayName>me</DisplayName></Grantee>"
+            + "</DescribeInstancesResponse>";
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            ".", "", "item", "Item", "tem", "/item", "requestId", "reservationSet/item",
+            "reservationSet/item/reservationId", "instancesSet/item/instanceId", "item/instanceId",
+            "tagSet/item/key", "tagSet/item/value", "Id", "instanceId", "Grantee/@type", "@type",
+            "Grantee/@id", "@id", "ID", "Grantee/ID", "@type/ID", "Grantee/@type/ID", "type",
+            "DescribeInstancesResponse", "DescribeInstancesResponse/requestId", "/DescribeInstancesResponse");
+
+    /**
+     * Checks every expression at every position of the document against the string based path
+     * matching the context used to do.
+     */
+    @Test
+    public void testExpression_MatchesStringBasedPath() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        ReferencePath reference = new ReferencePath();
+        int positions = 0;
+        while (true) {
+            XMLEvent event = context.nextEvent();
+            if (event.isEndDocument()) {
+                break;
+            }
+            reference.update(event);
+            positions++;
+            assertEquals(reference.stack.size(), context.getCurrentDepth());
+            for (String expression : EXPRESSIONS) {
+                assertEquals(expression + " at " + reference.path,
+                             reference.testExpression(expression), context.testExpression(expression));
+                for (int depth = 0; depth <= 6; depth++) {
+                    assertEquals(expression + " from depth " + depth + " at " + reference.path,
+                                 reference.testExpression(expression, depth),
+                                 context.testExpression(expression, depth));
+                }
+            }
+        }
+        assertTrue(positions > 0);
+    }
+
+    @Test
+    public void testExpression_AttributeAndChildElements() throws Exception {
+        StaxUnmarshallerContext context = newContext("<a><b x=\"1\"><c>text</c></b></a>");
+        advanceTo(context, "c");
+
+        assertTrue(context.testExpression("c", 3));
+        assertTrue(context.testExpression("b/@x/c"));
+        assertFalse(context.testExpression("b/c"));
+        assertEquals("text", context.readText());
+    }
+
+    @Test
+    public void deeplyNestedDocument_TracksDepth() throws Exception {
+        StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            xml.append("<e").append(i).append('>');
+        }
+        for (int i = 39; i >= 0; i--) {
+            xml.append("</e").append(i).append('>');
+        }
+        StaxUnmarshallerContext context = newContext(xml.toString());
+        advanceTo(context, "e39");
+
+        assertEquals(40, context.getCurrentDepth());
+        assertTrue(context.testExpression("e38/e39", 39));
+        assertFalse(context.testExpression("e0/e1", 0));
+    }
+
+    @Test
+    public void metadataExpression_CollectsMatchingElementText() throws Exception {
+        StaxUnmarshallerContext context = newContext(XML);
+        context.registerMetadataExpression("requestId", 2, "AWS_REQUEST_ID");
+        context.registerMetadataExpression("ResponseMetadata/RequestId", 2, "UNMATCHED");
+        while (!context.nextEvent().isEndDocument()) {
+        }
+
+        assertEquals("req-id", context.getMetadata().get("AWS_REQUEST_ID"));
+        assertFalse(context.getMetadata().containsKey("UNMATCHED"));
+    }
+
+    private static StaxUnmarshallerContext newContext(String xml) throws Exception {
+        return new StaxUnmarshallerContext(
+                XmlUtils.getXmlInputFactory().createXMLEventReader(new StringReader(xml)));
+    }
+
+    private static void advanceTo(StaxUnmarshallerContext context, String elementName) throws Exception {
+        while (true) {
+            XMLEvent event = context.nextEvent();
+            if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals(elementName)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The string based path the context used to build for every event.
+     */
+    private static class ReferencePath {
+        private final Stack<String> stack = new Stack<String>();
+        private String path = "";
+
+        private void update(XMLEvent event) {
+            if (event.isEndElement()) {
+                stack.pop();
+                path = "";
+                for (String s : stack) {
+                    path += "/" + s;
+                }
+            } else if (event.isStartElement()) {
+                stack.push(event.asStartElement().getName().getLocalPart());
+                path += "/" + event.asStartElement().getName().getLocalPart();
+            } else if (event.isAttribute()) {
+                path = "";
+                for (String s : stack) {
+                    path += "/" + s;
+                }
+                path += "/@" + ((Attribute) event).getName().getLocalPart();
+            }
+        }
+
+        private boolean testExpression(String expression) {
+            if (expression.equals(".")) return true;
+            return path.endsWith(expression);
+        }
+
+        private boolean testExpression(String expression, int startingStackDepth) {
+            if (expression.equals(".")) return true;
+            int index = -1;
+            while ((index = expression.indexOf("/", index + 1)) > -1) {
+                if (expression.charAt(index + 1) != '@') {
+                    startingStackDepth++;
+                }
+            }
+            return startingStackDepth == stack.size() && path.endsWith("/" + expression);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.amazonaws.transform.MapUnmarshaller;
 import com.amazonaws.transform.SimpleTypeJsonUnmarshallers;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.Collections;
@@ -100,6 +101,31 @@ public class JsonUnmarshallerTest {
         assertEquals("toDecode", value);
     }
 
+    @Test
+    public void testDeeplyNestedDocumentTracksPath() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            body.append("{\"f").append(i).append("\" : [");
+        }
+        body.append("\"leaf\"");
+        for (int i = 0; i < 20; i++) {
+            body.append("]}");
+        }
+        JsonUnmarshallerContext context = setupUnmarshaller(body.toString(), EMPTY_HEADERS);
+
+        while (context.nextToken() != JsonToken.VALUE_STRING) {
+        }
+        assertEquals(20, context.getCurrentDepth());
+        assertTrue(context.testExpression("f19", 20));
+        assertEquals("f19", context.getCurrentParentElement());
+        assertEquals("leaf", context.readText());
+
+        assertEquals(JsonToken.END_ARRAY, context.nextToken());
+        assertEquals("f19", context.getLastParsedParentElement());
+        assertEquals(19, context.getCurrentDepth());
+        assertEquals("f18", context.getCurrentParentElement());
+    }
+
     private JsonUnmarshallerContext setupUnmarshaller(String body, Map<String, String> headers) throws Exception {
         HttpResponse httpResponse = new HttpResponse(null, null);
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ByteArrayPoolTest {
+
+    @Test
+    public void acquire_RoundsUpToSizeClass() {
+        ByteArrayPool pool = new ByteArrayPool(ByteArrayPool.DEFAULT_MAX_POOLED_BYTES);
+        assertEquals(ByteArrayPool.MIN_ARRAY_SIZE, pool.acquire(1).length);
+        assertEquals(ByteArrayPool.MIN_ARRAY_SIZE, pool.acquire(ByteArrayPool.MIN_ARRAY_SIZE).length);
+        assertEquals(2 * ByteArrayPool.MIN_ARRAY_SIZE, pool.acquire(ByteArrayPool.MIN_ARRAY_SIZE + 1).length);
+        assertEquals(ByteArrayPool.MAX_ARRAY_SIZE, pool.acquire(ByteArrayPool.MAX_ARRAY_SIZE).length);
+        assertEquals(ByteArrayPool.MAX_ARRAY_SIZE + 1, pool.acquire(ByteArrayPool.MAX_ARRAY_SIZE + 1).length);
+        assertEquals(5, pool.getMissCount());
+    }
+
+    @Test
+    public void releasedArray_IsReused() {
+        ByteArrayPool pool = new ByteArrayPool(ByteArrayPool.DEFAULT_MAX_POOLED_BYTES);
+        byte[] array = pool.acquire(10000);
+        pool.release(array);
+        assertEquals(array.length, pool.getPooledBytes());
+
+        assertSame(array, pool.acquire(9000));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void unpoolableArrays_AreDiscarded() {
+        ByteArrayPool pool = new ByteArrayPool(ByteArrayPool.DEFAULT_MAX_POOLED_BYTES);
+        pool.release(new byte[100]);
+        pool.release(new byte[ByteArrayPool.MIN_ARRAY_SIZE + 1]);
+        pool.release(new byte[2 * ByteArrayPool.MAX_ARRAY_SIZE]);
+        assertEquals(3, pool.getDiscardCount());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void pool_IsBoundedPerSizeClass() {
+        // Room for two arrays of the smallest size class
+        ByteArrayPool pool = new ByteArrayPool(6 * 2 * ByteArrayPool.MIN_ARRAY_SIZE);
+        for (int i = 0; i < 3; i++) {
+            pool.release(new byte[ByteArrayPool.MIN_ARRAY_SIZE]);
+        }
+        pool.release(new byte[ByteArrayPool.MAX_ARRAY_SIZE]);
+        assertEquals(2 * ByteArrayPool.MIN_ARRAY_SIZE, pool.getPooledBytes());
+        assertEquals(2, pool.getDiscardCount());
+    }
+
+    @Test
+    public void emptyPool_NeverReusesArrays() {
+        ByteArrayPool pool = new ByteArrayPool(0);
+        byte[] array = pool.acquire(1);
+        pool.release(array);
+        assertNotSame(array, pool.acquire(1));
+        assertEquals(1, pool.getDiscardCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeCapacity_IsRejected() {
+        new ByteArrayPool(-1);
+    }
+}
@@ -15,6 +15,17 @@
 
 package com.amazonaws.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -69,4 +80,68 @@ public class CapacityManagerTest {
         Assert.assertEquals(mgr.consumedCapacity(), 0);
     }
 
+    /**
+     * Tests that concurrent acquire and release calls contending at the limit
+     * neither lose nor over-grant capacity.
+     */
+    @Test
+    public void concurrentAcquireAndRelease() throws Exception {
+        final int threads = 8;
+        final int unitsPerAcquire = 5;
+        final int maxHolders = 2;
+        final int acquiresPerThread = 200;
+        final CapacityManager mgr = new CapacityManager(unitsPerAcquire * maxHolders);
+        final AtomicInteger holders = new AtomicInteger();
+        final AtomicInteger mostHolders = new AtomicInteger();
+        final AtomicInteger denied = new AtomicInteger();
+        final AtomicBoolean overdrawn = new AtomicBoolean();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int acquired = 0;
+                        while (acquired < acquiresPerThread && System.nanoTime() < deadline) {
+                            if (mgr.acquire(unitsPerAcquire)) {
+                                acquired++;
+                                int current = holders.incrementAndGet();
+                                for (int most = mostHolders.get(); current > most; most = mostHolders.get()) {
+                                    mostHolders.compareAndSet(most, current);
+                                }
+                                if (mgr.availableCapacity() < 0) {
+                                    overdrawn.set(true);
+                                }
+                                // Hold the capacity long enough for the other threads to run into the limit.
+                                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                                holders.decrementAndGet();
+                                mgr.release(unitsPerAcquire);
+                            } else {
+                                denied.incrementAndGet();
+                            }
+                        }
+                        return acquired;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(acquiresPerThread, future.get().intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue("acquires never contended at the limit", denied.get() > 0);
+        Assert.assertFalse("capacity was overdrawn", overdrawn.get());
+        Assert.assertTrue("capacity was overdrawn", mostHolders.get() <= maxHolders);
+        Assert.assertEquals(unitsPerAcquire * maxHolders, mgr.availableCapacity());
+        Assert.assertEquals(0, mgr.consumedCapacity());
+        Assert.assertTrue(mgr.acquire(unitsPerAcquire * maxHolders));
+        Assert.assertFalse(mgr.acquire(1));
+    }
+
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+
+public class PooledByteArrayOutputStreamTest {
+
+    private final ByteArrayPool pool = new ByteArrayPool(ByteArrayPool.DEFAULT_MAX_POOLED_BYTES);
+
+    @Test
+    public void growingBuffer_KeepsContentAndRecyclesOutgrownBuffers() throws IOException {
+        byte[] data = randomBytes(3 * ByteArrayPool.MIN_ARRAY_SIZE + 17);
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        out.write(data[0]);
+        out.write(data, 1, data.length - 1);
+
+        assertEquals(data.length, out.size());
+        assertArrayEquals(data, out.toByteArray());
+        // The initial 4 KiB buffer was given back when growing straight to 16 KiB
+        assertEquals(ByteArrayPool.MIN_ARRAY_SIZE, pool.getPooledBytes());
+
+        out.release();
+        assertEquals(5 * ByteArrayPool.MIN_ARRAY_SIZE, pool.getPooledBytes());
+    }
+
+    @Test
+    public void readFrom_ReadsWholeStream() throws IOException {
+        byte[] data = randomBytes(100 * 1024 + 1);
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        assertEquals(data.length, out.readFrom(new ByteArrayInputStream(data)));
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void close_DoesNotReleaseBuffer() throws IOException {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        out.write(1);
+        out.close();
+        out.write(2);
+        assertArrayEquals(new byte[] {1, 2}, out.toByteArray());
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void release_IsIdempotent() {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        out.release();
+        out.release();
+        assertEquals(ByteArrayPool.MIN_ARRAY_SIZE, pool.getPooledBytes());
+    }
+
+    @Test(expected = IOException.class)
+    public void write_AfterRelease_Fails() throws IOException {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        out.release();
+        out.write(1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void toByteArray_AfterRelease_Fails() {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool);
+        out.release();
+        out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
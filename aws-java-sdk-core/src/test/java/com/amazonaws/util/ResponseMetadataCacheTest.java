@@ -19,10 +19,14 @@
 package com.amazonaws.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
 
@@ -78,6 +82,91 @@ public class ResponseMetadataCacheTest {
         assertNull(cache.get(key));
     }
 
+    /** Tests that re-adding a request returns its newest metadata. */
+    @Test
+    public void testReAddReturnsNewestMetadata() {
+        ResponseMetadataCache cache = new ResponseMetadataCache(3);
+        AmazonWebServiceRequest key = new TestRequest();
+        ResponseMetadata metadata1 = newResponseMetadata();
+        ResponseMetadata metadata2 = newResponseMetadata();
+
+        cache.add(key, metadata1);
+        cache.add(key, metadata2);
+        assertEquals(metadata2, cache.get(key));
+        assertNull(cache.get(new TestRequest()));
+        assertNull(cache.get(null));
+    }
+
+    /** Tests that a delayed add doesn't overwrite the newer entry in its slot. */
+    @Test
+    public void testDelayedAddKeepsNewerEntries() {
+        ResponseMetadataCache cache = new ResponseMetadataCache(3);
+        List<AmazonWebServiceRequest> keys = new ArrayList<AmazonWebServiceRequest>();
+        for (int i = 0; i < 4; i++) {
+            AmazonWebServiceRequest key = new TestRequest();
+            cache.add(key, newResponseMetadata());
+            keys.add(key);
+        }
+
+        // A writer that took sequence number 0 but only stores its entry now
+        AmazonWebServiceRequest delayed = new TestRequest();
+        cache.add(0, delayed, newResponseMetadata());
+
+        assertNull(cache.get(delayed));
+        for (AmazonWebServiceRequest key : keys.subList(1, 4)) {
+            assertNotNull(cache.get(key));
+        }
+    }
+
+    /** Tests that after concurrent adds exactly the last N adds are retrievable. */
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        final int threads = 4;
+        final int addsPerThread = 10000;
+        final int maxEntries = 8;
+        final ResponseMetadataCache cache = new ResponseMetadataCache(maxEntries);
+        final List<List<AmazonWebServiceRequest>> keys = new ArrayList<List<AmazonWebServiceRequest>>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final List<AmazonWebServiceRequest> threadKeys = new ArrayList<AmazonWebServiceRequest>();
+            keys.add(threadKeys);
+            Thread worker = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < addsPerThread; i++) {
+                        AmazonWebServiceRequest key = new TestRequest();
+                        threadKeys.add(key);
+                        cache.add(key, newResponseMetadata());
+                    }
+                }
+            };
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Every slot ends up with the entry of the highest sequence number that maps to it, so
+        // the cache holds exactly the last maxEntries adds, whichever threads they came from
+        int found = 0;
+        for (List<AmazonWebServiceRequest> threadKeys : keys) {
+            for (AmazonWebServiceRequest key : threadKeys) {
+                if (cache.get(key) != null) {
+                    found++;
+                }
+            }
+        }
+        assertEquals(maxEntries, found);
+    }
+
     private class TestRequest extends AmazonWebServiceRequest {}
 
     private ResponseMetadata newResponseMetadata() {
@@ -18,6 +18,9 @@
  */
 package com.amazonaws.util;
 
+import java.net.URLEncoder;
+import java.util.Random;
+
 import org.junit.*;
 
 public class SdkHttpUtilsTest {
@@ -96,6 +99,41 @@ public class SdkHttpUtilsTest {
                             SdkHttpUtils.urlEncode(test, false));
     }
 
+    @Test
+    public void testEncodingNonAscii() {
+        Assert.assertEquals("caf%C3%A9%20%F0%9F%98%80/%E2%82%AC",
+                            SdkHttpUtils.urlEncode("caf\u00e9 \ud83d\ude00/\u20ac", true));
+        // Unpaired surrogates can't be encoded in UTF-8 and are replaced with '?'
+        Assert.assertEquals("a%3Fb", SdkHttpUtils.urlEncode("a\ud83db", false));
+    }
+
+    @Test
+    public void testEncodingMatchesUrlEncoderWithFixUps() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            char[] chars = new char[random.nextInt(20)];
+            for (int j = 0; j < chars.length; j++) {
+                // Mostly ASCII, with some Latin-1, BMP and surrogate characters
+                int kind = random.nextInt(10);
+                chars[j] = (char) (kind < 7 ? random.nextInt(0x80)
+                                 : kind < 8 ? 0x80 + random.nextInt(0x80)
+                                 : kind < 9 ? random.nextInt(0x10000)
+                                 : 0xd800 + random.nextInt(0x800));
+            }
+            String value = new String(chars);
+            for (boolean path : new boolean[] {false, true}) {
+                String expected = URLEncoder.encode(value, "UTF-8")
+                        .replace("+", "%20")
+                        .replace("*", "%2A")
+                        .replace("%7E", "~");
+                if (path) {
+                    expected = expected.replace("%2F", "/");
+                }
+                Assert.assertEquals(expected, SdkHttpUtils.urlEncode(value, path));
+            }
+        }
+    }
+
     @Test
     public void testAppendUriNoPath() {
         String host = "foo.com/";
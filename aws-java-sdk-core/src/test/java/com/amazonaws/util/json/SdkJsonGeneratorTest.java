@@ -28,7 +28,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Date;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 public class SdkJsonGeneratorTest {
@@ -136,6 +138,19 @@ public class SdkJsonGeneratorTest {
         assertEquals(3, node.size());
     }
 
+    @Test
+    public void getBytes_CalledRepeatedly_ReturnsNewArrayWithSameContent() throws IOException {
+        jsonGenerator.writeStartArray();
+        for (int i = 0; i < 10000; i++) {
+            jsonGenerator.writeValue(i);
+        }
+        byte[] first = jsonGenerator.getBytes();
+        byte[] second = jsonGenerator.getBytes();
+        assertNotSame(first, second);
+        assertArrayEquals(first, second);
+        assertEquals(10000, MAPPER.readTree(second).size());
+    }
+
     private JsonNode toJsonNode() throws IOException {
         return MAPPER.readTree(jsonGenerator.getBytes());
     }
@@ -16,7 +16,7 @@ package com.amazonaws.services.glacier.transfer;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
 import static com.amazonaws.event.SDKProgressPublisher.publishResponseBytesDiscarded;
-import static com.amazonaws.internal.ResettableInputStream.newResettableInputStream;
+import static com.amazonaws.internal.FileRegionInputStream.newFileRegionInputStream;
 import static com.amazonaws.util.IOUtils.closeQuietly;
 import static com.amazonaws.util.IOUtils.release;
 import static com.amazonaws.util.Throwables.failure;
@@ -44,7 +44,7 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListener;
-import com.amazonaws.internal.ResettableInputStream;
+import com.amazonaws.internal.FileRegionInputStream;
 import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.services.glacier.AmazonGlacier;
 import com.amazonaws.services.glacier.AmazonGlacierClient;
@@ -65,7 +65,6 @@ import com.amazonaws.services.glacier.model.JobParameters;
 import com.amazonaws.services.glacier.model.UploadArchiveRequest;
 import com.amazonaws.services.glacier.model.UploadArchiveResult;
 import com.amazonaws.services.glacier.model.UploadMultipartPartRequest;
-import com.amazonaws.services.s3.internal.InputSubstream;
 import com.amazonaws.services.sns.AmazonSNSClient;
 import com.amazonaws.services.sqs.AmazonSQSClient;
 import com.amazonaws.util.BinaryUtils;
@@ -729,12 +728,11 @@ public class ArchiveTransferManager {
                 int tries = 0;
                     while (!completed && tries < 5){
                         tries++;
-                        InputSubstream inputSubStream = null;
+                        FileRegionInputStream inputSubStream = null;
                         try {
-                            inputSubStream = new InputSubstream(
-                                    newResettableInputStream(file, fileNotFoundMsg)
-                                        .disableClose(), // requires explicit release
-                                    currentPosition, length, true);
+                            inputSubStream = newFileRegionInputStream(
+                                    file, currentPosition, length, fileNotFoundMsg)
+                                        .disableClose(); // requires explicit release
                             String checksum = TreeHashGenerator.calculateTreeHash(inputSubStream);
                             byte[] binaryChecksum = BinaryUtils.fromHex(checksum);
                             inputSubStream.reset();
@@ -788,7 +786,7 @@ public class ArchiveTransferManager {
             final String vaultName, final String archiveDescription,
             final File file, ProgressListener progressListener) {
         String checksum = TreeHashGenerator.calculateTreeHash(file);
-        ResettableInputStream is = newResettableInputStream(file);
+        FileRegionInputStream is = newFileRegionInputStream(file, null);
         try {
             publishProgress(progressListener, ProgressEventType.TRANSFER_STARTED_EVENT);
             final UploadArchiveRequest req = new UploadArchiveRequest()
@@ -15,7 +15,7 @@
 package com.amazonaws.services.s3;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
-import static com.amazonaws.internal.ResettableInputStream.newResettableInputStream;
+import static com.amazonaws.internal.FileRegionInputStream.newFileRegionInputStream;
 import static com.amazonaws.services.s3.model.S3DataSource.Utils.cleanupDataSource;
 import static com.amazonaws.util.LengthCheckInputStream.EXCLUDE_SKIPPED_BYTES;
 import static com.amazonaws.util.LengthCheckInputStream.INCLUDE_SKIPPED_BYTES;
@@ -57,9 +57,10 @@ import com.amazonaws.http.ExecutionContext;
 import com.amazonaws.http.HttpMethodName;
 import com.amazonaws.http.HttpResponseHandler;
 import com.amazonaws.internal.DefaultServiceEndpointBuilder;
+import com.amazonaws.internal.FileRegionInputStream;
+import com.amazonaws.internal.PositionedInputStream;
 import com.amazonaws.internal.IdentityEndpointBuilder;
 import com.amazonaws.internal.ReleasableInputStream;
-import com.amazonaws.internal.ResettableInputStream;
 import com.amazonaws.internal.ServiceEndpointBuilder;
 import com.amazonaws.internal.StaticCredentialsProvider;
 import com.amazonaws.internal.auth.SignerProvider;
@@ -82,6 +83,7 @@ import com.amazonaws.services.s3.internal.InitiateMultipartUploadHeaderHandler;
 import com.amazonaws.services.s3.internal.InputSubstream;
 import com.amazonaws.services.s3.internal.ListPartsHeaderHandler;
 import com.amazonaws.services.s3.internal.MD5DigestCalculatingInputStream;
+import com.amazonaws.services.s3.internal.MD5DigestCalculatingObserver;
 import com.amazonaws.services.s3.internal.Mimetypes;
 import com.amazonaws.services.s3.internal.MultiFileOutputStream;
 import com.amazonaws.services.s3.internal.ObjectExpirationHeaderHandler;
@@ -1652,11 +1654,12 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                             "Unable to calculate MD5 hash: " + e.getMessage(), e);
                 }
             }
-            input = newResettableInputStream(file, "Unable to find file to upload");
+            input = newFileRegionInputStream(file, "Unable to find file to upload");
         }
         final ProgressListener listener;
         final ObjectMetadata returnedMetadata;
         MD5DigestCalculatingInputStream md5DigestStream = null;
+        MD5DigestCalculatingObserver md5DigestObserver = null;
         try {
             Request<PutObjectRequest> request = createRequest(bucketName, key, putObjectRequest, HttpMethodName.PUT);
             // Make backward compatible with buffer size via system property
@@ -1711,7 +1714,9 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                          "out of memory errors.");
             } else {
                 final long expectedLength = contentLength.longValue();
-                if (expectedLength >= 0) {
+                // A file or buffer is read as a region of exactly its length, which fails if the
+                // file turns out to be shorter, so it needs no separate length check
+                if (expectedLength >= 0 && !isPositionedContentOfLength(input, expectedLength)) {
                     // Performs length check on the underlying data stream.
                     // For S3 encryption client, the underlying data stream here
                     // refers to the cipher-text data stream (ie not the underlying
@@ -1731,7 +1736,13 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                  * stream in memory just to calculate it. Instead, we can calculate it on the fly
                  * and validate it with the returned ETag from the object upload.
                  */
-                input = md5DigestStream = new MD5DigestCalculatingInputStream(input);
+                if (input instanceof PositionedInputStream) {
+                    // Observed rather than wrapped, so that the content can still be written out directly
+                    md5DigestObserver = new MD5DigestCalculatingObserver();
+                    ((PositionedInputStream) input).addObserver(md5DigestObserver);
+                } else {
+                    input = md5DigestStream = new MD5DigestCalculatingInputStream(input);
+                }
             }
 
             if (metadata.getContentType() == null) {
@@ -1758,6 +1769,8 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         String contentMd5 = metadata.getContentMD5();
         if (md5DigestStream != null) {
             contentMd5 = Base64.encodeAsString(md5DigestStream.getMd5Digest());
+        } else if (md5DigestObserver != null) {
+            contentMd5 = Base64.encodeAsString(md5DigestObserver.getMd5Digest());
         }
 
         final String etag = returnedMetadata.getETag();
@@ -1787,6 +1800,15 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
         return result;
     }
 
+    /**
+     * Returns true if the content is a {@link PositionedInputStream} with
+     * exactly the given number of bytes left to read.
+     */
+    private static boolean isPositionedContentOfLength(InputStream content, long length) {
+        return content instanceof PositionedInputStream
+                && ((PositionedInputStream) content).remaining() == length;
+    }
+
     private static PutObjectResult createPutObjectResult(ObjectMetadata metadata) {
         final PutObjectResult result = new PutObjectResult();
         result.setVersionId(metadata.getVersionId());
@@ -3250,34 +3272,39 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                 if (isOrig == null) {
                     throw new IllegalArgumentException(
                         "A File or InputStream must be specified when uploading part");
+                } else if (uploadPartRequest.getFileOffset() == 0
+                        && isPositionedContentOfLength(isCurr, partSize)) {
+                    // Already exactly the part, e.g. a part buffered in memory, so it is sent as is
+                    // and can be written out directly
                 } else {
                     // When isCurr is a FileInputStream, this wrapping enables
                     // unlimited mark-and-reset
                     isCurr = ReleasableInputStream.wrap(isCurr);
-                }
-                // Make backward compatible with buffer size via system property
-                final Integer bufsize = Constants.getS3StreamBufferSize();
-                if (bufsize != null) {
-                    AmazonWebServiceRequest awsreq = request.getOriginalRequest();
-                    // Note awsreq is never null at this point even if the original
-                    // request was
-                    awsreq.getRequestClientOptions()
-                        .setReadLimit(bufsize.intValue());
+                    // Make backward compatible with buffer size via system property
+                    final Integer bufsize = Constants.getS3StreamBufferSize();
+                    if (bufsize != null) {
+                        AmazonWebServiceRequest awsreq = request.getOriginalRequest();
+                        // Note awsreq is never null at this point even if the original
+                        // request was
+                        awsreq.getRequestClientOptions()
+                            .setReadLimit(bufsize.intValue());
+                    }
+                    isCurr = new InputSubstream(
+                            isCurr,
+                            uploadPartRequest.getFileOffset(),
+                            partSize,
+                            uploadPartRequest.isLastPart());
                 }
             } else {
                 try {
-                    isCurr = new ResettableInputStream(fileOrig);
+                    isCurr = new FileRegionInputStream(fileOrig, uploadPartRequest.getFileOffset(), partSize);
                 } catch(IOException e) {
                     throw new IllegalArgumentException("Failed to open file "
                             + fileOrig, e);
                 }
             }
-            isCurr = new InputSubstream(
-                    isCurr,
-                    uploadPartRequest.getFileOffset(),
-                    partSize,
-                    uploadPartRequest.isLastPart());
             MD5DigestCalculatingInputStream md5DigestStream = null;
+            MD5DigestCalculatingObserver md5DigestObserver = null;
             if (uploadPartRequest.getMd5Digest() == null
                     && !skipMd5CheckStrategy.skipClientSideValidationPerRequest(uploadPartRequest)) {
                 /*
@@ -3285,12 +3312,18 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
                  * stream in memory just to calculate it. Instead, we can calculate it on the fly
                  * and validate it with the returned ETag from the object upload.
                  */
-                isCurr = md5DigestStream = new MD5DigestCalculatingInputStream(isCurr);
+                if (isCurr instanceof PositionedInputStream) {
+                    // Observed rather than wrapped, so that the part can still be written out directly
+                    md5DigestObserver = new MD5DigestCalculatingObserver();
+                    ((PositionedInputStream) isCurr).addObserver(md5DigestObserver);
+                } else {
+                    isCurr = md5DigestStream = new MD5DigestCalculatingInputStream(isCurr);
+                }
             }
             final ProgressListener listener = uploadPartRequest.getGeneralProgressListener();
             publishProgress(listener, ProgressEventType.TRANSFER_PART_STARTED_EVENT);
             return doUploadPart(bucketName, key, uploadId, partNumber,
-                    partSize, request, isCurr, md5DigestStream, listener);
+                    partSize, request, isCurr, md5DigestStream, md5DigestObserver, listener);
         } finally {
             cleanupDataSource(uploadPartRequest, fileOrig, isOrig, isCurr, log);
         }
@@ -3301,15 +3334,18 @@ public class AmazonS3Client extends AmazonWebServiceClient implements AmazonS3 {
             final long partSize, Request<UploadPartRequest> request,
             InputStream inputStream,
             MD5DigestCalculatingInputStream md5DigestStream,
+            MD5DigestCalculatingObserver md5DigestObserver,
             final ProgressListener listener) {
         try {
             request.setContent(inputStream);
             ObjectMetadata metadata = invoke(request, new S3MetadataResponseHandler(), bucketName, key);
             final String etag = metadata.getETag();
 
-            if (md5DigestStream != null
+            if ((md5DigestStream != null || md5DigestObserver != null)
                     && !skipMd5CheckStrategy.skipClientSideValidationPerUploadPartResponse(metadata)) {
-                byte[] clientSideHash = md5DigestStream.getMd5Digest();
+                byte[] clientSideHash = md5DigestStream != null
+                        ? md5DigestStream.getMd5Digest()
+                        : md5DigestObserver.getMd5Digest();
                 byte[] serverSideHash = BinaryUtils.fromHex(etag);
 
                 if (!Arrays.equals(clientSideHash, serverSideHash)) {
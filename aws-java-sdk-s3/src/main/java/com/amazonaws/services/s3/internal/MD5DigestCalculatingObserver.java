@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ * 
+ *  http://aws.amazon.com/apache2.0
+ * 
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.amazonaws.internal.PositionedInputStream;
+
+/**
+ * Calculates the MD5 digest of a {@link PositionedInputStream} as it is read
+ * or written out. Unlike {@link MD5DigestCalculatingInputStream}, it observes
+ * the stream rather than wrapping it, so that the HTTP client can still write
+ * the content out directly.
+ */
+public class MD5DigestCalculatingObserver extends PositionedInputStream.Observer {
+
+    /** The MD5 message digest being calculated. */
+    private MessageDigest digest;
+
+    /**
+     * The MD5 message digest as at the time when the stream was last marked;
+     * null if the stream hasn't been marked, or the digest can't be cloned.
+     */
+    private MessageDigest digestLastMarked;
+
+    /** The number of bytes digested, and the number when the stream was last marked. */
+    private long byteCount;
+    private long byteCountLastMarked;
+
+    public MD5DigestCalculatingObserver() {
+        resetDigest();
+    }
+
+    private void resetDigest() {
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No message digest support for MD5 was found.", e);
+        }
+    }
+
+    public byte[] getMd5Digest() {
+        return digest.digest();
+    }
+
+    @Override
+    public void onBytes(byte[] b, int off, int len) {
+        digest.update(b, off, len);
+        byteCount += len;
+    }
+
+    @Override
+    public void onMark() {
+        byteCountLastMarked = byteCount;
+        try {
+            digestLastMarked = (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            digestLastMarked = null;
+        }
+    }
+
+    /**
+     * Restores the digest as it was when the stream was last marked. Without
+     * digest cloning, this is only possible if the mark was at the start.
+     */
+    @Override
+    public void onReset() {
+        if (byteCountLastMarked == 0) {
+            resetDigest();
+        } else if (digestLastMarked != null) {
+            try {
+                digest = (MessageDigest) digestLastMarked.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException("Message digest implementation does not support cloning.", e);
+            }
+        } else {
+            throw new IllegalStateException("Message digest implementation does not support cloning.");
+        }
+        byteCount = byteCountLastMarked;
+    }
+}
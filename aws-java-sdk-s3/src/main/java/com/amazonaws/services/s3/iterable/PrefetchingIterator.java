@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.SdkClientException;
+
+/**
+ * Iterates the items of pages fetched one after the other.
+ * <p>
+ * Without an executor, each page is fetched on the iterating thread once the
+ * items of the previous page are used up. With an executor, the fetches a
+ * page leads to are submitted as soon as the page arrives, so the next pages
+ * are fetched while the current one is iterated, and up to the given number
+ * of fetches run at once. Pages are then iterated in the order they arrive.
+ *
+ * @param <P>
+ *            The type of the pages.
+ * @param <T>
+ *            The type of the items.
+ */
+abstract class PrefetchingIterator<P, T> implements Iterator<T> {
+
+    private final Deque<Callable<P>> pendingFetches = new ArrayDeque<Callable<P>>();
+    private final CompletionService<P> completionService;
+    private final int maxFetchesInFlight;
+    private int fetchesInFlight;
+    private Iterator<T> currentIterator = Collections.<T> emptyList().iterator();
+
+    /**
+     * @param executor
+     *            The executor to fetch pages on, or null to fetch them on the
+     *            iterating thread.
+     * @param maxFetchesInFlight
+     *            How many pages may be fetched at once on the executor.
+     */
+    PrefetchingIterator(ExecutorService executor, int maxFetchesInFlight) {
+        this.completionService = executor == null ? null : new ExecutorCompletionService<P>(executor);
+        this.maxFetchesInFlight = maxFetchesInFlight;
+    }
+
+    /**
+     * Returns the items of a page, queuing the fetches the page leads to.
+     */
+    protected abstract Iterable<T> process(P page);
+
+    /**
+     * Queues a fetch ahead of all others, e.g. the next page of a listing.
+     */
+    protected final void fetchFirst(Callable<P> fetch) {
+        pendingFetches.addFirst(fetch);
+    }
+
+    /**
+     * Queues a fetch behind all others, e.g. the first page of a listing.
+     */
+    protected final void fetchLast(Callable<P> fetch) {
+        pendingFetches.addLast(fetch);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ( !currentIterator.hasNext() ) {
+            P page = nextPage();
+            if ( page == null ) {
+                return false;
+            }
+            currentIterator = process(page).iterator();
+            submitPendingFetches();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException();
+        }
+        return currentIterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private P nextPage() {
+        if ( completionService == null ) {
+            Callable<P> fetch = pendingFetches.pollFirst();
+            if ( fetch == null ) {
+                return null;
+            }
+            try {
+                return fetch.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SdkClientException("Unable to fetch the next page: " + e.getMessage(), e);
+            }
+        }
+
+        submitPendingFetches();
+        if ( fetchesInFlight == 0 ) {
+            return null;
+        }
+        Future<P> future;
+        try {
+            future = completionService.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        }
+        fetchesInFlight--;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new SdkClientException("Unable to fetch the next page: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void submitPendingFetches() {
+        if ( completionService == null ) {
+            return;
+        }
+        while ( fetchesInFlight < maxFetchesInFlight && !pendingFetches.isEmpty() ) {
+            completionService.submit(pendingFetches.pollFirst());
+            fetchesInFlight++;
+        }
+    }
+}
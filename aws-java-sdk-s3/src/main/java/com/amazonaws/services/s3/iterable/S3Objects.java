@@ -14,7 +14,12 @@
  */
 package com.amazonaws.services.s3.iterable;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
@@ -34,13 +39,50 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
  * The list of {@link S3ObjectSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
  * {@link S3Objects#withBatchSize(int)} method.
+ * <p>
+ * To avoid waiting for each page in turn, the next page can be fetched in the
+ * background while the current one is iterated, see
+ * {@link S3Objects#withPrefetch(ExecutorService)}. The key space can also be
+ * split into partitions that are listed at the same time, see
+ * {@link S3Objects#withStartAfterPartitions(String...)} and
+ * {@link S3Objects#withDelimiterPartitions(String)}.
  */
 public class S3Objects implements Iterable<S3ObjectSummary> {
 
+    /** The default number of pages fetched at once across partitions. */
+    public static final int DEFAULT_MAX_LISTINGS_IN_FLIGHT = 8;
+
+    /**
+     * Orders keys the way Amazon S3 lists them, by the bytes of their UTF-8
+     * encoding, which is the order of their code points. Unlike
+     * {@link String#compareTo(String)}, this puts characters outside the Basic
+     * Multilingual Plane after those in U+E000 to U+FFFF.
+     */
+    private static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int length = Math.min(a.length(), b.length());
+            int i = 0;
+            while ( i < length ) {
+                int ca = a.codePointAt(i);
+                int cb = b.codePointAt(i);
+                if ( ca != cb ) {
+                    return ca < cb ? -1 : 1;
+                }
+                i += Character.charCount(ca);
+            }
+            return a.length() - b.length();
+        }
+    };
+
     private AmazonS3 s3;
     private String prefix = null;
     private String bucketName;
     private Integer batchSize = null;
+    private ExecutorService executor = null;
+    private int maxListingsInFlight = DEFAULT_MAX_LISTINGS_IN_FLIGHT;
+    private String[] startAfterPartitions = null;
+    private String partitionDelimiter = null;
 
     private S3Objects(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -91,6 +133,75 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return this;
     }
 
+    /**
+     * Fetches pages on the executor given, so that the next page of a listing
+     * is fetched while the current page is iterated. The executor isn't shut
+     * down by the iterators.
+     *
+     * @param executor
+     *            The executor to fetch pages on, or null to fetch each page on
+     *            the iterating thread once it's needed.
+     */
+    public S3Objects withPrefetch(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets how many pages may be fetched at once when fetching pages in the
+     * background. Only partitioned iterations fetch more than one page at a
+     * time.
+     *
+     * @param maxListingsInFlight
+     *            How many pages may be fetched at once.
+     */
+    public S3Objects withMaxListingsInFlight(int maxListingsInFlight) {
+        if ( maxListingsInFlight < 1 ) {
+            throw new IllegalArgumentException("maxListingsInFlight must be at least 1");
+        }
+        this.maxListingsInFlight = maxListingsInFlight;
+        return this;
+    }
+
+    /**
+     * Splits the key space at the keys given, and lists each partition on its
+     * own: the first partition covers the keys up to and including the first
+     * key given, the next the keys after it up to and including the second, and
+     * so on. With {@link #withPrefetch(ExecutorService)}, the partitions are
+     * listed at the same time and their object summaries are interleaved in
+     * the order their pages arrive; each partition is still iterated in key
+     * order. The keys are ordered by their UTF-8 bytes, as Amazon S3 orders
+     * keys. Replaces any partitioning by delimiter.
+     *
+     * @param startAfterKeys
+     *            The keys to split the key space after.
+     */
+    public S3Objects withStartAfterPartitions(String... startAfterKeys) {
+        this.startAfterPartitions = startAfterKeys == null ? null : startAfterKeys.clone();
+        if ( startAfterPartitions != null ) {
+            Arrays.sort(startAfterPartitions, KEY_ORDER);
+        }
+        this.partitionDelimiter = null;
+        return this;
+    }
+
+    /**
+     * Lists the prefix with the delimiter given first, and each common prefix
+     * found on its own, so that the key space is split into partitions along
+     * the delimiter. With {@link #withPrefetch(ExecutorService)}, the
+     * partitions are listed at the same time and their object summaries are
+     * interleaved in the order their pages arrive; each partition is still
+     * iterated in key order. Replaces any partitioning by start-after keys.
+     *
+     * @param delimiter
+     *            The delimiter to split the key space along, e.g. "/".
+     */
+    public S3Objects withDelimiterPartitions(String delimiter) {
+        this.partitionDelimiter = delimiter;
+        this.startAfterPartitions = null;
+        return this;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
@@ -107,44 +218,89 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return s3;
     }
 
-    private class S3ObjectIterator implements Iterator<S3ObjectSummary> {
+    public ExecutorService getPrefetchExecutor() {
+        return executor;
+    }
 
-        private ObjectListing currentListing = null;
+    public int getMaxListingsInFlight() {
+        return maxListingsInFlight;
+    }
 
-        private Iterator<S3ObjectSummary> currentIterator = null;
+    /**
+     * A page of a listing, along with the last key of its partition.
+     */
+    private static final class Page {
+        private final ObjectListing listing;
+        private final String lastKey;
 
-        @Override
-        public boolean hasNext() {
-            prepareCurrentListing();
-            return currentIterator.hasNext();
+        private Page(ObjectListing listing, String lastKey) {
+            this.listing = listing;
+            this.lastKey = lastKey;
         }
+    }
 
-        @Override
-        public S3ObjectSummary next() {
-            prepareCurrentListing();
-            return currentIterator.next();
+    private class S3ObjectIterator extends PrefetchingIterator<Page, S3ObjectSummary> {
+
+        private S3ObjectIterator() {
+            super(getPrefetchExecutor(), getPrefetchExecutor() == null ? 1 : getMaxListingsInFlight());
+
+            if ( partitionDelimiter != null ) {
+                fetchLast(firstPage(getPrefix(), partitionDelimiter, null, null));
+            } else if ( startAfterPartitions != null ) {
+                String startAfter = null;
+                for ( String lastKey : startAfterPartitions ) {
+                    fetchLast(firstPage(getPrefix(), null, startAfter, lastKey));
+                    startAfter = lastKey;
+                }
+                fetchLast(firstPage(getPrefix(), null, startAfter, null));
+            } else {
+                fetchLast(firstPage(getPrefix(), null, null, null));
+            }
         }
 
         @Override
-        public void remove() {
-            throw new UnsupportedOperationException();
+        protected Iterable<S3ObjectSummary> process(Page page) {
+            ObjectListing listing = page.listing;
+            for ( String commonPrefix : listing.getCommonPrefixes() ) {
+                fetchLast(firstPage(commonPrefix, null, null, null));
+            }
+
+            List<S3ObjectSummary> summaries = listing.getObjectSummaries();
+            if ( page.lastKey != null ) {
+                for ( int i = 0; i < summaries.size(); i++ ) {
+                    if ( KEY_ORDER.compare(summaries.get(i).getKey(), page.lastKey) > 0 ) {
+                        return summaries.subList(0, i);
+                    }
+                }
+            }
+            if ( listing.isTruncated() ) {
+                fetchFirst(nextPage(listing, page.lastKey));
+            }
+            return summaries;
         }
 
-        private void prepareCurrentListing() {
-            while ( currentListing == null || (!currentIterator.hasNext() && currentListing.isTruncated()) ) {
-
-                if ( currentListing == null ) {
-                    ListObjectsRequest req = new ListObjectsRequest();
-                    req.setBucketName(getBucketName());
-                    req.setPrefix(getPrefix());
-                    req.setMaxKeys(getBatchSize());
-                    currentListing = getS3().listObjects(req);
-                } else {
-                    currentListing = getS3().listNextBatchOfObjects(currentListing);
+        private Callable<Page> firstPage(String prefix, String delimiter, String marker, final String lastKey) {
+            final ListObjectsRequest req = new ListObjectsRequest();
+            req.setBucketName(getBucketName());
+            req.setPrefix(prefix);
+            req.setDelimiter(delimiter);
+            req.setMarker(marker);
+            req.setMaxKeys(getBatchSize());
+            return new Callable<Page>() {
+                @Override
+                public Page call() {
+                    return new Page(getS3().listObjects(req), lastKey);
                 }
+            };
+        }
 
-                currentIterator = currentListing.getObjectSummaries().iterator();
-            }
+        private Callable<Page> nextPage(final ObjectListing listing, final String lastKey) {
+            return new Callable<Page>() {
+                @Override
+                public Page call() {
+                    return new Page(getS3().listNextBatchOfObjects(listing), lastKey);
+                }
+            };
         }
 
     }
@@ -15,6 +15,9 @@
 package com.amazonaws.services.s3.iterable;
 
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListVersionsRequest;
@@ -33,7 +36,9 @@ import com.amazonaws.services.s3.model.VersionListing;
  * <p>
  * The list of {@link S3VersionSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
- * {@link S3Versions#withBatchSize(int)} method.
+ * {@link S3Versions#withBatchSize(int)} method, and the next page can be
+ * fetched in the background while the current one is iterated with the
+ * {@link S3Versions#withPrefetch(ExecutorService)} method.
  */
 public class S3Versions implements Iterable<S3VersionSummary> {
 
@@ -42,6 +47,7 @@ public class S3Versions implements Iterable<S3VersionSummary> {
     private String prefix;
     private String key;
     private Integer batchSize;
+    private ExecutorService executor;
 
     private S3Versions(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -111,6 +117,20 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return this;
     }
 
+    /**
+     * Fetches pages on the executor given, so that the next page is fetched
+     * while the current page is iterated. The executor isn't shut down by the
+     * iterators.
+     *
+     * @param executor
+     *            The executor to fetch pages on, or null to fetch each page on
+     *            the iterating thread once it's needed.
+     */
+    public S3Versions withPrefetch(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
@@ -131,68 +151,54 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return bucketName;
     }
 
-    private class VersionIterator implements Iterator<S3VersionSummary> {
-
-        private VersionListing currentListing = null;
-        private Iterator<S3VersionSummary> currentIterator = null;
-        private S3VersionSummary nextSummary = null;
+    public ExecutorService getPrefetchExecutor() {
+        return executor;
+    }
 
-        @Override
-        public boolean hasNext() {
-            prepareCurrentListing();
-            return nextMatchingSummary() != null;
-        }
+    private class VersionIterator extends PrefetchingIterator<VersionListing, S3VersionSummary> {
 
-        @Override
-        public S3VersionSummary next() {
-            prepareCurrentListing();
-            S3VersionSummary returnValue = nextMatchingSummary();
-            nextSummary = null;
-            return returnValue;
-        }
+        private VersionIterator() {
+            super(getPrefetchExecutor(), 1);
 
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException();
-        }
+            final ListVersionsRequest req = new ListVersionsRequest();
+            req.setBucketName(getBucketName());
 
-        private S3VersionSummary nextMatchingSummary() {
-            if (getKey() == null
-                    || (nextSummary != null && nextSummary.getKey().equals(
-                            getKey()))) {
-                return nextSummary;
+            if (getKey() != null) {
+                req.setPrefix(getKey());
             } else {
-                return null;
+                req.setPrefix(getPrefix());
             }
+
+            req.setMaxResults(getBatchSize());
+            fetchLast(new Callable<VersionListing>() {
+                @Override
+                public VersionListing call() {
+                    return getS3().listVersions(req);
+                }
+            });
         }
 
-        private void prepareCurrentListing() {
-            while (currentListing == null
-                    || (!currentIterator.hasNext() && currentListing
-                            .isTruncated())) {
-                if (currentListing == null) {
-                    ListVersionsRequest req = new ListVersionsRequest();
-                    req.setBucketName(getBucketName());
-
-                    if (getKey() != null) {
-                        req.setPrefix(getKey());
-                    } else {
-                        req.setPrefix(getPrefix());
+        @Override
+        protected Iterable<S3VersionSummary> process(final VersionListing listing) {
+            List<S3VersionSummary> summaries = listing.getVersionSummaries();
+            if (getKey() != null) {
+                // Versions are listed in key order, so the versions of the key
+                // end where the first other key under it begins.
+                for (int i = 0; i < summaries.size(); i++) {
+                    if (!summaries.get(i).getKey().equals(getKey())) {
+                        return summaries.subList(0, i);
                     }
-
-                    req.setMaxResults(getBatchSize());
-                    currentListing = getS3().listVersions(req);
-                } else {
-                    currentListing = getS3().listNextBatchOfVersions(
-                            currentListing);
                 }
-                currentIterator = currentListing.getVersionSummaries()
-                        .iterator();
             }
-
-            if (nextSummary == null && currentIterator.hasNext()) {
-                nextSummary = currentIterator.next();
+            if (listing.isTruncated()) {
+                fetchFirst(new Callable<VersionListing>() {
+                    @Override
+                    public VersionListing call() {
+                        return getS3().listNextBatchOfVersions(listing);
+                    }
+                });
             }
+            return summaries;
         }
 
     }
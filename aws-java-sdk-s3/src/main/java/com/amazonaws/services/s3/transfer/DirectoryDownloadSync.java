@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017. Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileDownloadImpl;
+
+/**
+ * Downloads the objects under a key prefix that differ from the files of a
+ * local directory. The sync follows the virtual directory tree: every virtual
+ * subdirectory is listed, local directories are created as needed, and files
+ * without an object are left alone.
+ */
+final class DirectoryDownloadSync extends DirectorySync<MultipleFileDownloadImpl> {
+
+    private static final Log log = LogFactory.getLog(DirectoryDownloadSync.class);
+
+    private final Queue<DownloadImpl> downloads;
+    private File destinationDirectory;
+
+    DirectoryDownloadSync(TransferManager transferManager, String bucketName, String keyPrefix,
+            boolean includeSubdirectories, SyncComparison comparison) {
+        this(transferManager, bucketName, keyPrefix, includeSubdirectories, comparison, new TransferProgress(),
+                new ProgressListenerChain(), new ConcurrentLinkedQueue<DownloadImpl>());
+    }
+
+    private DirectoryDownloadSync(TransferManager transferManager, String bucketName, String keyPrefix,
+            boolean includeSubdirectories, SyncComparison comparison, TransferProgress progress,
+            ProgressListenerChain additionalListeners, Queue<DownloadImpl> downloads) {
+        super(transferManager, bucketName, keyPrefix, includeSubdirectories, comparison, progress,
+                additionalListeners, new MultipleFileDownloadImpl("Syncing from " + bucketName + "/" + keyPrefix,
+                        progress, additionalListeners, keyPrefix, bucketName, downloads), downloads);
+        this.downloads = downloads;
+    }
+
+    /**
+     * Starts listing the virtual directory and returns the transfer of all
+     * downloads the listing starts.
+     */
+    MultipleFileDownload start(File destinationDirectory) {
+        this.destinationDirectory = destinationDirectory;
+        syncLater(destinationDirectory, "", destinationDirectory.isDirectory());
+        return transfer;
+    }
+
+    @Override
+    protected void syncDirectory(File directory, String relativePrefix, boolean mayExistLocally)
+            throws IOException {
+        String prefix = keyPrefix + relativePrefix;
+        List<S3ObjectSummary> objects = new ArrayList<S3ObjectSummary>();
+        Set<String> commonPrefixes = new HashSet<String>();
+        ObjectListing listing = null;
+        do {
+            if ( listing == null ) {
+                listing = s3.listObjects(new ListObjectsRequest().withBucketName(bucketName)
+                        .withDelimiter(DELIMITER).withPrefix(prefix));
+            } else {
+                listing = s3.listNextBatchOfObjects(listing);
+            }
+            objects.addAll(listing.getObjectSummaries());
+            commonPrefixes.addAll(listing.getCommonPrefixes());
+        } while ( listing.isTruncated() );
+
+        if ( includeSubdirectories ) {
+            for ( String commonPrefix : commonPrefixes ) {
+                String childPrefix = commonPrefix.substring(keyPrefix.length());
+                File child = localFile(childPrefix);
+                syncLater(child, childPrefix, mayExistLocally && child.isDirectory());
+            }
+        }
+
+        boolean directoryCreated = false;
+        for ( S3ObjectSummary object : objects ) {
+            String key = object.getKey();
+            // Skip any objects that are also virtual directories, since we
+            // can't save both a directory and a file of the same name.
+            if ( key.equals(prefix) || commonPrefixes.contains(key + DELIMITER) ) {
+                log.debug("Skipping download for object " + key + " since it is also a virtual directory");
+                continue;
+            }
+
+            File file = localFile(key.substring(keyPrefix.length()));
+            if ( mayExistLocally && file.exists() ) {
+                if ( !file.isFile() ) {
+                    log.debug("Skipping download for object " + key + " since " + file + " isn't a file");
+                    continue;
+                }
+                if ( !differs(file, object) ) {
+                    continue;
+                }
+            }
+
+            if ( !directoryCreated ) {
+                if ( !directory.mkdirs() && !directory.isDirectory() ) {
+                    throw new SdkClientException("Couldn't create directory " + directory.getAbsolutePath());
+                }
+                directoryCreated = true;
+            }
+            download(object, file);
+        }
+    }
+
+    @Override
+    protected boolean isSourceNewer(File file, S3ObjectSummary object) {
+        return object.getLastModified() == null || object.getLastModified().getTime() > file.lastModified();
+    }
+
+    /**
+     * Returns the local file for the key, relative to the key prefix synced
+     * with.
+     */
+    private File localFile(String relativeKey) {
+        if ( transferManager.leavesRoot(destinationDirectory, relativeKey) ) {
+            throw new SdkClientException("Cannot download key " + keyPrefix + relativeKey
+                    + ", its relative path resolves outside the parent directory.");
+        }
+        return new File(destinationDirectory, relativeKey);
+    }
+
+    private void download(S3ObjectSummary object, File file) {
+        addBytesToTransfer(object.getSize());
+        downloads.add((DownloadImpl) transferManager.doDownload(
+                new GetObjectRequest(bucketName, object.getKey())
+                        .<GetObjectRequest> withGeneralProgressListener(progressListener),
+                file, stateListener, null, false, 0, null, 0L, false));
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2017. Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.event.ProgressListener;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.AbstractTransfer;
+import com.amazonaws.services.s3.transfer.internal.DirectorySyncMonitor;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileTransfer;
+import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Md5Utils;
+
+/**
+ * Transfers the files that differ between a local directory and the objects
+ * under a key prefix, in one direction.
+ * <p>
+ * Each directory is synced with its own delimited listing of the matching
+ * virtual directory, on a small pool of listing threads, so subdirectories
+ * are listed in parallel. The transfers of a directory are started as soon as
+ * it has been compared, while other directories are still being listed.
+ * Nothing is ever deleted on either side.
+ *
+ * @param <T>
+ *            The type of the transfer of all the files transferred.
+ */
+abstract class DirectorySync<T extends MultipleFileTransfer<?>> {
+
+    private static final Log log = LogFactory.getLog(DirectorySync.class);
+
+    /** The number of directories listed at the same time. */
+    private static final int LISTING_THREADS = 8;
+
+    static final String DELIMITER = "/";
+
+    protected final TransferManager transferManager;
+    protected final AmazonS3 s3;
+    protected final String bucketName;
+    protected final String keyPrefix;
+    protected final boolean includeSubdirectories;
+    private final SyncComparison comparison;
+    private final long minimumUploadPartSize;
+
+    private final TransferProgress progress;
+    private final AtomicLong totalBytes = new AtomicLong();
+    protected final ProgressListener progressListener;
+    protected final T transfer;
+    private final DirectorySyncMonitor monitor;
+    protected final TransferStateChangeListener stateListener = new SyncStateChangeListener();
+
+    private final ThreadPoolExecutor listingExecutor;
+    private final AtomicInteger pendingDirectories = new AtomicInteger();
+
+    DirectorySync(TransferManager transferManager, String bucketName, String keyPrefix,
+            boolean includeSubdirectories, SyncComparison comparison, TransferProgress progress,
+            ProgressListenerChain additionalListeners, T transfer, Collection<? extends AbstractTransfer> subTransfers) {
+        this.transferManager = transferManager;
+        this.s3 = transferManager.getAmazonS3Client();
+        this.bucketName = bucketName;
+        this.keyPrefix = keyPrefix;
+        this.includeSubdirectories = includeSubdirectories;
+        this.comparison = comparison;
+        this.minimumUploadPartSize = transferManager.getConfiguration().getMinimumUploadPartSize();
+
+        this.progress = progress;
+        progress.setTotalBytesToTransfer(0);
+        this.progressListener = new MultipleFileTransferProgressUpdatingListener(progress, additionalListeners);
+        this.transfer = transfer;
+        this.monitor = new DirectorySyncMonitor(transfer, subTransfers);
+        transfer.setMonitor(monitor);
+
+        this.listingExecutor = new ThreadPoolExecutor(LISTING_THREADS, LISTING_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r);
+                        thread.setDaemon(true);
+                        thread.setName("s3-transfer-manager-sync-" + threadCount.incrementAndGet());
+                        return thread;
+                    }
+                });
+        listingExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Syncs the directory on a listing thread.
+     *
+     * @param directory
+     *            The local directory.
+     * @param relativePrefix
+     *            The key prefix of the matching virtual directory, relative
+     *            to the key prefix synced with.
+     * @param counterpartMayExist
+     *            False if the directory is known to be missing on the side
+     *            being synced to, so nothing in it needs comparing.
+     */
+    protected final void syncLater(final File directory, final String relativePrefix,
+            final boolean counterpartMayExist) {
+        pendingDirectories.incrementAndGet();
+        try {
+            listingExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        syncDirectory(directory, relativePrefix, counterpartMayExist);
+                    } catch (Exception e) {
+                        log.debug("Unable to sync " + directory, e);
+                        monitor.listingFailed(e);
+                    } finally {
+                        directoryDone();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            monitor.listingFailed(e);
+            directoryDone();
+        }
+    }
+
+    /**
+     * Compares the directory with the matching virtual directory, starts the
+     * transfers of the files that differ and syncs the subdirectories with
+     * {@link #syncLater(File, String, boolean)}.
+     */
+    protected abstract void syncDirectory(File directory, String relativePrefix, boolean counterpartMayExist)
+            throws IOException;
+
+    /**
+     * Returns true if the side being synced from was modified after the side
+     * being synced to.
+     */
+    protected abstract boolean isSourceNewer(File file, S3ObjectSummary object);
+
+    /**
+     * Adds the size of a transfer about to be started to the total to
+     * transfer.
+     */
+    protected final void addBytesToTransfer(long bytes) {
+        progress.setTotalBytesToTransfer(totalBytes.addAndGet(bytes));
+    }
+
+    /**
+     * Returns true if the file differs from the object, both of which exist.
+     */
+    protected final boolean differs(File file, S3ObjectSummary object) throws IOException {
+        if ( object.getSize() != file.length() ) {
+            return true;
+        }
+        switch (comparison) {
+        case SIZE:
+            return false;
+        case CHECKSUM:
+            String eTag = computeETag(file, object.getETag());
+            if ( eTag != null ) {
+                return !eTag.equalsIgnoreCase(object.getETag());
+            }
+            return isSourceNewer(file, object);
+        default:
+            return isSourceNewer(file, object);
+        }
+    }
+
+    /**
+     * Computes the ETag the file would have if uploaded the way the object
+     * was, judging by the object's ETag. Returns null if the file would be cut
+     * into a different number of parts than the object.
+     */
+    private String computeETag(File file, String objectETag) throws IOException {
+        int dash = objectETag.indexOf('-');
+        if ( dash < 0 ) {
+            return BinaryUtils.toHex(Md5Utils.computeMD5Hash(file));
+        }
+
+        int partCount;
+        try {
+            partCount = Integer.parseInt(objectETag.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long length = file.length();
+        long partSize = Math.max((length + MAXIMUM_UPLOAD_PARTS - 1) / MAXIMUM_UPLOAD_PARTS, minimumUploadPartSize);
+        if ( partSize <= 0 || (length + partSize - 1) / partSize != partCount ) {
+            return null;
+        }
+
+        MessageDigest partDigest = newMd5();
+        MessageDigest eTagDigest = newMd5();
+        byte[] buffer = new byte[16 * 1024];
+        InputStream in = new FileInputStream(file);
+        try {
+            long partRemaining = partSize;
+            int read;
+            while ( (read = in.read(buffer, 0, (int) Math.min(buffer.length, partRemaining))) != -1 ) {
+                partDigest.update(buffer, 0, read);
+                partRemaining -= read;
+                if ( partRemaining == 0 ) {
+                    eTagDigest.update(partDigest.digest());
+                    partRemaining = partSize;
+                }
+            }
+            if ( partRemaining != partSize ) {
+                eTagDigest.update(partDigest.digest());
+            }
+        } finally {
+            in.close();
+        }
+        return BinaryUtils.toHex(eTagDigest.digest()) + "-" + partCount;
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (Exception e) {
+            throw new SdkClientException("Unable to compute MD5 checksums: " + e.getMessage(), e);
+        }
+    }
+
+    private void directoryDone() {
+        if ( pendingDirectories.decrementAndGet() > 0 ) {
+            return;
+        }
+        listingExecutor.shutdown();
+        synchronized (transfer) {
+            monitor.listingCompleted();
+            if ( monitor.isDone() && !transfer.isDone() ) {
+                collateFinalState();
+            }
+        }
+    }
+
+    private void collateFinalState() {
+        if ( monitor.getListingFailure() != null ) {
+            transfer.setState(TransferState.Failed);
+        } else {
+            transfer.collateFinalState();
+        }
+    }
+
+    /**
+     * Tracks the states of the sub-transfers, which start while the directory
+     * is still being listed.
+     */
+    private final class SyncStateChangeListener implements TransferStateChangeListener {
+        @Override
+        public void transferStateChanged(Transfer subTransfer, TransferState state) {
+            synchronized (transfer) {
+                if ( transfer.getState() == state || transfer.isDone() )
+                    return;
+
+                if ( state == TransferState.InProgress ) {
+                    transfer.setState(state);
+                } else if ( monitor.isDone() ) {
+                    collateFinalState();
+                } else {
+                    transfer.setState(TransferState.InProgress);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017. Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileUploadImpl;
+import com.amazonaws.services.s3.transfer.internal.UploadImpl;
+
+/**
+ * Uploads the files of a local directory that differ from the objects under a
+ * key prefix. The sync follows the local directory tree: virtual directories
+ * without a local counterpart aren't listed, and objects without a local file
+ * are left alone.
+ */
+final class DirectoryUploadSync extends DirectorySync<MultipleFileUploadImpl> {
+
+    private final ObjectMetadataProvider metadataProvider;
+    private final Queue<UploadImpl> uploads;
+
+    DirectoryUploadSync(TransferManager transferManager, String bucketName, String keyPrefix,
+            boolean includeSubdirectories, SyncComparison comparison, ObjectMetadataProvider metadataProvider) {
+        this(transferManager, bucketName, keyPrefix, includeSubdirectories, comparison, metadataProvider,
+                new TransferProgress(), new ProgressListenerChain(), new ConcurrentLinkedQueue<UploadImpl>());
+    }
+
+    private DirectoryUploadSync(TransferManager transferManager, String bucketName, String keyPrefix,
+            boolean includeSubdirectories, SyncComparison comparison, ObjectMetadataProvider metadataProvider,
+            TransferProgress progress, ProgressListenerChain additionalListeners, Queue<UploadImpl> uploads) {
+        super(transferManager, bucketName, keyPrefix, includeSubdirectories, comparison, progress,
+                additionalListeners, new MultipleFileUploadImpl("Syncing to " + bucketName + "/" + keyPrefix,
+                        progress, additionalListeners, keyPrefix, bucketName, uploads), uploads);
+        this.metadataProvider = metadataProvider;
+        this.uploads = uploads;
+    }
+
+    /**
+     * Starts listing the directory and returns the transfer of all uploads
+     * the listing starts.
+     */
+    MultipleFileUpload start(File directory) {
+        syncLater(directory, "", true);
+        return transfer;
+    }
+
+    @Override
+    protected void syncDirectory(File directory, String relativePrefix, boolean mayExistRemotely)
+            throws IOException {
+        String prefix = keyPrefix + relativePrefix;
+        Map<String, S3ObjectSummary> objects = new HashMap<String, S3ObjectSummary>();
+        Set<String> commonPrefixes = new HashSet<String>();
+        if ( mayExistRemotely ) {
+            ObjectListing listing = null;
+            do {
+                if ( listing == null ) {
+                    listing = s3.listObjects(new ListObjectsRequest().withBucketName(bucketName)
+                            .withDelimiter(DELIMITER).withPrefix(prefix));
+                } else {
+                    listing = s3.listNextBatchOfObjects(listing);
+                }
+                for ( S3ObjectSummary summary : listing.getObjectSummaries() ) {
+                    objects.put(summary.getKey().substring(prefix.length()), summary);
+                }
+                commonPrefixes.addAll(listing.getCommonPrefixes());
+            } while ( listing.isTruncated() );
+        }
+
+        File[] found = directory.listFiles();
+        if ( found == null ) {
+            return;
+        }
+        for ( File f : found ) {
+            String name = f.getName();
+            if ( f.isDirectory() ) {
+                if ( includeSubdirectories ) {
+                    String childPrefix = relativePrefix + name + DELIMITER;
+                    syncLater(f, childPrefix, commonPrefixes.contains(keyPrefix + childPrefix));
+                }
+            } else if ( f.isFile() ) {
+                S3ObjectSummary object = objects.get(name);
+                if ( object == null || differs(f, object) ) {
+                    upload(f, prefix + name);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean isSourceNewer(File file, S3ObjectSummary object) {
+        return object.getLastModified() == null || file.lastModified() > object.getLastModified().getTime();
+    }
+
+    private void upload(File file, String key) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if ( metadataProvider != null ) {
+            metadataProvider.provideObjectMetadata(file, metadata);
+        }
+        addBytesToTransfer(file.length());
+        uploads.add((UploadImpl) transferManager.doUpload(
+                new PutObjectRequest(bucketName, key, file)
+                        .withMetadata(metadata)
+                        .<PutObjectRequest> withGeneralProgressListener(progressListener),
+                stateListener, null, null));
+    }
+}
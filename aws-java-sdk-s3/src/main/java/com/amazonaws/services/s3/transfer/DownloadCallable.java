@@ -48,6 +48,8 @@ import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.DownloadMonitor;
 import com.amazonaws.services.s3.transfer.internal.DownloadPartCallable;
 import com.amazonaws.services.s3.transfer.internal.CompleteMultipartDownload;
+import com.amazonaws.services.s3.transfer.internal.CompleteRangedDownload;
+import com.amazonaws.services.s3.transfer.internal.DownloadRangeCallable;
 import com.amazonaws.util.IOUtils;
 
 @SdkInternalApi
@@ -66,7 +68,10 @@ final class DownloadCallable implements Callable<File> {
     /** The thread pool in which parts are downloaded downloaded. */
     private final ExecutorService executor;
     private final List<Future<File>> futureFiles;
+    private final List<Future<Long>> futureRanges;
     private final boolean isDownloadParallel;
+    /** The size of each range for ranged downloads, or zero to download by parts. */
+    private final long downloadRangeSize;
     private Integer lastFullyMergedPartNumber;
     private final boolean resumeOnRetry;
 
@@ -78,7 +83,8 @@ final class DownloadCallable implements Callable<File> {
             long expectedFileLength, long timeout,
             ScheduledExecutorService timedExecutor,
             ExecutorService executor,
-            Integer lastFullyDownloadedPartNumber, boolean isDownloadParallel, boolean resumeOnRetry)
+            Integer lastFullyDownloadedPartNumber, boolean isDownloadParallel, long downloadRangeSize,
+            boolean resumeOnRetry)
     {
         if (s3 == null || latch == null || req == null || dstfile == null || download == null)
             throw new IllegalArgumentException();
@@ -94,8 +100,10 @@ final class DownloadCallable implements Callable<File> {
         this.timedExecutor = timedExecutor;
         this.executor = executor;
         this.futureFiles = new ArrayList<Future<File>>();
+        this.futureRanges = new ArrayList<Future<Long>>();
         this.lastFullyMergedPartNumber = lastFullyDownloadedPartNumber;
         this.isDownloadParallel = isDownloadParallel;
+        this.downloadRangeSize = downloadRangeSize;
         this.resumeOnRetry = resumeOnRetry;
     }
 
@@ -129,7 +137,9 @@ final class DownloadCallable implements Callable<File> {
             download.setState(TransferState.InProgress);
             ServiceUtils.createParentDirectoryIfNecessary(dstfile);
 
-            if (isDownloadParallel) {
+            if (isDownloadParallel && downloadRangeSize > 0) {
+                downloadInRanges(download.getObjectMetadata().getContentLength());
+            } else if (isDownloadParallel) {
                 downloadInParallel(ServiceUtils.getPartCount(req, s3));
             } else {
                 S3Object s3Object = retryableDownloadS3ObjectToFile(dstfile,
@@ -142,6 +152,9 @@ final class DownloadCallable implements Callable<File> {
             for (Future<File> f : futureFiles) {
                 f.cancel(true);
             }
+            for (Future<Long> f : futureRanges) {
+                f.cancel(true);
+            }
             // Downloads aren't allowed to move from canceled to failed
             if (download.getState() != TransferState.Canceled) {
                 download.setState(TransferState.Failed);
@@ -177,18 +190,8 @@ final class DownloadCallable implements Callable<File> {
         }
 
         for (int i = lastFullyMergedPartNumber + 1; i <= partCount; i++) {
-            GetObjectRequest getPartRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
-                    req.getVersionId()).withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
-                            .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
-                            .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
-                            .withGeneralProgressListener(req.getGeneralProgressListener());
-
-            getPartRequest.setMatchingETagConstraints(req.getMatchingETagConstraints());
-            getPartRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
-            getPartRequest.setRequesterPays(req.isRequesterPays());
-
             futureFiles.add(
-                    executor.submit(new DownloadPartCallable(s3, getPartRequest.withPartNumber(i), dstfile)));
+                    executor.submit(new DownloadPartCallable(s3, newGetPartRequest().withPartNumber(i), dstfile)));
         }
 
         truncateDestinationFileIfNecessary();
@@ -196,6 +199,71 @@ final class DownloadCallable implements Callable<File> {
         ((DownloadMonitor) download.getMonitor()).setFuture(future);
     }
 
+    /**
+     * Splits the object into byte ranges of {@link #downloadRangeSize} bytes,
+     * downloads them in parallel and writes each range directly into the
+     * dstFile at its offset.
+     * <p>
+     * Ranges finish out of order, so no partial progress is recorded for
+     * pause/resume; a resumed ranged download starts over.
+     */
+    private void downloadInRanges(long contentLength) throws Exception {
+        allocateDestinationFile(contentLength);
+
+        final String eTag = download.getObjectMetadata().getETag();
+        for (long start = 0; start < contentLength; start += downloadRangeSize) {
+            long end = Math.min(start + downloadRangeSize, contentLength) - 1;
+            GetObjectRequest getRangeRequest = newGetPartRequest().withRange(start, end);
+            // Make sure all ranges come from the same object even if it is
+            // overwritten while the download is in progress.
+            if (req.getVersionId() == null && eTag != null && req.getMatchingETagConstraints().isEmpty()) {
+                getRangeRequest.setMatchingETagConstraints(Arrays.asList(eTag));
+            }
+            futureRanges.add(executor.submit(new DownloadRangeCallable(s3, getRangeRequest, dstfile)));
+        }
+
+        Future<File> future = executor.submit(new CompleteRangedDownload(futureRanges, dstfile, download));
+        ((DownloadMonitor) download.getMonitor()).setFuture(future);
+    }
+
+    /**
+     * Creates a request for a part or range of the object, carrying over the
+     * conditions of the original request.
+     */
+    private GetObjectRequest newGetPartRequest() {
+        GetObjectRequest getPartRequest = new GetObjectRequest(req.getBucketName(), req.getKey(),
+                req.getVersionId()).withUnmodifiedSinceConstraint(req.getUnmodifiedSinceConstraint())
+                        .withModifiedSinceConstraint(req.getModifiedSinceConstraint())
+                        .withResponseHeaders(req.getResponseHeaders()).withSSECustomerKey(req.getSSECustomerKey())
+                        .withGeneralProgressListener(req.getGeneralProgressListener());
+
+        getPartRequest.setMatchingETagConstraints(req.getMatchingETagConstraints());
+        getPartRequest.setNonmatchingETagConstraints(req.getNonmatchingETagConstraints());
+        getPartRequest.setRequesterPays(req.isRequesterPays());
+        return getPartRequest;
+    }
+
+    /**
+     * Sizes the dstFile to the length of the object up front so that every
+     * range can be written at its offset independently.
+     */
+    private void allocateDestinationFile(long contentLength) {
+        RandomAccessFile raf = null;
+        if (!FileLocks.lock(dstfile)) {
+            throw new FileLockException("Fail to lock " + dstfile);
+        }
+
+        try {
+            raf = new RandomAccessFile(dstfile, "rw");
+            raf.setLength(contentLength);
+        } catch (Exception e) {
+            throw new SdkClientException("Unable to allocate dstfile " + e.getMessage(), e);
+        } finally {
+            IOUtils.closeQuietly(raf, LOG);
+            FileLocks.unlock(dstfile);
+        }
+    }
+
     /**
      * If only partial part object is merged into the dstFile(due to pause
      * operation), adjust the file length so that the part starts writing from
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017. Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+/**
+ * How {@link TransferManager#syncDirectory(String, String, java.io.File, boolean, SyncComparison)}
+ * and {@link TransferManager#syncVirtualDirectory(String, String, java.io.File, boolean, SyncComparison)}
+ * decide whether a local file differs from the object stored under its key.
+ * Files without an object are always uploaded, and objects without a file are
+ * always downloaded.
+ */
+public enum SyncComparison {
+
+    /**
+     * A file differs if its size differs from the size of the object.
+     */
+    SIZE,
+
+    /**
+     * A file differs if its size differs from the size of the object, or if
+     * the side being synced from was modified after the side being synced to:
+     * the file after the object when uploading, the object after the file when
+     * downloading.
+     */
+    SIZE_AND_LAST_MODIFIED,
+
+    /**
+     * A file differs if its size differs from the size of the object, or if
+     * its MD5 checksum doesn't match the object's ETag. This reads every file
+     * of the same size as its object.
+     * <p>
+     * The ETag of an object uploaded in parts is compared to the ETag of the
+     * file cut into parts as {@link TransferManager} would cut it with the
+     * current configuration; if the number of parts doesn't match, the file
+     * is compared as with {@link #SIZE_AND_LAST_MODIFIED}. The ETags of
+     * objects encrypted with AWS KMS or customer-provided keys aren't MD5
+     * checksums, so such objects and their files always differ.
+     */
+    CHECKSUM
+}
@@ -45,6 +45,7 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.ObjectTagging;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
 import com.amazonaws.services.s3.transfer.exception.FileLockException;
+import com.amazonaws.services.s3.transfer.internal.AdaptiveUploadTuner;
 import com.amazonaws.services.s3.transfer.internal.CopyCallable;
 import com.amazonaws.services.s3.transfer.internal.CopyImpl;
 import com.amazonaws.services.s3.transfer.internal.CopyMonitor;
@@ -80,6 +81,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.amazonaws.services.s3.internal.ServiceUtils.APPEND_MODE;
@@ -161,12 +163,18 @@ public class TransferManager {
 
     private final boolean shutDownThreadPools;
 
+    /** True if the thread pool was created by the transfer manager, which may resize it. */
+    private final boolean ownsExecutorService;
+
     /**
      * Flag indicating whether the transfer manager is mutable or not. Legacy managers built via the
      * constructors are mutable. TransferManagers built with the fluent builders are immutable.
      */
     private final boolean isImmutable;
 
+    /** Tunes the uploads when auto-tuning is enabled, created on first use. */
+    private AdaptiveUploadTuner uploadTuner;
+
     /**
      * Constructs a new <code>TransferManager</code> and Amazon S3 client using
      * the credentials from <code>DefaultAWSCredentialsProviderChain</code>
@@ -245,7 +253,7 @@ public class TransferManager {
      */
     @Deprecated
     public TransferManager(AmazonS3 s3) {
-        this(s3, TransferManagerUtils.createDefaultExecutorService());
+        this(s3, TransferManagerUtils.createDefaultExecutorService(), true, true);
     }
 
     /**
@@ -309,10 +317,16 @@ public class TransferManager {
      */
     @Deprecated
     public TransferManager(AmazonS3 s3, ExecutorService executorService, boolean shutDownThreadPools) {
+        this(s3, executorService, shutDownThreadPools, false);
+    }
+
+    private TransferManager(AmazonS3 s3, ExecutorService executorService, boolean shutDownThreadPools,
+            boolean ownsExecutorService) {
         this.s3 = s3;
         this.executorService = executorService;
         this.configuration = new TransferManagerConfiguration();
         this.shutDownThreadPools = shutDownThreadPools;
+        this.ownsExecutorService = ownsExecutorService;
         this.isImmutable = false;
     }
 
@@ -322,6 +336,7 @@ public class TransferManager {
         this.executorService = params.getExecutorService();
         this.configuration = params.getConfiguration();
         this.shutDownThreadPools = params.getShutDownThreadPools();
+        this.ownsExecutorService = params.getOwnsExecutorService();
         this.isImmutable = true;
     }
 
@@ -388,6 +403,11 @@ public class TransferManager {
      * contents in memory and upload the options as a traditional, single part
      * upload. Because the entire stream contents must be buffered in memory,
      * this can be very expensive, and should be avoided whenever possible.
+     * Streams of unknown length are instead uploaded in parts through a bounded
+     * number of memory buffers when
+     * {@link TransferManagerConfiguration#setUploadPartBuffers(int)} is set.
+     * The stream is then uploaded in a single request only if it fits in the
+     * first part.
      * </p>
      * <p>
      * Use the returned <code>Upload</code> object to query the progress of the
@@ -616,7 +636,7 @@ public class TransferManager {
      *             If any errors occurred in Amazon S3 while processing the
      *             request.
      */
-    private Upload doUpload(final PutObjectRequest putObjectRequest,
+    Upload doUpload(final PutObjectRequest putObjectRequest,
             final TransferStateChangeListener stateListener,
             final S3ProgressListener progressListener,
             final PersistableUpload persistableUpload) throws AmazonServiceException,
@@ -671,7 +691,7 @@ public class TransferManager {
          */
         UploadCallable uploadCallable = new UploadCallable(this, executorService,
                                                            upload, putObjectRequest, listenerChain, multipartUploadId,
-                                                           transferProgress);
+                                                           transferProgress, getUploadTuner());
         UploadMonitor watcher = UploadMonitor.create(this, upload, executorService,
                                                      uploadCallable, putObjectRequest, listenerChain);
         upload.setMonitor(watcher);
@@ -679,6 +699,38 @@ public class TransferManager {
         return upload;
     }
 
+    /**
+     * Returns the tuner shared by all uploads if auto-tuning is enabled,
+     * otherwise null. Parts in flight start at the size of the thread pool.
+     * A thread pool created by the transfer manager grows along with them, up
+     * to the configured maximum; any other thread pool limits them to its
+     * size, when it is known.
+     */
+    private synchronized AdaptiveUploadTuner getUploadTuner() {
+        if (!configuration.isAutoTuneUploads()) {
+            return null;
+        }
+        if (uploadTuner == null) {
+            if (executorService instanceof ThreadPoolExecutor) {
+                ThreadPoolExecutor threadPool = (ThreadPoolExecutor) executorService;
+                int poolSize = threadPool.getMaximumPoolSize();
+                if (ownsExecutorService) {
+                    uploadTuner = new AdaptiveUploadTuner(configuration.getMinimumUploadPartSize(), poolSize,
+                            Math.max(poolSize, configuration.getAutoTuneMaximumPoolSize()),
+                            configuration.getTargetUploadThroughput(), threadPool);
+                } else {
+                    uploadTuner = new AdaptiveUploadTuner(configuration.getMinimumUploadPartSize(), poolSize,
+                            poolSize, configuration.getTargetUploadThroughput(), null);
+                }
+            } else {
+                uploadTuner = new AdaptiveUploadTuner(configuration.getMinimumUploadPartSize(),
+                        TransferManagerUtils.DEFAULT_THREAD_POOL_SIZE, Integer.MAX_VALUE,
+                        configuration.getTargetUploadThroughput(), null);
+            }
+        }
+        return uploadTuner;
+    }
+
     /**
      * Schedules a new transfer to download data from Amazon S3 and save it to
      * the specified file. This method is non-blocking and returns immediately
@@ -1016,7 +1068,7 @@ public class TransferManager {
      *
      * @see TransferManager#download(GetObjectRequest, File)
      */
-    private Download doDownload(final GetObjectRequest getObjectRequest,
+    Download doDownload(final GetObjectRequest getObjectRequest,
             final File file, final TransferStateChangeListener stateListener,
             final S3ProgressListener s3progressListener,
             final boolean resumeExistingDownload,
@@ -1064,8 +1116,11 @@ public class TransferManager {
         }
 
         final long origStartingByte = startingByte;
-        final boolean isDownloadParallel = !configuration.isDisableParallelDownloads()
-                && TransferManagerUtils.isDownloadParallelizable(s3, getObjectRequest, ServiceUtils.getPartCount(getObjectRequest, s3));
+        final boolean isDownloadRanged = !configuration.isDisableParallelDownloads()
+                && TransferManagerUtils.isDownloadRangeable(s3, getObjectRequest, objectMetadata.getContentLength(),
+                                                            configuration.getDownloadRangeSize());
+        final boolean isDownloadParallel = isDownloadRanged || (!configuration.isDisableParallelDownloads()
+                && TransferManagerUtils.isDownloadParallelizable(s3, getObjectRequest, ServiceUtils.getPartCount(getObjectRequest, s3)));
 
         // We still pass the unfiltered listener chain into DownloadImpl
         final DownloadImpl download = new DownloadImpl(description, transferProgress, listenerChain, null,
@@ -1133,7 +1188,8 @@ public class TransferManager {
             new DownloadCallable(s3, latch,
                 getObjectRequest, resumeExistingDownload,
                 download, file, origStartingByte, fileLength, timeoutMillis, timedThreadPool,
-                executorService, lastFullyDownloadedPart, isDownloadParallel, resumeOnRetry));
+                executorService, isDownloadRanged ? null : lastFullyDownloadedPart, isDownloadParallel,
+                isDownloadRanged ? configuration.getDownloadRangeSize() : 0, resumeOnRetry));
         download.setMonitor(new DownloadMonitor(download, future));
         latch.countDown();
         return download;
@@ -1299,7 +1355,67 @@ public class TransferManager {
         return multipleFileDownload;
     }
 
-    private boolean leavesRoot(File localBaseDirectory, String key) {
+    /**
+     * Downloads the objects in the virtual directory designated by the
+     * keyPrefix given that differ from the files in the destination directory
+     * given, optionally recursing for all virtual subdirectories.
+     * <p>
+     * Unlike {@link #downloadDirectory(String, String, File)}, the key prefix
+     * is stripped from the keys, so the destination directory mirrors the
+     * virtual directory the way
+     * {@link #syncDirectory(String, String, File, boolean, SyncComparison)}
+     * expects. Each virtual directory is compared with the matching local
+     * directory, using the comparison given, and only the objects that are
+     * missing locally or differ are downloaded. The virtual directories are
+     * listed in parallel and the downloads start while other virtual
+     * directories are still being listed, so the returned transfer may gain
+     * sub-transfers until it is done. Files without a matching object are
+     * left alone.
+     * </p>
+     * <p>
+     * If you are downloading <a href="http://aws.amazon.com/kms/">AWS
+     * KMS</a>-encrypted objects, you need to specify the correct region of the
+     * bucket on your client and configure AWS Signature Version 4 for added
+     * security. For more information on how to do this, see
+     * http://docs.aws.amazon.com/AmazonS3/latest/dev/UsingAWSSDK.html#
+     * specify-signature-version
+     * </p>
+     *
+     * @param bucketName
+     *            The bucket containing the virtual directory.
+     * @param keyPrefix
+     *            The key prefix of the virtual directory to sync, or null for
+     *            the entire bucket.
+     * @param destinationDirectory
+     *            The directory to sync with. It and its subdirectories will be
+     *            created as necessary.
+     * @param includeSubdirectories
+     *            Whether to include virtual subdirectories in the sync. If
+     *            true, objects found in virtual subdirectories will be
+     *            compared with the files in the matching local subdirectories.
+     * @param comparison
+     *            How to decide whether an object differs from its file.
+     * @return The transfer of all objects downloaded.
+     */
+    public MultipleFileDownload syncVirtualDirectory(String bucketName, String keyPrefix, File destinationDirectory, boolean includeSubdirectories, SyncComparison comparison) {
+        if ( destinationDirectory == null || (destinationDirectory.exists() && !destinationDirectory.isDirectory()) ) {
+            throw new IllegalArgumentException("Must provide a directory to sync");
+        }
+        if ( comparison == null ) {
+            throw new IllegalArgumentException("Must provide a comparison to sync with");
+        }
+
+        if (keyPrefix == null || keyPrefix.length() == 0) {
+            keyPrefix = "";
+        } else if ( !keyPrefix.endsWith("/") ) {
+            keyPrefix = keyPrefix + "/";
+        }
+
+        return new DirectoryDownloadSync(this, bucketName, keyPrefix, includeSubdirectories, comparison)
+                .start(destinationDirectory);
+    }
+
+    boolean leavesRoot(File localBaseDirectory, String key) {
         try {
             return !new File(localBaseDirectory, key).getCanonicalPath().startsWith(localBaseDirectory.getCanonicalPath());
         } catch (IOException e) {
@@ -1423,6 +1539,75 @@ public class TransferManager {
         return uploadFileList(bucketName, virtualDirectoryKeyPrefix, directory, files, metadataProvider, taggingProvider);
     }
 
+    /**
+     * Uploads the files in the directory given that differ from the objects
+     * under the key prefix given, optionally recursing for all subdirectories.
+     * <p>
+     * See {@link #syncDirectory(String, String, File, boolean, SyncComparison, ObjectMetadataProvider)}
+     * for more information.
+     * </p>
+     */
+    public MultipleFileUpload syncDirectory(String bucketName, String virtualDirectoryKeyPrefix, File directory, boolean includeSubdirectories, SyncComparison comparison) {
+        return syncDirectory(bucketName, virtualDirectoryKeyPrefix, directory, includeSubdirectories, comparison, null);
+    }
+
+    /**
+     * Uploads the files in the directory given that differ from the objects
+     * under the key prefix given, optionally recursing for all subdirectories.
+     * <p>
+     * Each directory is compared with a delimited listing of the matching
+     * virtual directory, using the comparison given, and only the files that
+     * are missing or differ are uploaded. The directories are listed in
+     * parallel and the uploads start while other directories are still being
+     * listed, so the returned transfer may gain sub-transfers until it is
+     * done. Objects without a matching local file are left alone; use
+     * {@link #syncVirtualDirectory(String, String, File, boolean, SyncComparison)}
+     * to sync in the other direction.
+     * </p>
+     * <p>
+     * If you are uploading <a href="http://aws.amazon.com/kms/">AWS
+     * KMS</a>-encrypted objects, you need to specify the correct region of the
+     * bucket on your client and configure AWS Signature Version 4 for added
+     * security. For more information on how to do this, see
+     * http://docs.aws.amazon.com/AmazonS3/latest/dev/UsingAWSSDK.html#
+     * specify-signature-version
+     * </p>
+     * @param bucketName
+     *            The name of the bucket to upload objects to.
+     * @param virtualDirectoryKeyPrefix
+     *            The key prefix of the virtual directory to sync with. Use the
+     *            null or empty string to sync with the root of the bucket.
+     * @param directory
+     *            The directory to sync.
+     * @param includeSubdirectories
+     *            Whether to include subdirectories in the sync. If true,
+     *            files found in subdirectories will be compared with the
+     *            objects under the matching virtual subdirectories.
+     * @param comparison
+     *            How to decide whether a file differs from its object.
+     * @param metadataProvider
+     *            A callback of type <code>ObjectMetadataProvider</code> which
+     *            is used to provide metadata for each file being uploaded.
+     * @return The transfer of all files uploaded.
+     */
+    public MultipleFileUpload syncDirectory(String bucketName, String virtualDirectoryKeyPrefix, File directory, boolean includeSubdirectories, SyncComparison comparison, ObjectMetadataProvider metadataProvider) {
+        if ( directory == null || !directory.exists() || !directory.isDirectory() ) {
+            throw new IllegalArgumentException("Must provide a directory to sync");
+        }
+        if ( comparison == null ) {
+            throw new IllegalArgumentException("Must provide a comparison to sync with");
+        }
+
+        if (virtualDirectoryKeyPrefix == null || virtualDirectoryKeyPrefix.length() == 0) {
+            virtualDirectoryKeyPrefix = "";
+        } else if ( !virtualDirectoryKeyPrefix.endsWith("/") ) {
+            virtualDirectoryKeyPrefix = virtualDirectoryKeyPrefix + "/";
+        }
+
+        return new DirectoryUploadSync(this, bucketName, virtualDirectoryKeyPrefix, includeSubdirectories,
+                comparison, metadataProvider).start(directory);
+    }
+
     /**
      * Uploads all specified files to the bucket named, constructing
      * relative keys depending on the commonParentDirectory given.
@@ -61,6 +61,16 @@ public final class TransferManagerBuilder {
 
     private Boolean disableParallelDownloads;
 
+    private Long downloadRangeSize;
+
+    private Integer uploadPartBuffers;
+
+    private Boolean autoTuneUploads;
+
+    private Long targetUploadThroughput;
+
+    private Integer autoTuneMaximumPoolSize;
+
     /**
      * @return Create new instance of builder with all defaults set.
      */
@@ -410,6 +420,176 @@ public final class TransferManagerBuilder {
         return withDisableParallelDownloads(Boolean.TRUE);
     }
 
+    /**
+     * Returns the size in bytes of each byte range used when downloading an
+     * object with parallel ranged GETs, see
+     * {@link TransferManagerConfiguration#getDownloadRangeSize()}.
+     *
+     * @return The size of each download range in bytes.
+     */
+    public Long getDownloadRangeSize() {
+        return downloadRangeSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range used when downloading an
+     * object with parallel ranged GETs. When set, objects larger than this
+     * size are downloaded in parallel ranges written directly into the
+     * destination file, whether or not they were uploaded with multipart
+     * upload. Zero, the default, disables ranged downloads.
+     *
+     * @param downloadRangeSize The size of each download range in bytes.
+     */
+    public void setDownloadRangeSize(Long downloadRangeSize) {
+        this.downloadRangeSize = downloadRangeSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range used when downloading an
+     * object with parallel ranged GETs, see {@link #setDownloadRangeSize(Long)}.
+     *
+     * @param downloadRangeSize The size of each download range in bytes.
+     * @return This object for method chaining.
+     */
+    public TransferManagerBuilder withDownloadRangeSize(Long downloadRangeSize) {
+        setDownloadRangeSize(downloadRangeSize);
+        return this;
+    }
+
+    /**
+     * Returns the number of parts of a stream upload that are read ahead into
+     * memory to be uploaded in parallel, see
+     * {@link TransferManagerConfiguration#getUploadPartBuffers()}.
+     *
+     * @return The number of part buffers of a stream upload.
+     */
+    public Integer getUploadPartBuffers() {
+        return uploadPartBuffers;
+    }
+
+    /**
+     * Sets the number of parts of a stream upload that are read ahead into
+     * memory to be uploaded in parallel. Each buffer holds one part, so a
+     * stream upload holds at most this many parts in memory. Zero, the
+     * default, uploads the parts of streams one at a time.
+     *
+     * @param uploadPartBuffers The number of part buffers of a stream upload.
+     */
+    public void setUploadPartBuffers(Integer uploadPartBuffers) {
+        this.uploadPartBuffers = uploadPartBuffers;
+    }
+
+    /**
+     * Sets the number of parts of a stream upload that are read ahead into
+     * memory to be uploaded in parallel, see {@link #setUploadPartBuffers(Integer)}.
+     *
+     * @param uploadPartBuffers The number of part buffers of a stream upload.
+     * @return This object for method chaining.
+     */
+    public TransferManagerBuilder withUploadPartBuffers(Integer uploadPartBuffers) {
+        setUploadPartBuffers(uploadPartBuffers);
+        return this;
+    }
+
+    /**
+     * Returns if uploads are auto-tuned, see
+     * {@link TransferManagerConfiguration#isAutoTuneUploads()}.
+     *
+     * @return True if uploads are auto-tuned.
+     */
+    public Boolean isAutoTuneUploads() {
+        return autoTuneUploads;
+    }
+
+    /**
+     * Sets the option to tune the part size and the number of parts uploaded
+     * at the same time from the measured throughput of each part. By
+     * default, the value is set to false.
+     *
+     * @param autoTuneUploads True to auto-tune uploads.
+     */
+    public void setAutoTuneUploads(Boolean autoTuneUploads) {
+        this.autoTuneUploads = autoTuneUploads;
+    }
+
+    /**
+     * Sets the option to auto-tune uploads, see {@link #setAutoTuneUploads(Boolean)}.
+     *
+     * @param autoTuneUploads True to auto-tune uploads.
+     * @return This object for method chaining.
+     */
+    public TransferManagerBuilder withAutoTuneUploads(Boolean autoTuneUploads) {
+        setAutoTuneUploads(autoTuneUploads);
+        return this;
+    }
+
+    /**
+     * Returns the aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight, see
+     * {@link TransferManagerConfiguration#getTargetUploadThroughput()}.
+     *
+     * @return The target upload throughput in bytes per second.
+     */
+    public Long getTargetUploadThroughput() {
+        return targetUploadThroughput;
+    }
+
+    /**
+     * Sets the aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight. Zero, the default, means no
+     * target.
+     *
+     * @param targetUploadThroughput The target upload throughput in bytes per second.
+     */
+    public void setTargetUploadThroughput(Long targetUploadThroughput) {
+        this.targetUploadThroughput = targetUploadThroughput;
+    }
+
+    /**
+     * Sets the aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight, see
+     * {@link #setTargetUploadThroughput(Long)}.
+     *
+     * @param targetUploadThroughput The target upload throughput in bytes per second.
+     * @return This object for method chaining.
+     */
+    public TransferManagerBuilder withTargetUploadThroughput(Long targetUploadThroughput) {
+        setTargetUploadThroughput(targetUploadThroughput);
+        return this;
+    }
+
+    /**
+     * Returns the size up to which auto-tuning may grow the default thread
+     * pool, see {@link TransferManagerConfiguration#getAutoTuneMaximumPoolSize()}.
+     *
+     * @return The largest size of the default thread pool when auto-tuning.
+     */
+    public Integer getAutoTuneMaximumPoolSize() {
+        return autoTuneMaximumPoolSize;
+    }
+
+    /**
+     * Sets the size up to which auto-tuning may grow the default thread pool.
+     * Only used when uploads are auto-tuned and no executor factory is set.
+     *
+     * @param autoTuneMaximumPoolSize The largest size of the default thread pool when auto-tuning.
+     */
+    public void setAutoTuneMaximumPoolSize(Integer autoTuneMaximumPoolSize) {
+        this.autoTuneMaximumPoolSize = autoTuneMaximumPoolSize;
+    }
+
+    /**
+     * Sets the size up to which auto-tuning may grow the default thread pool,
+     * see {@link #setAutoTuneMaximumPoolSize(Integer)}.
+     *
+     * @param autoTuneMaximumPoolSize The largest size of the default thread pool when auto-tuning.
+     * @return This object for method chaining.
+     */
+    public TransferManagerBuilder withAutoTuneMaximumPoolSize(Integer autoTuneMaximumPoolSize) {
+        setAutoTuneMaximumPoolSize(autoTuneMaximumPoolSize);
+        return this;
+    }
+
     private TransferManagerConfiguration resolveConfiguration() {
         TransferManagerConfiguration configuration = new TransferManagerConfiguration();
         if (this.minimumUploadPartSize != null) {
@@ -428,12 +608,28 @@ public final class TransferManagerBuilder {
         if (this.disableParallelDownloads != null) {
             configuration.setDisableParallelDownloads(disableParallelDownloads);
         }
+        if (this.downloadRangeSize != null) {
+            configuration.setDownloadRangeSize(downloadRangeSize);
+        }
+        if (this.uploadPartBuffers != null) {
+            configuration.setUploadPartBuffers(uploadPartBuffers);
+        }
+        if (this.autoTuneUploads != null) {
+            configuration.setAutoTuneUploads(autoTuneUploads);
+        }
+        if (this.targetUploadThroughput != null) {
+            configuration.setTargetUploadThroughput(targetUploadThroughput);
+        }
+        if (this.autoTuneMaximumPoolSize != null) {
+            configuration.setAutoTuneMaximumPoolSize(autoTuneMaximumPoolSize);
+        }
         return configuration;
     }
 
     TransferManagerParams getParams() {
         return new TransferManagerParams().withS3Client(resolveS3Client())
                 .withExecutorService(resolveExecutorService())
+                .withOwnsExecutorService(executorFactory == null)
                 .withShutDownThreadPools(resolveShutDownThreadPools())
                 .withTransferManagerConfiguration(resolveConfiguration());
     }
@@ -45,6 +45,10 @@ public class TransferManagerConfiguration {
     @SdkTestInternalApi
     static final long DEFAULT_MINIMUM_COPY_PART_SIZE = 100 * MB;
 
+    /** Default size up to which auto-tuning grows the thread pool. */
+    @SdkTestInternalApi
+    static final int DEFAULT_AUTO_TUNE_MAXIMUM_POOL_SIZE = 50;
+
     /**
      * The minimum part size for upload parts. Decreasing the minimum part size
      * will cause multipart uploads to be split into a larger number of smaller
@@ -101,6 +105,53 @@ public class TransferManagerConfiguration {
      */
     private boolean disableParallelDownloads = false;
 
+    /**
+     * The size in bytes of each byte range when downloading an object in
+     * parallel ranged GETs. Zero (the default) disables ranged downloads.
+     *
+     * <p>
+     * When set, objects larger than this size are split into ranges of this size
+     * regardless of how they were uploaded. Each range is fetched concurrently and
+     * written directly into the destination file at its offset, so no temporary part
+     * files are created.
+     * </p>
+     */
+    private long downloadRangeSize = 0;
+
+    /**
+     * The number of parts of a stream upload that are read ahead into memory
+     * buffers so they can be uploaded in parallel. Zero (the default) uploads
+     * the parts of streams one at a time.
+     *
+     * <p>
+     * Each buffer holds a whole part, so a stream upload holds at most this
+     * many parts in memory. When all buffers are in flight, the next part is
+     * uploaded straight from the stream, which holds back further reads until
+     * it completes.
+     * </p>
+     */
+    private int uploadPartBuffers = 0;
+
+    /**
+     * Option to tune the part size and the number of parts uploaded at the
+     * same time from the measured throughput of each part. By default, the
+     * value is set to false.
+     */
+    private boolean autoTuneUploads = false;
+
+    /**
+     * The aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight. Zero (the default) means no
+     * target.
+     */
+    private long targetUploadThroughput = 0;
+
+    /**
+     * The size up to which auto-tuning may grow the thread pool the transfer
+     * manager created itself.
+     */
+    private int autoTuneMaximumPoolSize = DEFAULT_AUTO_TUNE_MAXIMUM_POOL_SIZE;
+
     /**
      * Returns the minimum part size for upload parts.
      * Decreasing the minimum part size causes
@@ -292,4 +343,201 @@ public class TransferManagerConfiguration {
     public void setDisableParallelDownloads(boolean disableParallelDownloads) {
         this.disableParallelDownloads = disableParallelDownloads;
     }
+
+    /**
+     * Returns the size in bytes of each byte range used when downloading an
+     * object with parallel ranged GETs. Zero, the default, means ranged
+     * downloads are disabled.
+     *
+     * <p>
+     * When enabled, objects larger than this size are downloaded in parallel
+     * regardless of whether they were uploaded with multipart upload. Each
+     * range is written directly into the destination file at its offset, so
+     * no temporary part files are created. Ranged downloads are not used when
+     * parallel downloads are disabled.
+     * </p>
+     *
+     * @return The size of each download range in bytes, or zero if ranged
+     *         downloads are disabled.
+     */
+    public long getDownloadRangeSize() {
+        return downloadRangeSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range used when downloading an
+     * object with parallel ranged GETs. Zero, the default, disables ranged
+     * downloads.
+     *
+     * <p>
+     * When enabled, objects larger than this size are downloaded in parallel
+     * regardless of whether they were uploaded with multipart upload. Each
+     * range is written directly into the destination file at its offset, so
+     * no temporary part files are created. Ranged downloads are not used when
+     * parallel downloads are disabled.
+     * </p>
+     *
+     * @param downloadRangeSize
+     *            The size of each download range in bytes, or zero to disable
+     *            ranged downloads.
+     */
+    public void setDownloadRangeSize(long downloadRangeSize) {
+        this.downloadRangeSize = downloadRangeSize;
+    }
+
+    /**
+     * Returns the number of parts of a stream upload that are read ahead into
+     * memory buffers so they can be uploaded in parallel. Zero, the default,
+     * means the parts of streams are uploaded one at a time.
+     *
+     * <p>
+     * Uploads from files always upload their parts in parallel and don't use
+     * buffers. Each buffer holds a whole part, so a stream upload holds at
+     * most this many times the part size in memory; see
+     * {@link #getMinimumUploadPartSize()}. When all buffers are in flight, the
+     * next part is uploaded straight from the stream, which holds back
+     * further reads until it completes. Buffered uploads are not used by the
+     * encryption client.
+     * </p>
+     * <p>
+     * When set, streams of unknown length are also uploaded in parts instead
+     * of being buffered whole in memory. Such a stream is uploaded in a single
+     * request only if it fits in the first part. Since the number of parts is
+     * limited, the part size doubles every 500 parts, up to 1 GB, which lets
+     * streams of up to 5 TB be uploaded from the default minimum part size.
+     * The buffers grow with the parts, so a stream upload holds at most this
+     * many buffers plus two of the largest part size in memory: about 1 GB
+     * each for streams longer than about 600 GB. A stream too long for the
+     * maximum number of parts fails before its extra parts are uploaded.
+     * </p>
+     *
+     * @return The number of part buffers of a stream upload, or zero if
+     *         stream parts are uploaded one at a time.
+     */
+    public int getUploadPartBuffers() {
+        return uploadPartBuffers;
+    }
+
+    /**
+     * Sets the number of parts of a stream upload that are read ahead into
+     * memory buffers so they can be uploaded in parallel. Zero, the default,
+     * uploads the parts of streams one at a time.
+     *
+     * <p>
+     * Uploads from files always upload their parts in parallel and don't use
+     * buffers. Each buffer holds a whole part, so a stream upload holds at
+     * most this many times the part size in memory; see
+     * {@link #setMinimumUploadPartSize(long)}. When all buffers are in
+     * flight, the next part is uploaded straight from the stream, which holds
+     * back further reads until it completes. Buffered uploads are not used by
+     * the encryption client.
+     * </p>
+     * <p>
+     * Streams of unknown length are uploaded in parts of growing size, so
+     * their buffers grow too, up to 1 GB each, plus two more buffers of the
+     * same size; see {@link #getUploadPartBuffers()}.
+     * </p>
+     *
+     * @param uploadPartBuffers
+     *            The number of part buffers of a stream upload, or zero to
+     *            upload stream parts one at a time.
+     */
+    public void setUploadPartBuffers(int uploadPartBuffers) {
+        this.uploadPartBuffers = uploadPartBuffers;
+    }
+
+    /**
+     * Returns if uploads are auto-tuned. By default, the value is set to false.
+     *
+     * <p>
+     * When auto-tuning, the part size of each new multipart upload follows
+     * the measured throughput of a single part upload, so that requests are
+     * large enough to amortize their latency. The part size never drops below
+     * the minimum upload part size, and always keeps the upload within the
+     * maximum number of parts. The number of parts uploaded at the same time
+     * grows while it raises the aggregate throughput, up to the target upload
+     * throughput if there is one, and shrinks when the throughput drops. It
+     * starts at the size of the thread pool. When the transfer manager created
+     * the thread pool itself, the pool grows and shrinks along with the number
+     * of parts in flight, up to {@link #getAutoTuneMaximumPoolSize()}, but
+     * never below its initial size. A thread pool from an executor factory is
+     * left alone, and the parts in flight never exceed its size.
+     * </p>
+     * <p>
+     * Measurements are shared by all uploads of a transfer manager. Resumed
+     * uploads keep the part size they were started with, and encrypted
+     * uploads are not tuned.
+     * </p>
+     *
+     * @return true if uploads are auto-tuned, otherwise false.
+     */
+    public boolean isAutoTuneUploads() {
+        return autoTuneUploads;
+    }
+
+    /**
+     * Sets the option to auto-tune uploads. By default, the value is set to
+     * false. See {@link #isAutoTuneUploads()} for how uploads are tuned.
+     *
+     * @param autoTuneUploads boolean value to auto-tune uploads.
+     */
+    public void setAutoTuneUploads(boolean autoTuneUploads) {
+        this.autoTuneUploads = autoTuneUploads;
+    }
+
+    /**
+     * Returns the aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight. Zero, the default, means
+     * auto-tuning aims for the highest throughput.
+     *
+     * @return The target upload throughput in bytes per second, or zero for no
+     *         target.
+     */
+    public long getTargetUploadThroughput() {
+        return targetUploadThroughput;
+    }
+
+    /**
+     * Sets the aggregate upload throughput in bytes per second beyond which
+     * auto-tuning stops adding parts in flight. Zero, the default, means
+     * auto-tuning aims for the highest throughput. Only used when uploads are
+     * auto-tuned, see {@link #setAutoTuneUploads(boolean)}.
+     *
+     * @param targetUploadThroughput
+     *            The target upload throughput in bytes per second, or zero for
+     *            no target.
+     */
+    public void setTargetUploadThroughput(long targetUploadThroughput) {
+        this.targetUploadThroughput = targetUploadThroughput;
+    }
+
+    /**
+     * Returns the size up to which auto-tuning may grow the thread pool the
+     * transfer manager created itself. By default, the value is set to 50,
+     * the default maximum number of connections of a client.
+     *
+     * <p>
+     * Each part in flight holds a connection of the Amazon S3 client, so the
+     * client's maximum number of connections should be raised along with
+     * this size. Only used when uploads are auto-tuned, see
+     * {@link #isAutoTuneUploads()}.
+     * </p>
+     *
+     * @return The largest size of the thread pool when auto-tuning.
+     */
+    public int getAutoTuneMaximumPoolSize() {
+        return autoTuneMaximumPoolSize;
+    }
+
+    /**
+     * Sets the size up to which auto-tuning may grow the thread pool the
+     * transfer manager created itself. See
+     * {@link #getAutoTuneMaximumPoolSize()}.
+     *
+     * @param autoTuneMaximumPoolSize
+     *            The largest size of the thread pool when auto-tuning.
+     */
+    public void setAutoTuneMaximumPoolSize(int autoTuneMaximumPoolSize) {
+        this.autoTuneMaximumPoolSize = autoTuneMaximumPoolSize;
+    }
 }
@@ -29,6 +29,7 @@ class TransferManagerParams {
     private AmazonS3 s3Client;
     private ExecutorService executorService;
     private Boolean shutDownThreadPools;
+    private boolean ownsExecutorService;
     private TransferManagerConfiguration configuration;
 
     public AmazonS3 getS3Client() {
@@ -58,6 +59,15 @@ class TransferManagerParams {
         return this;
     }
 
+    public boolean getOwnsExecutorService() {
+        return ownsExecutorService;
+    }
+
+    public TransferManagerParams withOwnsExecutorService(boolean ownsExecutorService) {
+        this.ownsExecutorService = ownsExecutorService;
+        return this;
+    }
+
     public TransferManagerConfiguration getConfiguration() {
         return configuration;
     }
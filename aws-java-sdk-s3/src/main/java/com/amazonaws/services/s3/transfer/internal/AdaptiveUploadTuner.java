@@ -0,0 +1,228 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static com.amazonaws.services.s3.internal.Constants.GB;
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Tunes the part size and the number of parts in flight of the uploads of a
+ * {@link com.amazonaws.services.s3.transfer.TransferManager} from the measured
+ * duration of each part upload.
+ * <p>
+ * The part size follows the throughput of a single part upload, so that each
+ * part takes about {@link #TARGET_PART_MILLIS} to upload and the latency of
+ * each request is amortized over enough data. The part size never drops below
+ * the configured minimum, and never below what it takes to upload the rest of
+ * an object within the maximum number of parts.
+ * <p>
+ * The number of parts in flight is tuned from the aggregate throughput of all
+ * uploads, measured over windows of {@link #WINDOW_MILLIS}. While parts are
+ * held back by the limit and the throughput keeps rising, the limit grows by
+ * half; when the throughput drops sharply, it shrinks by a quarter. The limit
+ * stops growing once an optional target throughput is reached, and never
+ * exceeds the given maximum. The limit starts at the size of the thread pool.
+ * When given the thread pool, the tuner grows it along with the limit, so that
+ * the pool never holds back parts the limit lets through, and shrinks it back
+ * as the limit drops, but never below its initial size.
+ * <p>
+ * The state is shared by all uploads of a transfer manager, so what is learned
+ * from one upload carries over to the next.
+ */
+public class AdaptiveUploadTuner {
+
+    private static final Log log = LogFactory.getLog(AdaptiveUploadTuner.class);
+
+    /** The time each part upload should take at the measured throughput. */
+    static final long TARGET_PART_MILLIS = 2000;
+
+    /** The length of the windows over which the aggregate throughput is measured. */
+    static final long WINDOW_MILLIS = 1000;
+
+    /** The largest part size chosen, which still fits a part in a single array. */
+    static final long MAXIMUM_PART_SIZE = GB;
+
+    /** The weight of the newest sample in the smoothed per part throughput. */
+    private static final double SMOOTHING = 0.25;
+
+    private final long minimumPartSize;
+    private final int maximumInFlightParts;
+    private final long targetBytesPerSecond;
+
+    /** The thread pool resized along with the limit, or null. */
+    private final ThreadPoolExecutor threadPool;
+    private final int initialPoolSize;
+
+    private int inFlightParts;
+    private int inFlightLimit;
+
+    /** The smoothed throughput of a single part upload in bytes per second, or zero before the first sample. */
+    private double partBytesPerSecond;
+
+    private long windowStartNanos = System.nanoTime();
+    private long windowBytes;
+    private boolean windowSaturated;
+    private double previousWindowBytesPerSecond;
+
+    /**
+     * @param minimumPartSize
+     *            The smallest part size to use.
+     * @param initialInFlightParts
+     *            The number of parts to upload at the same time to begin
+     *            with, normally the size of the thread pool.
+     * @param maximumInFlightParts
+     *            The largest number of parts to upload at the same time.
+     * @param targetBytesPerSecond
+     *            The aggregate throughput beyond which no more parts are
+     *            uploaded at the same time, or zero for no target.
+     * @param threadPool
+     *            The thread pool to grow and shrink along with the number of
+     *            parts in flight, or null to leave the thread pool alone.
+     */
+    public AdaptiveUploadTuner(long minimumPartSize, int initialInFlightParts, int maximumInFlightParts,
+            long targetBytesPerSecond, ThreadPoolExecutor threadPool) {
+        if (initialInFlightParts < 1) {
+            throw new IllegalArgumentException("initialInFlightParts must be positive: " + initialInFlightParts);
+        }
+        if (maximumInFlightParts < initialInFlightParts) {
+            throw new IllegalArgumentException("maximumInFlightParts must be at least initialInFlightParts: "
+                    + maximumInFlightParts);
+        }
+        this.minimumPartSize = minimumPartSize;
+        this.maximumInFlightParts = maximumInFlightParts;
+        this.targetBytesPerSecond = targetBytesPerSecond;
+        this.inFlightLimit = initialInFlightParts;
+        this.threadPool = threadPool;
+        this.initialPoolSize = threadPool == null ? 0 : threadPool.getMaximumPoolSize();
+    }
+
+    /**
+     * Returns the size of the next part of an upload.
+     *
+     * @param remainingBytes
+     *            The number of bytes left to upload, or -1 if unknown.
+     * @param nextPartNumber
+     *            The number of the next part.
+     */
+    public synchronized long nextPartSize(long remainingBytes, int nextPartNumber) {
+        long partSize = (long) (partBytesPerSecond * TARGET_PART_MILLIS / 1000);
+        partSize = Math.max(minimumPartSize, Math.min(partSize, MAXIMUM_PART_SIZE));
+        if (remainingBytes >= 0) {
+            long partsLeft = Math.max(1, MAXIMUM_UPLOAD_PARTS - nextPartNumber + 1);
+            partSize = Math.max(partSize, (remainingBytes + partsLeft - 1) / partsLeft);
+        }
+        return partSize;
+    }
+
+    /**
+     * Takes a slot for a part upload if fewer parts than the current limit are
+     * in flight. Every slot taken must be returned with
+     * {@link #partCompleted(long, long)} or {@link #partFailed()}.
+     *
+     * @return True if the part may be uploaded in the background, false if the
+     *         limit is reached.
+     */
+    public synchronized boolean tryStartPart() {
+        if (inFlightParts >= inFlightLimit) {
+            windowSaturated = true;
+            return false;
+        }
+        inFlightParts++;
+        return true;
+    }
+
+    /**
+     * Records a part uploaded in a slot taken with {@link #tryStartPart()}
+     * and returns the slot.
+     */
+    public synchronized void partCompleted(long bytes, long elapsedNanos) {
+        inFlightParts--;
+        recordPart(bytes, elapsedNanos);
+    }
+
+    /**
+     * Returns the slot of a part that failed to upload.
+     */
+    public synchronized void partFailed() {
+        inFlightParts--;
+    }
+
+    /**
+     * Records a part uploaded without a slot, e.g. on the thread reading the
+     * data.
+     */
+    public synchronized void recordPart(long bytes, long elapsedNanos) {
+        if (elapsedNanos > 0) {
+            double bytesPerSecond = bytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+            partBytesPerSecond = partBytesPerSecond == 0 ? bytesPerSecond
+                    : SMOOTHING * bytesPerSecond + (1 - SMOOTHING) * partBytesPerSecond;
+        }
+
+        windowBytes += bytes;
+        long now = System.nanoTime();
+        long windowNanos = now - windowStartNanos;
+        if (windowNanos >= TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS)) {
+            double windowBytesPerSecond = windowBytes * (double) TimeUnit.SECONDS.toNanos(1) / windowNanos;
+            // A window much longer than usual spans a pause between uploads and says nothing about the limit
+            if (windowNanos < TimeUnit.MILLISECONDS.toNanos(4 * WINDOW_MILLIS)) {
+                adjustInFlightLimit(windowBytesPerSecond);
+            }
+            previousWindowBytesPerSecond = windowBytesPerSecond;
+            windowStartNanos = now;
+            windowBytes = 0;
+            windowSaturated = false;
+        }
+    }
+
+    private void adjustInFlightLimit(double windowBytesPerSecond) {
+        int limit = inFlightLimit;
+        boolean belowTarget = targetBytesPerSecond <= 0 || windowBytesPerSecond < targetBytesPerSecond;
+        if (windowBytesPerSecond < previousWindowBytesPerSecond * 0.8) {
+            limit = Math.max(1, limit - Math.max(1, limit / 4));
+        } else if (windowSaturated && belowTarget && windowBytesPerSecond >= previousWindowBytesPerSecond * 1.1) {
+            limit = Math.min(maximumInFlightParts, limit + Math.max(1, limit / 2));
+        }
+        if (limit != inFlightLimit) {
+            if (log.isDebugEnabled()) {
+                log.debug("Changed the upload parts in flight from " + inFlightLimit + " to " + limit + " at "
+                        + (long) windowBytesPerSecond + " bytes/s");
+            }
+            inFlightLimit = limit;
+            if (threadPool != null) {
+                resizeThreadPool(Math.max(initialPoolSize, limit));
+            }
+        }
+    }
+
+    /**
+     * Sets both the core and the maximum size of the thread pool, in the order
+     * that keeps the core size at most the maximum size.
+     */
+    private void resizeThreadPool(int size) {
+        if (size > threadPool.getMaximumPoolSize()) {
+            threadPool.setMaximumPoolSize(size);
+            threadPool.setCorePoolSize(size);
+        } else if (size < threadPool.getMaximumPoolSize()) {
+            threadPool.setCorePoolSize(size);
+            threadPool.setMaximumPoolSize(size);
+        }
+    }
+}
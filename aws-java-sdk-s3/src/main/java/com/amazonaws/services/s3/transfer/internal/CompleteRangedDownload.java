@@ -0,0 +1,58 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.services.s3.transfer.Transfer;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Helper class to wait for all the byte ranges of a ranged download to be
+ * written into the destinationFile. Since each range is written in place,
+ * there is nothing left to merge once they are done.
+ */
+@SdkInternalApi
+public class CompleteRangedDownload implements Callable<File> {
+    private final List<Future<Long>> ranges;
+    private final File destinationFile;
+    private final DownloadImpl download;
+
+    public CompleteRangedDownload(List<Future<Long>> ranges, File destinationFile, DownloadImpl download) {
+        this.ranges = ranges;
+        this.destinationFile = destinationFile;
+        this.download = download;
+    }
+
+    @Override
+    public File call() throws Exception {
+        try {
+            for (Future<Long> range : ranges) {
+                range.get();
+            }
+        } catch (Exception e) {
+            for (Future<Long> range : ranges) {
+                range.cancel(true);
+            }
+            throw e;
+        }
+
+        download.setState(Transfer.TransferState.Completed);
+        return destinationFile;
+    }
+}
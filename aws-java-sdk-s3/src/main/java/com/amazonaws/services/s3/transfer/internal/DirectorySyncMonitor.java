@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012-2018 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.amazonaws.services.s3.transfer.Transfer;
+
+/**
+ * Monitors a directory sync, which is done once the listing of the directory
+ * is complete and every transfer it started is done. Transfers are added
+ * while the listing is in progress, so the collection of sub-transfers must
+ * support concurrent modification.
+ */
+public class DirectorySyncMonitor implements TransferMonitor {
+
+    private final Collection<? extends AbstractTransfer> subTransfers;
+    private final AbstractTransfer transfer;
+    private final CountDownLatch listingComplete = new CountDownLatch(1);
+    private volatile Exception listingFailure;
+    private final Future<?> future;
+
+    public DirectorySyncMonitor(AbstractTransfer transfer, Collection<? extends AbstractTransfer> subTransfers) {
+        this.subTransfers = subTransfers;
+        this.transfer = transfer;
+
+        /*
+         * Like the future of the MultipleFileTransferMonitor, only get() is
+         * implemented properly.
+         */
+        this.future = new Future<Object>() {
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return true;
+            }
+
+            @Override
+            public Object get() throws InterruptedException, ExecutionException {
+                listingComplete.await();
+                checkListing();
+                for ( AbstractTransfer subTransfer : DirectorySyncMonitor.this.subTransfers ) {
+                    subTransfer.getMonitor().getFuture().get();
+                }
+                return Boolean.TRUE;
+            }
+
+            @Override
+            public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                    TimeoutException {
+                if ( !listingComplete.await(timeout, unit) ) {
+                    throw new TimeoutException();
+                }
+                checkListing();
+                for ( AbstractTransfer subTransfer : DirectorySyncMonitor.this.subTransfers ) {
+                    subTransfer.getMonitor().getFuture().get(timeout, unit);
+                }
+                return Boolean.TRUE;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return DirectorySyncMonitor.this.transfer.getState() == Transfer.TransferState.Canceled;
+            }
+
+            @Override
+            public boolean isDone() {
+                return DirectorySyncMonitor.this.isDone();
+            }
+        };
+    }
+
+    private void checkListing() throws ExecutionException {
+        if ( listingFailure != null ) {
+            throw new ExecutionException(listingFailure);
+        }
+    }
+
+    /**
+     * Records a failure to list or compare part of the directory. Only the
+     * first failure is kept.
+     */
+    public synchronized void listingFailed(Exception e) {
+        if ( listingFailure == null ) {
+            listingFailure = e;
+        }
+    }
+
+    /**
+     * Returns the first failure to list or compare part of the directory, or
+     * null if there was none.
+     */
+    public Exception getListingFailure() {
+        return listingFailure;
+    }
+
+    /**
+     * Marks the listing of the directory as complete; no more transfers will
+     * be added.
+     */
+    public void listingCompleted() {
+        listingComplete.countDown();
+    }
+
+    @Override
+    public Future<?> getFuture() {
+        return future;
+    }
+
+    @Override
+    public boolean isDone() {
+        if ( listingComplete.getCount() > 0 ) {
+            return false;
+        }
+        for ( Transfer subTransfer : subTransfers ) {
+            if ( !subTransfer.isDone() )
+                return false;
+        }
+        return true;
+    }
+}
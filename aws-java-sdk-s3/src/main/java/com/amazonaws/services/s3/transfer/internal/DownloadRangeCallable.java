@@ -0,0 +1,109 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.annotation.SdkInternalApi;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.IOUtils;
+
+/**
+ * Helper class to get a byte range of an object from s3 and write it
+ * directly into the destination file at the offset of the range.
+ */
+@SdkInternalApi
+public class DownloadRangeCallable implements Callable<Long> {
+    private static final Log LOG = LogFactory.getLog(DownloadRangeCallable.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AmazonS3 s3;
+    private final GetObjectRequest getRangeRequest;
+    private final File destinationFile;
+
+    /**
+     * @param s3 The s3 client.
+     * @param getRangeRequest Request for the object with the range to download set.
+     * @param destinationFile File to write the range into; it must already be at
+     *                        least as long as the end of the range.
+     */
+    public DownloadRangeCallable(AmazonS3 s3, GetObjectRequest getRangeRequest, File destinationFile) {
+        this.s3 = s3;
+        this.getRangeRequest = getRangeRequest;
+        this.destinationFile = destinationFile;
+    }
+
+    /**
+     * @return The number of bytes written into the destination file.
+     */
+    public Long call() throws Exception {
+        final long firstByte = getRangeRequest.getRange()[0];
+        final long lastByte = getRangeRequest.getRange()[1];
+        long position = firstByte;
+        boolean hasRetried = false;
+
+        RandomAccessFile raf = new RandomAccessFile(destinationFile, "rw");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (position <= lastByte) {
+                getRangeRequest.setRange(position, lastByte);
+                S3Object s3Object = s3.getObject(getRangeRequest);
+                if (s3Object == null) {
+                    throw new SdkClientException(
+                            "There is no object in S3 satisfying this request. The getObject method returned null");
+                }
+                InputStream content = s3Object.getObjectContent();
+                try {
+                    int bytesRead;
+                    while ((bytesRead = content.read(buffer)) > -1) {
+                        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, bytesRead);
+                        while (byteBuffer.hasRemaining()) {
+                            position += channel.write(byteBuffer, position);
+                        }
+                    }
+                    break;
+                } catch (IOException e) {
+                    if (hasRetried || Thread.currentThread().isInterrupted()) {
+                        throw new SdkClientException("Unable to download byte range " + firstByte + "-" + lastByte
+                                + " of " + getRangeRequest.getKey() + ": " + e.getMessage(), e);
+                    }
+                    // Resume from the first byte that hasn't been written yet
+                    LOG.info("Retry the download of byte range " + position + "-" + lastByte
+                             + " of object " + getRangeRequest.getKey(), e);
+                    hasRetried = true;
+                    s3Object.getObjectContent().abort();
+                } finally {
+                    IOUtils.closeQuietly(content, LOG);
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(raf, LOG);
+        }
+        return position - firstByte;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2010-2018 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.internal.ByteBufferInputStream;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Uploads the parts of a stream in parallel by reading each part ahead into a
+ * memory buffer and submitting its upload to the thread pool.
+ * <p>
+ * At most a fixed number of buffers are allocated and each one is reused once
+ * the part it holds is uploaded. When all buffers are in flight, the next part
+ * is uploaded straight from the stream on the reading thread, which holds back
+ * further reads until it completes. The reading thread never waits for a
+ * buffer to be freed, so uploads can't deadlock on a thread pool that is busy
+ * reading other streams.
+ * <p>
+ * When the length of the stream is unknown, the size of a part is only known
+ * once it is read, so parts uploaded on the reading thread are read into one
+ * more buffer owned by that thread.
+ * <p>
+ * With an {@link AdaptiveUploadTuner}, a part is also uploaded on the reading
+ * thread when the tuner's limit of parts in flight is reached.
+ */
+class ReadAheadPartUploader {
+
+    private final AmazonS3 s3;
+    private final ExecutorService threadPool;
+    private final int maxBuffers;
+    private final AdaptiveUploadTuner tuner;
+    private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<byte[]>();
+    private int allocatedBuffers;
+
+    /** The buffer of parts of unknown size uploaded on the reading thread. */
+    private byte[] inlineBuffer;
+
+    /** The failure of the first part upload that failed in the thread pool. */
+    private volatile Throwable failure;
+
+    /**
+     * @param tuner
+     *            The tuner limiting the parts in flight, or null.
+     */
+    ReadAheadPartUploader(AmazonS3 s3, ExecutorService threadPool, int maxBuffers, AdaptiveUploadTuner tuner) {
+        this.s3 = s3;
+        this.threadPool = threadPool;
+        this.maxBuffers = maxBuffers;
+        this.tuner = tuner;
+    }
+
+    /**
+     * Reads all parts from the request factory, submitting the upload of each
+     * part and recording its corresponding Future. Returns once the last part
+     * is read; parts may still be uploading.
+     */
+    void uploadParts(UploadPartRequestFactory requestFactory, List<Future<PartETag>> futures) throws Exception {
+        while (requestFactory.hasMoreRequests()) {
+            if (threadPool.isShutdown()) throw new CancellationException("TransferManager has been shutdown");
+            if (failure != null) {
+                throw new SdkClientException("Unable to upload part: " + failure.getMessage(), failure);
+            }
+            UploadPartRequest request = requestFactory.getNextUploadPartRequest();
+            int partSize = (int) request.getPartSize();
+            byte[] buffer = acquireBuffer(partSize);
+            if (buffer != null && tuner != null && !tuner.tryStartPart()) {
+                freeBuffers.offer(buffer);
+                buffer = null;
+            }
+            if (buffer != null) {
+                futures.add(uploadBuffered(request, buffer, requestFactory.isContentLengthKnown()));
+            } else if (requestFactory.isContentLengthKnown()) {
+                futures.add(UploadPartCallable.uploadOnCallingThread(s3, request, tuner));
+            } else {
+                if (inlineBuffer == null || inlineBuffer.length < partSize) {
+                    inlineBuffer = new byte[partSize];
+                }
+                readPart(request, inlineBuffer, false);
+                futures.add(UploadPartCallable.uploadOnCallingThread(s3, request, tuner));
+            }
+        }
+    }
+
+    /**
+     * Returns a free buffer of at least the given size, allocating one if
+     * fewer than the maximum are allocated, otherwise null.
+     */
+    private byte[] acquireBuffer(int size) {
+        byte[] buffer = freeBuffers.poll();
+        if (buffer != null && buffer.length >= size) {
+            return buffer;
+        }
+        if (buffer == null) {
+            if (allocatedBuffers >= maxBuffers) {
+                return null;
+            }
+            allocatedBuffers++;
+        }
+        return new byte[size];
+    }
+
+    private Future<PartETag> uploadBuffered(UploadPartRequest request, final byte[] buffer,
+            boolean isContentLengthKnown) throws IOException {
+        try {
+            readPart(request, buffer, isContentLengthKnown);
+        } catch (IOException e) {
+            releaseSlot(buffer);
+            throw e;
+        } catch (RuntimeException e) {
+            releaseSlot(buffer);
+            throw e;
+        }
+
+        final UploadPartCallable callable = new UploadPartCallable(s3, request, tuner);
+        FutureTask<PartETag> task = new FutureTask<PartETag>(callable) {
+            @Override
+            protected void done() {
+                freeBuffers.offer(buffer);
+                callable.releaseSlotIfNotStarted();
+                if (!isCancelled() && failure == null) {
+                    try {
+                        get();
+                    } catch (ExecutionException e) {
+                        failure = e.getCause();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        try {
+            threadPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
+        }
+        return task;
+    }
+
+    private void releaseSlot(byte[] buffer) {
+        freeBuffers.offer(buffer);
+        if (tuner != null) {
+            tuner.partFailed();
+        }
+    }
+
+    /**
+     * Reads the part into the buffer and makes the request upload it from
+     * there, as content the HTTP client writes out straight from the buffer.
+     * A part of a stream of unknown length that ends early is the last part
+     * and is shrunk to the data read.
+     */
+    private static void readPart(UploadPartRequest request, byte[] buffer, boolean isContentLengthKnown)
+            throws IOException {
+        int length = readFully(request.getInputStream(), buffer, (int) request.getPartSize());
+        if (length < request.getPartSize()) {
+            if (isContentLengthKnown) {
+                throw new SdkClientException("Data read has a different length than the expected: dataLength="
+                        + length + "; expectedLength=" + request.getPartSize() + " for part "
+                        + request.getPartNumber());
+            }
+            request.setPartSize(length);
+            request.setLastPart(true);
+        }
+        request.setInputStream(new ByteBufferInputStream(ByteBuffer.wrap(buffer, 0, length)));
+    }
+
+    private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(buffer, offset, length - offset);
+            if (read == -1) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+}
@@ -36,6 +36,9 @@ import com.amazonaws.util.ValidationUtils;
  */
 public class TransferManagerUtils {
 
+    /** The number of threads in the default thread pool. */
+    public static final int DEFAULT_THREAD_POOL_SIZE = 10;
+
     /**
      * Returns a new thread pool configured with the default settings.
      *
@@ -51,7 +54,7 @@ public class TransferManagerUtils {
                 return thread;
             }
         };
-        return (ThreadPoolExecutor)Executors.newFixedThreadPool(10, threadFactory);
+        return (ThreadPoolExecutor)Executors.newFixedThreadPool(DEFAULT_THREAD_POOL_SIZE, threadFactory);
     }
 
     /**
@@ -75,6 +78,32 @@ public class TransferManagerUtils {
         return (getRequestFile(putObjectRequest) != null);
     }
 
+    /**
+     * Returns true if the parts of the specified stream upload can be read
+     * ahead into memory buffers and uploaded in parallel.
+     *
+     * @param putObjectRequest
+     *            The request to check.
+     * @param isUsingEncryption
+     *            True if the upload is an encrypted upload, otherwise false.
+     * @param partSize
+     *            The size of each part of the upload.
+     * @param partBuffers
+     *            The configured number of part buffers; zero disables
+     *            buffered stream uploads.
+     *
+     * @return True if this request can buffer its parts to upload them in
+     *         parallel.
+     */
+    public static boolean isUploadBufferable(final PutObjectRequest putObjectRequest, final boolean isUsingEncryption,
+            long partSize, int partBuffers) {
+        if (partBuffers <= 0 || isUsingEncryption) return false;
+
+        // Each part has to fit into a single array
+        return putObjectRequest.getInputStream() != null && getRequestFile(putObjectRequest) == null
+                && partSize <= Integer.MAX_VALUE - 8;
+    }
+
     /**
      * Returns the size of the data in this request, otherwise -1 if the content
      * length is unknown.
@@ -210,4 +239,32 @@ public class TransferManagerUtils {
         }
         return true;
     }
+
+    /**
+     * Returns true if the specified download request can be split into
+     * parallel byte-range GETs of the given size.
+     *
+     * @param s3
+     *            The Amazon s3 client.
+     * @param getObjectRequest
+     *            The request to check.
+     * @param contentLength
+     *            The length of the object to download.
+     * @param rangeSize
+     *            The configured download range size; zero disables ranged
+     *            downloads.
+     *
+     * @return True if this request can use parallel ranged downloads.
+     */
+    public static boolean isDownloadRangeable(final AmazonS3 s3, final GetObjectRequest getObjectRequest,
+            long contentLength, long rangeSize) {
+        ValidationUtils.assertNotNull(s3, "S3 client");
+        ValidationUtils.assertNotNull(getObjectRequest, "GetObjectRequest");
+
+        if (rangeSize <= 0 || s3 instanceof AmazonS3Encryption || getObjectRequest.getRange() != null
+                || getObjectRequest.getPartNumber() != null) {
+            return false;
+        }
+        return contentLength > rangeSize;
+    }
 }
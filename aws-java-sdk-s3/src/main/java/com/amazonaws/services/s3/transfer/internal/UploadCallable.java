@@ -16,7 +16,12 @@ package com.amazonaws.services.s3.transfer.internal;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +30,8 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.amazonaws.services.s3.model.ObjectTagging;
 import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
@@ -33,6 +40,7 @@ import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.internal.ByteBufferInputStream;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Encryption;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
@@ -42,6 +50,7 @@ import com.amazonaws.services.s3.model.EncryptedInitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.EncryptedPutObjectRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ListPartsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PartListing;
 import com.amazonaws.services.s3.model.PartSummary;
@@ -76,11 +85,32 @@ public class UploadCallable implements Callable<UploadResult> {
 
     private PersistableUpload persistableUpload;
 
+    /**
+     * True once a stream of unknown length turned out not to fit in a single
+     * part and is uploaded in parts.
+     */
+    private volatile boolean isStreamUploadedInParts;
+
+    /** Tunes the part size and the parts in flight, or null if uploads aren't tuned. */
+    private final AdaptiveUploadTuner tuner;
+
+    /** The part size of the upload, once computed. */
+    private long optimalPartSize = -1;
+
     public UploadCallable(TransferManager transferManager,
             ExecutorService threadPool, UploadImpl upload,
             PutObjectRequest origReq,
             ProgressListenerChain progressListenerChain, String uploadId,
             TransferProgress transferProgress) {
+        this(transferManager, threadPool, upload, origReq, progressListenerChain, uploadId, transferProgress,
+             null);
+    }
+
+    public UploadCallable(TransferManager transferManager,
+            ExecutorService threadPool, UploadImpl upload,
+            PutObjectRequest origReq,
+            ProgressListenerChain progressListenerChain, String uploadId,
+            TransferProgress transferProgress, AdaptiveUploadTuner tuner) {
         this.s3 = transferManager.getAmazonS3Client();
         this.configuration = transferManager.getConfiguration();
 
@@ -90,6 +120,7 @@ public class UploadCallable implements Callable<UploadResult> {
         this.upload = upload;
         this.multipartUploadId = uploadId;
         this.transferProgress = transferProgress;
+        this.tuner = tuner;
     }
 
     List<Future<PartETag>> getFutures() {
@@ -113,28 +144,88 @@ public class UploadCallable implements Callable<UploadResult> {
      * @return True if this UploadCallable is processing a multipart upload.
      */
     public boolean isMultipartUpload() {
-        return TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
+        return isStreamUploadedInParts || TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
     }
 
     public UploadResult call() throws Exception {
         upload.setState(TransferState.InProgress);
         if ( isMultipartUpload() ) {
             publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
-            return uploadInParts();
+            return uploadInParts(origReq.getInputStream());
+        } else if (isStreamOfUnknownLength()) {
+            return uploadStreamOfUnknownLength();
         } else {
-            return uploadInOneChunk();
+            return uploadInOneChunk(origReq);
+        }
+    }
+
+    /**
+     * Returns true if the request is a stream of unknown length that can be
+     * uploaded in parts through memory buffers instead of being buffered
+     * whole by the client to find its length.
+     */
+    private boolean isStreamOfUnknownLength() {
+        return TransferManagerUtils.getContentLength(origReq) < 0
+                && TransferManagerUtils.isUploadBufferable(origReq, s3 instanceof AmazonS3Encryption,
+                        getOptimalPartSize(), configuration.getUploadPartBuffers());
+    }
+
+    /**
+     * Reads the first part of a stream of unknown length. If the stream ends
+     * within it, the data is uploaded in a single chunk, otherwise the stream
+     * is uploaded in parts, starting with the part already read.
+     */
+    private UploadResult uploadStreamOfUnknownLength() throws Exception {
+        PushbackInputStream input = new PushbackInputStream(origReq.getInputStream());
+        byte[] firstPart = new byte[(int) getOptimalPartSize()];
+        boolean isSinglePart;
+        int length = 0;
+        try {
+            while (length < firstPart.length) {
+                int read = input.read(firstPart, length, firstPart.length - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+            int next = length < firstPart.length ? -1 : input.read();
+            isSinglePart = next == -1;
+            if (!isSinglePart) {
+                input.unread(next);
+            }
+        } catch (IOException e) {
+            closeInputStream();
+            throw e;
+        }
+
+        if (isSinglePart) {
+            PutObjectRequest singlePartReq = origReq.clone()
+                    .withInputStream(new ByteBufferInputStream(ByteBuffer.wrap(firstPart, 0, length)));
+            if (singlePartReq.getMetadata() == null) {
+                singlePartReq.setMetadata(new ObjectMetadata());
+            }
+            singlePartReq.getMetadata().setContentLength(length);
+            try {
+                return uploadInOneChunk(singlePartReq);
+            } finally {
+                closeInputStream();
+            }
         }
+
+        isStreamUploadedInParts = true;
+        publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        return uploadInParts(new SequenceInputStream(new ByteArrayInputStream(firstPart, 0, length), input));
     }
 
     /**
      * Uploads the given request in a single chunk and returns the result.
      */
-    private UploadResult uploadInOneChunk() {
-        PutObjectResult putObjectResult = s3.putObject(origReq);
+    private UploadResult uploadInOneChunk(PutObjectRequest putObjectRequest) {
+        PutObjectResult putObjectResult = s3.putObject(putObjectRequest);
 
         UploadResult uploadResult = new UploadResult();
-        uploadResult.setBucketName(origReq.getBucketName());
-        uploadResult.setKey(origReq.getKey());
+        uploadResult.setBucketName(putObjectRequest.getBucketName());
+        uploadResult.setKey(putObjectRequest.getKey());
         uploadResult.setETag(putObjectResult.getETag());
         uploadResult.setVersionId(putObjectResult.getVersionId());
         return uploadResult;
@@ -143,12 +234,12 @@ public class UploadCallable implements Callable<UploadResult> {
     /**
      * Captures the state of the upload.
      */
-    private void captureUploadStateIfPossible() {
+    private void captureUploadStateIfPossible(long partSize) {
         if (origReq.getSSECustomerKey() == null) {
             persistableUpload = new PersistableUpload(origReq.getBucketName(),
                     origReq.getKey(), origReq.getFile()
                             .getAbsolutePath(), multipartUploadId,
-                    configuration.getMinimumUploadPartSize(),
+                    partSize,
                     configuration.getMultipartUploadThreshold());
             notifyPersistableTransferAvailability();
         }
@@ -169,11 +260,12 @@ public class UploadCallable implements Callable<UploadResult> {
     /**
      * Uploads the request in multiple chunks, submitting each upload chunk task
      * to the thread pool and recording its corresponding Future object, as well
-     * as the multipart upload id.
+     * as the multipart upload id. The parts are cut from the given stream
+     * when the request has no file.
      */
-    private UploadResult uploadInParts() throws Exception {
+    private UploadResult uploadInParts(InputStream inputStream) throws Exception {
         boolean isUsingEncryption = s3 instanceof AmazonS3Encryption;
-        long optimalPartSize = getOptimalPartSize(isUsingEncryption);
+        long optimalPartSize = getOptimalPartSize();
 
         try {
             if (multipartUploadId == null) {
@@ -181,12 +273,18 @@ public class UploadCallable implements Callable<UploadResult> {
                         isUsingEncryption);
             }
 
-            UploadPartRequestFactory requestFactory = new UploadPartRequestFactory(origReq, multipartUploadId, optimalPartSize);
+            UploadPartRequestFactory requestFactory = new UploadPartRequestFactory(origReq, multipartUploadId,
+                    optimalPartSize, inputStream);
 
             if (TransferManagerUtils.isUploadParallelizable(origReq, isUsingEncryption)) {
-                captureUploadStateIfPossible();
+                captureUploadStateIfPossible(optimalPartSize);
                 uploadPartsInParallel(requestFactory, multipartUploadId);
                 return null;
+            } else if (TransferManagerUtils.isUploadBufferable(origReq, isUsingEncryption, optimalPartSize,
+                    configuration.getUploadPartBuffers())) {
+                new ReadAheadPartUploader(s3, threadPool, configuration.getUploadPartBuffers(), tuner)
+                        .uploadParts(requestFactory, futures);
+                return null;
             } else {
                 return uploadPartsInSeries(requestFactory);
             }
@@ -195,10 +293,14 @@ public class UploadCallable implements Callable<UploadResult> {
             performAbortMultipartUpload();
             throw e;
         } finally {
-            if (origReq.getInputStream() != null) {
-                try {origReq.getInputStream().close(); } catch (Exception e) {
-                    log.warn("Unable to cleanly close input stream: " + e.getMessage(), e);
-                }
+            closeInputStream();
+        }
+    }
+
+    private void closeInputStream() {
+        if (origReq.getInputStream() != null) {
+            try {origReq.getInputStream().close(); } catch (Exception e) {
+                log.warn("Unable to cleanly close input stream: " + e.getMessage(), e);
             }
         }
     }
@@ -225,15 +327,26 @@ public class UploadCallable implements Callable<UploadResult> {
     }
 
     /**
-     * Computes and returns the optimal part size for the upload.
+     * Computes and returns the optimal part size for the upload. A new upload
+     * takes the part size from the tuner if there is one; a resumed upload
+     * keeps the part size it was started with.
      */
-    private long getOptimalPartSize(boolean isUsingEncryption) {
+    private long getOptimalPartSize() {
+        if (this.optimalPartSize > 0) {
+            return this.optimalPartSize;
+        }
+        boolean isUsingEncryption = s3 instanceof AmazonS3Encryption;
         long optimalPartSize = TransferManagerUtils.calculateOptimalPartSize(origReq, configuration);
+        if (tuner != null && multipartUploadId == null && !isUsingEncryption) {
+            optimalPartSize = Math.max(optimalPartSize,
+                    tuner.nextPartSize(TransferManagerUtils.getContentLength(origReq), 1));
+        }
         if (isUsingEncryption && optimalPartSize % 32 > 0) {
             // When using encryption, parts must line up correctly along cipher block boundaries
             optimalPartSize = optimalPartSize - (optimalPartSize % 32) + 32 ;
         }
         log.debug("Calculated optimal part size: " + optimalPartSize);
+        this.optimalPartSize = optimalPartSize;
         return optimalPartSize;
     }
 
@@ -296,8 +409,35 @@ public class UploadCallable implements Callable<UploadResult> {
                 transferProgress.updateProgress(summary.getSize());
                 continue;
             }
-            futures.add(threadPool.submit(new UploadPartCallable(s3, request)));
+            if (tuner == null) {
+                futures.add(threadPool.submit(new UploadPartCallable(s3, request)));
+            } else if (tuner.tryStartPart()) {
+                futures.add(submitTunedPart(new UploadPartCallable(s3, request, tuner)));
+            } else {
+                // Hold back the remaining parts while the tuner's limit of parts in flight is reached
+                futures.add(UploadPartCallable.uploadOnCallingThread(s3, request, tuner));
+            }
+        }
+    }
+
+    /**
+     * Submits a part holding a tuner slot, making sure the slot is returned
+     * if the part is cancelled before its upload starts.
+     */
+    private Future<PartETag> submitTunedPart(final UploadPartCallable callable) {
+        FutureTask<PartETag> task = new FutureTask<PartETag>(callable) {
+            @Override
+            protected void done() {
+                callable.releaseSlotIfNotStarted();
+            }
+        };
+        try {
+            threadPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
         }
+        return task;
     }
 
     private Map<Integer, PartSummary> identifyExistingPartsForResume(
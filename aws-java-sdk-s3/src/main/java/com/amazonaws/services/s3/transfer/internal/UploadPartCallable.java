@@ -14,7 +14,10 @@
  */
 package com.amazonaws.services.s3.transfer.internal;
 
+import java.io.InputStream;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.PartETag;
@@ -23,14 +26,75 @@ import com.amazonaws.services.s3.model.UploadPartRequest;
 public class UploadPartCallable implements Callable<PartETag> {
     private final AmazonS3 s3;
     private final UploadPartRequest request;
+    private final AdaptiveUploadTuner tuner;
+    private volatile boolean started;
 
     public UploadPartCallable(AmazonS3 s3, UploadPartRequest request) {
+        this(s3, request, null);
+    }
+
+    /**
+     * Creates a callable reporting the upload of the part to the given tuner,
+     * in a slot taken with {@link AdaptiveUploadTuner#tryStartPart()}.
+     */
+    public UploadPartCallable(AmazonS3 s3, UploadPartRequest request, AdaptiveUploadTuner tuner) {
         this.s3 = s3;
         this.request = request;
+        this.tuner = tuner;
     }
 
     public PartETag call() throws Exception {
+        started = true;
+        if (tuner == null) {
+            return s3.uploadPart(request).getPartETag();
+        }
+        boolean completed = false;
+        try {
+            long start = System.nanoTime();
+            PartETag partETag = s3.uploadPart(request).getPartETag();
+            tuner.partCompleted(request.getPartSize(), System.nanoTime() - start);
+            completed = true;
+            return partETag;
+        } finally {
+            if (!completed) {
+                tuner.partFailed();
+            }
+        }
+    }
+
+    /**
+     * Returns the tuner slot of a part whose upload never started, e.g.
+     * because it was cancelled while queued.
+     */
+    void releaseSlotIfNotStarted() {
+        if (tuner != null && !started) {
+            tuner.partFailed();
+        }
+    }
+
+    /**
+     * Uploads the part on the calling thread, reporting it to the tuner if
+     * there is one, and returns its completed Future.
+     */
+    static Future<PartETag> uploadOnCallingThread(AmazonS3 s3, UploadPartRequest request,
+            AdaptiveUploadTuner tuner) {
+        // Mark the stream in case we need to reset it
+        InputStream inputStream = request.getInputStream();
+        if (inputStream != null && inputStream.markSupported()) {
+            inputStream.mark((int) Math.min(request.getPartSize(), Integer.MAX_VALUE));
+        }
+        long start = System.nanoTime();
         PartETag partETag = s3.uploadPart(request).getPartETag();
-        return partETag;
+        if (tuner != null) {
+            tuner.recordPart(request.getPartSize(), System.nanoTime() - start);
+        }
+
+        FutureTask<PartETag> completed = new FutureTask<PartETag>(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, partETag);
+        completed.run();
+        return completed;
     }
 }
@@ -14,9 +14,16 @@
  */
 package com.amazonaws.services.s3.transfer.internal;
 
+import static com.amazonaws.services.s3.internal.Constants.GB;
+import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 
+import com.amazonaws.SdkClientException;
 import com.amazonaws.internal.ReleasableInputStream;
 import com.amazonaws.services.s3.internal.InputSubstream;
 import com.amazonaws.services.s3.model.PutObjectRequest;
@@ -32,8 +39,25 @@ import com.amazonaws.services.s3.transfer.TransferManager;
  * it, instead of immediately creating thousands of UploadPartRequest objects
  * for each large upload, when we won't need most of those request objects for a
  * while.
+ * <p>
+ * When the length of the stream to upload is unknown, parts are cut until the
+ * stream ends. The part size doubles every twentieth of the maximum number of
+ * parts, up to 1 GB, so that streams of up to 5 TB fit in the maximum number
+ * of parts when starting from the 5 MB minimum part size. A longer stream
+ * fails on the client before a part beyond the maximum is requested. Only the
+ * parts of a known size are requested, so the last part must be read to find
+ * its actual size before it is uploaded.
  */
 public class UploadPartRequestFactory {
+    /** The number of parts after which the part size of a stream of unknown length doubles. */
+    private static final int PARTS_PER_PART_SIZE_STEP = MAXIMUM_UPLOAD_PARTS / 20;
+
+    /**
+     * The largest part of a stream of unknown length, unless the optimal part
+     * size is larger. Part buffers grow to this size for the longest streams.
+     */
+    public static final long MAXIMUM_STREAM_PART_SIZE = GB;
+
     private final String bucketName;
     private final String key;
     private final String uploadId;
@@ -45,6 +69,7 @@ public class UploadPartRequestFactory {
     private long remainingBytes;
     private SSECustomerKey sseCustomerKey;
     private final int totalNumberOfParts;
+    private final boolean isContentLengthKnown;
 
     /**
      * Wrapped to provide necessary mark-and-reset support for the underlying
@@ -53,7 +78,19 @@ public class UploadPartRequestFactory {
      */
     private ReleasableInputStream wrappedStream;
 
+    /** The stream peeked at for more parts when the content length is unknown. */
+    private PushbackInputStream pushbackStream;
+
     public UploadPartRequestFactory(PutObjectRequest origReq, String uploadId, long optimalPartSize) {
+        this(origReq, uploadId, optimalPartSize, origReq.getInputStream());
+    }
+
+    /**
+     * Creates a factory cutting the parts from the given stream instead of the
+     * stream of the original request.
+     */
+    public UploadPartRequestFactory(PutObjectRequest origReq, String uploadId, long optimalPartSize,
+            InputStream inputStream) {
         this.origReq = origReq;
         this.uploadId = uploadId;
         this.optimalPartSize = optimalPartSize;
@@ -61,21 +98,64 @@ public class UploadPartRequestFactory {
         this.key = origReq.getKey();
         this.file = TransferManagerUtils.getRequestFile(origReq);
         this.remainingBytes = TransferManagerUtils.getContentLength(origReq);
+        this.isContentLengthKnown = remainingBytes >= 0;
         this.sseCustomerKey = origReq.getSSECustomerKey();
         this.totalNumberOfParts = (int) Math.ceil((double) this.remainingBytes
                 / this.optimalPartSize);
-        if (origReq.getInputStream() != null) {
-            wrappedStream = ReleasableInputStream.wrap(origReq.getInputStream());
+        if (inputStream != null) {
+            if (isContentLengthKnown) {
+                wrappedStream = ReleasableInputStream.wrap(inputStream);
+            } else {
+                pushbackStream = new PushbackInputStream(inputStream);
+                wrappedStream = ReleasableInputStream.wrap(pushbackStream);
+            }
         }
     }
 
     public synchronized boolean hasMoreRequests() {
-        return (remainingBytes > 0);
+        if (isContentLengthKnown) {
+            return (remainingBytes > 0);
+        }
+        return wrappedStream != null && !isEndOfStream();
+    }
+
+    /**
+     * Returns true if the length of the data to upload is known, otherwise the
+     * size of the last part is only known once it is read.
+     */
+    public boolean isContentLengthKnown() {
+        return isContentLengthKnown;
+    }
+
+    private boolean isEndOfStream() {
+        try {
+            int next = pushbackStream.read();
+            if (next == -1) {
+                return true;
+            }
+            pushbackStream.unread(next);
+            return false;
+        } catch (IOException e) {
+            throw new SdkClientException("Unable to read the next part of the upload: " + e.getMessage(), e);
+        }
     }
 
     public synchronized UploadPartRequest getNextUploadPartRequest() {
-        long partSize = Math.min(optimalPartSize, remainingBytes);
-        boolean isLastPart = (remainingBytes - partSize <= 0);
+        long partSize;
+        boolean isLastPart;
+        if (isContentLengthKnown) {
+            partSize = Math.min(optimalPartSize, remainingBytes);
+            isLastPart = (remainingBytes - partSize <= 0);
+        } else {
+            if (partNumber > MAXIMUM_UPLOAD_PARTS) {
+                throw new SdkClientException("Unable to upload a stream of unknown length longer than "
+                        + getMaximumStreamLength(optimalPartSize) + " bytes, the maximum number of parts ("
+                        + MAXIMUM_UPLOAD_PARTS + ") has been uploaded. Set the content length of the "
+                        + "request or increase the minimum upload part size to upload longer streams.");
+            }
+            partSize = getStreamPartSize(optimalPartSize, partNumber);
+            isLastPart = false;
+        }
 
         UploadPartRequest req = null;
         if (wrappedStream != null) {
@@ -117,4 +197,25 @@ public class UploadPartRequestFactory {
         return totalNumberOfParts;
     }
 
+    /**
+     * Returns the size of the given part of a stream of unknown length.
+     */
+    private static long getStreamPartSize(long optimalPartSize, int partNumber) {
+        int step = (partNumber - 1) / PARTS_PER_PART_SIZE_STEP;
+        return Math.min(optimalPartSize << step, Math.max(optimalPartSize, MAXIMUM_STREAM_PART_SIZE));
+    }
+
+    /**
+     * Returns the length of the longest stream of unknown length that can be
+     * uploaded in parts starting from the given part size.
+     */
+    public static long getMaximumStreamLength(long optimalPartSize) {
+        long length = 0;
+        for (int step = 0; step < MAXIMUM_UPLOAD_PARTS / PARTS_PER_PART_SIZE_STEP; step++) {
+            length += PARTS_PER_PART_SIZE_STEP * getStreamPartSize(optimalPartSize,
+                    step * PARTS_PER_PART_SIZE_STEP + 1);
+        }
+        return length;
+    }
+
 }